@@ -0,0 +1,58 @@
+package com.adong.fingermark.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author ADong
+ * @Description 基准测试入口，线程数从 1 翻倍到 CPU 核数逐级运行，每级结果输出为 JSON 便于版本间对比
+ * 用法：java -jar target/benchmarks.jar [include 正则]
+ * -Dbench.threads=1,2,4 指定线程数，-Dbench.result.dir=target/jmh 指定结果目录
+ * @Date 2026-10-18 4:40 PM
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+
+        String include = args.length > 0 ? args[0] : "com.adong.fingermark.benchmark.*";
+        File resultDir = new File(System.getProperty("bench.result.dir", "target/jmh"));
+        if (!resultDir.exists() && !resultDir.mkdirs()) {
+            throw new IllegalStateException("create result dir error: " + resultDir);
+        }
+        for (int threads : threadCounts()) {
+            ChainedOptionsBuilder builder = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(resultDir, "jmh-result-t" + threads + ".json").getPath());
+            Options options = builder.build();
+            new Runner(options).run();
+        }
+    }
+
+    private static List<Integer> threadCounts() {
+
+        List<Integer> counts = new ArrayList<>();
+        String configured = System.getProperty("bench.threads");
+        if (configured != null && !configured.trim().isEmpty()) {
+            for (String count : configured.split(",")) {
+                counts.add(Integer.parseInt(count.trim()));
+            }
+            return counts;
+        }
+        int max = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads < max; threads <<= 1) {
+            counts.add(threads);
+        }
+        counts.add(max);
+        return counts;
+    }
+}
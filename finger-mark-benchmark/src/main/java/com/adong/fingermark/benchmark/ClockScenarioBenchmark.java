@@ -0,0 +1,77 @@
+package com.adong.fingermark.benchmark;
+
+import com.adong.fingermark.benchmark.support.ClockedIdGens;
+import com.adong.fingermark.benchmark.support.VirtualClock;
+import com.adong.fingermark.core.IdGen;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author ADong
+ * @Description 通过虚拟时钟复现序列耗尽和时间回拨，统计平均和尾部耗时
+ * steady：每毫秒 1000 次读取，不会耗尽 4096 的序列
+ * exhaustion：每毫秒 20000 次读取，每毫秒都会耗尽序列进入等待
+ * rollback：每 50 个虚拟毫秒回拨 3ms，进入等待回拨路径
+ * borrow：开启借用时间的加锁版本，序列耗尽和回拨都不等待
+ * @Date 2026-10-18 4:40 PM
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClockScenarioBenchmark {
+
+    @Param({"snowflake", "atomic", "borrow"})
+    private String type;
+
+    @Param({"steady", "exhaustion", "rollback"})
+    private String scenario;
+
+    private IdGen idGen;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        VirtualClock clock;
+        switch (scenario) {
+            case "exhaustion":
+                clock = new VirtualClock(20000, 0, 0);
+                break;
+            case "rollback":
+                clock = new VirtualClock(1000, 50, 3);
+                break;
+            case "steady":
+            default:
+                clock = new VirtualClock(1000, 0, 0);
+        }
+        switch (type) {
+            case "atomic":
+                idGen = ClockedIdGens.atomic(1, 10, clock);
+                break;
+            case "borrow":
+                idGen = ClockedIdGens.snowFlakeBorrow(1, 10, 10, clock);
+                break;
+            case "snowflake":
+            default:
+                idGen = ClockedIdGens.snowFlake(1, 10, clock);
+        }
+    }
+
+    @Benchmark
+    public long nextId() {
+        return idGen.nextId();
+    }
+}
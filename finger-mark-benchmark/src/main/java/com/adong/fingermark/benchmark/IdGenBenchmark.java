@@ -0,0 +1,82 @@
+package com.adong.fingermark.benchmark;
+
+import com.adong.fingermark.benchmark.support.StubRedisTemplate;
+import com.adong.fingermark.core.AtomicSnowFlakeId;
+import com.adong.fingermark.core.CachedSnowFlakeId;
+import com.adong.fingermark.core.IdGen;
+import com.adong.fingermark.core.IdGenMetrics;
+import com.adong.fingermark.core.SegmentIdGen;
+import com.adong.fingermark.core.SnowFlakeId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author ADong
+ * @Description 各 IdGen 实现单个/批量生成吞吐，线程数由 {@link BenchmarkRunner} 逐级调整
+ * @Date 2026-10-18 4:40 PM
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdGenBenchmark {
+
+    @Param({"snowflake", "atomic", "cached", "segment"})
+    private String type;
+
+    private static final int BATCH_SIZE = 100;
+
+    private IdGen idGen;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        switch (type) {
+            case "atomic":
+                idGen = new AtomicSnowFlakeId(1, 10, null);
+                break;
+            case "cached":
+                idGen = new CachedSnowFlakeId("benchmark", new SnowFlakeId(1, 10, null), 8192, 50);
+                break;
+            case "segment":
+                // 模拟 1ms Redis 往返
+                idGen = new SegmentIdGen(new StubRedisTemplate(1000), "benchmark",
+                        1000, 1000000, TimeUnit.MINUTES.toMillis(15), 10, new IdGenMetrics("benchmark"));
+                break;
+            case "snowflake":
+            default:
+                idGen = new SnowFlakeId(1, 10, null);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        idGen.destory();
+    }
+
+    @Benchmark
+    public long nextId() {
+        return idGen.nextId();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long[] nextIds() {
+        return idGen.nextIds(BATCH_SIZE);
+    }
+}
@@ -0,0 +1,98 @@
+package com.adong.fingermark.benchmark;
+
+import com.adong.fingermark.manager.IdGenHandle;
+import com.adong.fingermark.manager.IdGenManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author ADong
+ * @Description IdGenManager 按 appKey 查找生成器的开销，与预先解析的 {@link IdGenHandle} 对比
+ * 没有 Redis 时机器号注册走降级方案，不影响查找路径
+ * @Date 2026-10-18 4:40 PM
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdGenManagerBenchmark {
+
+    @Param({"1", "100"})
+    private int appKeyCount;
+
+    private IdGenManager idGenManager;
+
+    private String[] appKeys;
+
+    private IdGenHandle[] handles;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        idGenManager = new IdGenManager();
+        idGenManager.afterPropertiesSet();
+        appKeys = new String[appKeyCount];
+        handles = new IdGenHandle[appKeyCount];
+        for (int i = 0; i < appKeyCount; i++) {
+            appKeys[i] = "benchmark_" + i;
+            idGenManager.registerAppKey(appKeys[i]);
+            handles[i] = idGenManager.handle(appKeys[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (String appKey : appKeys) {
+            idGenManager.removeAppKey(appKey);
+        }
+    }
+
+    /**
+     * 每个线程轮询访问不同的 appKey
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int index;
+
+        int next(int bound) {
+            if (++index >= bound) {
+                index = 0;
+            }
+            return index;
+        }
+    }
+
+    @Benchmark
+    public long getIdDefault() {
+        return idGenManager.getId();
+    }
+
+    @Benchmark
+    public long getIdByAppKey(Cursor cursor) {
+        return idGenManager.getId(appKeys[cursor.next(appKeyCount)]);
+    }
+
+    @Benchmark
+    public long getIdByHandle(Cursor cursor) {
+        return handles[cursor.next(appKeyCount)].nextId();
+    }
+
+    @Benchmark
+    public long getIdUnregistered() {
+        return idGenManager.getId("benchmark_unregistered");
+    }
+}
@@ -0,0 +1,262 @@
+package com.adong.fingermark.benchmark;
+
+import com.adong.fingermark.benchmark.support.InMemoryRedisTemplate;
+import com.adong.fingermark.benchmark.support.PagedLongSet;
+import com.adong.fingermark.benchmark.support.SkewedClock;
+import com.adong.fingermark.core.AtomicSnowFlakeId;
+import com.adong.fingermark.core.DegradedIdUnavailableException;
+import com.adong.fingermark.core.IdGen;
+import com.adong.fingermark.core.IdGenMetrics;
+import com.adong.fingermark.core.IdLayout;
+import com.adong.fingermark.core.RecentIdGuard;
+import com.adong.fingermark.core.SnowFlakeId;
+import com.adong.fingermark.core.WorkerIdManager;
+import com.adong.fingermark.core.WorkerIdRenewer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author ADong
+ * @Description 唯一性浸泡测试，在一个 JVM 内模拟多个节点共用一个 Redis 持续发放 id
+ * 每个节点有独立的 {@link SnowFlakeId}、{@link WorkerIdManager} 和时钟，共用 {@link InMemoryRedisTemplate}；
+ * 按场景注入时钟回拨和 Redis 宕机，所有 id 写入 {@link PagedLongSet}，写入失败即为重复
+ * 每个场景输出发放数、吞吐、重复数以及降级、切换机器号、回拨等待次数
+ * 用法：java -cp target/benchmarks.jar com.adong.fingermark.benchmark.SoakRunner
+ * -Dsoak.scenarios=steady,rollback 指定场景，-Dsoak.seconds=20 每个场景时长，-Dsoak.ids=50000000 每个场景最多校验的 id 数，
+ * -Dsoak.nodes=8 节点数，-Dsoak.threads 发放线程数（默认 CPU 核数），-Dsoak.batch=100 每次批量获取数量，
+ * -Dsoak.worker.bits=4 机器号位，-Dsoak.type=snowflake|atomic 生成器类型，
+ * -Dsoak.guard=16384 每个节点的降级 id 防重窗口槽位数（0 不开启），-Dsoak.guard.window=1000 窗口时长ms
+ * 集合按 soak.ids * 8 / 0.75 字节（向上取 2 的幂）在堆内分配 long 数组，-Xmx 需大于该值，
+ * 例如 soak.ids=1000000000 需要 16GB
+ * @Date 2026-10-18 4:30 PM
+ */
+public class SoakRunner {
+
+    /** 机器号有效期，单位s，取较小值使宕机场景中租约能够过期 **/
+    private static final long LEASE_TIME = 5;
+
+    /** 续期间隔，单位s **/
+    private static final long RENEWAL_INTERVAL = 1;
+
+    private static final String APP_KEY = "soak";
+
+    /** 故障注入检查间隔，单位ms **/
+    private static final long FAULT_TICK = 10;
+
+    private enum Scenario {
+
+        /** 不注入故障 **/
+        STEADY(0, 0, 0, 0),
+
+        /** 每 200ms 随机一个节点回拨 20ms，超过等待阈值，走切换机器号 **/
+        ROLLBACK(200, 20, 0, 0),
+
+        /** 回拨同上，每 4s 中 Redis 宕机 2s，宕机期间回拨只能降级 **/
+        REDIS_OUTAGE(200, 20, 4000, 2000),
+
+        /** Redis 宕机超过租约有效期，恢复后回拨的节点重新注册，可能抢到其他节点过期的机器号 **/
+        LEASE_EXPIRY(500, 20, TimeUnit.SECONDS.toMillis(LEASE_TIME) * 3, TimeUnit.SECONDS.toMillis(LEASE_TIME) + 2000);
+
+        /** 回拨间隔，单位ms，0 不回拨 **/
+        private final long rollbackInterval;
+
+        /** 每次回拨时长，单位ms **/
+        private final long rollbackMillis;
+
+        /** 宕机周期，单位ms，0 不宕机 **/
+        private final long outageInterval;
+
+        /** 每个周期末尾宕机时长，单位ms **/
+        private final long outageMillis;
+
+        Scenario(long rollbackInterval, long rollbackMillis, long outageInterval, long outageMillis) {
+            this.rollbackInterval = rollbackInterval;
+            this.rollbackMillis = rollbackMillis;
+            this.outageInterval = outageInterval;
+            this.outageMillis = outageMillis;
+        }
+    }
+
+    private final long seconds = Long.getLong("soak.seconds", 20);
+
+    private final long maxIds = Long.getLong("soak.ids", 50_000_000L);
+
+    private final int nodeCount = Integer.getInteger("soak.nodes", 8);
+
+    private final int threadCount = Integer.getInteger("soak.threads", Runtime.getRuntime().availableProcessors());
+
+    private final int batch = Integer.getInteger("soak.batch", 100);
+
+    private final int workerBits = Integer.getInteger("soak.worker.bits", 4);
+
+    private final String type = System.getProperty("soak.type", "snowflake");
+
+    private final int guardSize = Integer.getInteger("soak.guard", 16384);
+
+    private final long guardWindow = Long.getLong("soak.guard.window", 1000);
+
+    public static void main(String[] args) throws Exception {
+
+        SoakRunner runner = new SoakRunner();
+        List<Scenario> scenarios = new ArrayList<>();
+        String configured = System.getProperty("soak.scenarios", "");
+        if (configured.trim().isEmpty()) {
+            for (Scenario scenario : Scenario.values()) {
+                scenarios.add(scenario);
+            }
+        } else {
+            for (String name : configured.split(",")) {
+                scenarios.add(Scenario.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+            }
+        }
+        PagedLongSet set = new PagedLongSet(runner.maxIds);
+        System.out.printf("type=%s, nodes=%d, threads=%d, batch=%d, workerBits=%d, set=%dMB, guard=%dKB/node%n",
+                runner.type, runner.nodeCount, runner.threadCount, runner.batch, runner.workerBits,
+                set.getMemoryBytes() >> 20, runner.guardSize > 0
+                        ? new RecentIdGuard(IdLayout.legacy(runner.workerBits), runner.guardSize, runner.guardWindow)
+                        .getMemoryBytes() >> 10 : 0);
+        System.out.printf("%-14s %14s %8s %14s %10s %10s %10s %10s %10s %12s %10s %10s %6s%n", "scenario", "ids",
+                "seconds", "ids/s", "collisions", "degraded", "switches", "waits", "rollbacks", "redisErrors",
+                "guardHits", "guardFull", "stop");
+        for (Scenario scenario : scenarios) {
+            set.clear();
+            runner.run(scenario, set);
+        }
+    }
+
+    private void run(Scenario scenario, PagedLongSet set) throws InterruptedException {
+
+        InMemoryRedisTemplate redis = new InMemoryRedisTemplate();
+        WorkerIdRenewer renewer = new WorkerIdRenewer(LEASE_TIME, RENEWAL_INTERVAL);
+        IdLayout layout = IdLayout.legacy(workerBits);
+        Node[] nodes = new Node[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            nodes[i] = new Node(redis, renewer, layout, i);
+        }
+
+        LongAdder issued = new LongAdder();
+        LongAdder collisions = new LongAdder();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            int offset = t;
+            threads[t] = new Thread(() -> {
+                long round = offset;
+                while (System.nanoTime() < deadline && !set.isFull()) {
+                    // 轮流使用各节点，线程数少于节点数时也能覆盖所有节点
+                    long[] ids;
+                    try {
+                        ids = nodes[(int) (round++ % nodes.length)].idGen.nextIds(batch);
+                    } catch (DegradedIdUnavailableException e) {
+                        // 防重窗口已满，计入 guardFull，换下一个节点继续
+                        continue;
+                    }
+                    for (long id : ids) {
+                        if (!set.add(id)) {
+                            collisions.increment();
+                        }
+                    }
+                    issued.add(ids.length);
+                }
+            }, "soak-" + t);
+            threads[t].start();
+        }
+        long rollbacks = injectFaults(scenario, redis, nodes, start, deadline, threads);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        long degraded = 0;
+        long switches = 0;
+        long waits = 0;
+        long guardHits = 0;
+        long guardFull = 0;
+        for (Node node : nodes) {
+            degraded += node.metrics.getDegraded();
+            switches += node.metrics.getWorkerSwitches();
+            waits += node.metrics.getRollbackWaits();
+            if (node.guard != null) {
+                guardHits += node.guard.getHits();
+                guardFull += node.guard.getOverflows();
+            }
+            node.idGen.destory();
+        }
+        renewer.destroy();
+        // 集合写满提前结束的场景没有覆盖完整的故障周期，需要调大 soak.ids
+        System.out.printf("%-14s %14d %8.1f %14.0f %10d %10d %10d %10d %10d %12d %10d %10d %6s%n", scenario,
+                issued.sum(), elapsed, issued.sum() / elapsed, collisions.sum(), degraded, switches, waits, rollbacks,
+                redis.getFailures(), guardHits, guardFull, set.isFull() ? "full" : "time");
+    }
+
+    /**
+     * 按场景注入故障直到发放线程全部结束
+     * @return 回拨次数
+     */
+    private long injectFaults(Scenario scenario, InMemoryRedisTemplate redis, Node[] nodes,
+                              long start, long deadline, Thread[] threads) throws InterruptedException {
+
+        long rollbacks = 0;
+        long nextRollback = scenario.rollbackInterval;
+        while (isAlive(threads)) {
+            TimeUnit.MILLISECONDS.sleep(FAULT_TICK);
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (scenario.rollbackInterval > 0 && elapsed >= nextRollback) {
+                nodes[ThreadLocalRandom.current().nextInt(nodes.length)].clock.rollback(scenario.rollbackMillis);
+                nextRollback += scenario.rollbackInterval;
+                rollbacks++;
+            }
+            if (scenario.outageInterval > 0) {
+                redis.setAvailable(elapsed % scenario.outageInterval
+                        < scenario.outageInterval - scenario.outageMillis);
+            }
+        }
+        redis.setAvailable(true);
+        return rollbacks;
+    }
+
+    private static boolean isAlive(Thread[] threads) {
+
+        for (Thread thread : threads) {
+            if (thread.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 模拟节点，注册机器号失败时与 IdGenManager 一样随机选取机器号降级
+     */
+    private class Node {
+
+        private final SkewedClock clock = new SkewedClock();
+
+        private final IdGenMetrics metrics;
+
+        private final RecentIdGuard guard;
+
+        private final IdGen idGen;
+
+        private Node(InMemoryRedisTemplate redis, WorkerIdRenewer renewer, IdLayout layout, int index) {
+            long maxWorkerId = 1L << layout.getWorkerBits();
+            this.metrics = new IdGenMetrics(APP_KEY + "-" + index);
+            WorkerIdManager manager = new WorkerIdManager(redis, true, APP_KEY, maxWorkerId,
+                    LEASE_TIME, metrics, true, renewer);
+            Long workerId = manager.registerAndGetWorkerId();
+            if (workerId == null) {
+                workerId = ThreadLocalRandom.current().nextLong(0, maxWorkerId);
+            }
+            this.guard = guardSize > 0 ? new RecentIdGuard(layout, guardSize, guardWindow) : null;
+            this.idGen = "atomic".equals(type)
+                    ? new AtomicSnowFlakeId(workerId, layout, manager, metrics, null, 0, clock, guard)
+                    : new SnowFlakeId(workerId, layout, manager, metrics, null, 0, 0, clock, guard);
+        }
+    }
+}
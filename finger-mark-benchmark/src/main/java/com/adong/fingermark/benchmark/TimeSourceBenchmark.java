@@ -0,0 +1,87 @@
+package com.adong.fingermark.benchmark;
+
+import com.adong.fingermark.core.IdGen;
+import com.adong.fingermark.core.IdGenMetrics;
+import com.adong.fingermark.core.MonotonicTimeSource;
+import com.adong.fingermark.core.SnowFlakeId;
+import com.adong.fingermark.core.TickerTimeSource;
+import com.adong.fingermark.core.TimeSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author ADong
+ * @Description 各时间源单次读取开销，以及使用各时间源时 SnowFlakeId 的发放耗时
+ * @Date 2026-10-18 10:00 AM
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimeSourceBenchmark {
+
+    @Param({"system", "monotonic", "ticker"})
+    private String source;
+
+    private TimeSource timeSource;
+
+    private MonotonicTimeSource monotonic;
+
+    private TickerTimeSource ticker;
+
+    private IdGen idGen;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        switch (source) {
+            case "monotonic":
+                monotonic = new MonotonicTimeSource(1000, 0.001, 1000);
+                timeSource = monotonic;
+                break;
+            case "ticker":
+                monotonic = new MonotonicTimeSource(1000, 0.001, 1000);
+                ticker = new TickerTimeSource(monotonic, 200);
+                timeSource = ticker;
+                break;
+            case "system":
+            default:
+                timeSource = TimeSource.SYSTEM;
+        }
+        idGen = new SnowFlakeId(1, 10, null, new IdGenMetrics(null), null, 0, timeSource);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (ticker != null) {
+            ticker.close();
+        }
+        if (monotonic != null) {
+            monotonic.close();
+        }
+    }
+
+    @Benchmark
+    public long read() {
+        return timeSource.currentTimeMillis();
+    }
+
+    @Benchmark
+    public long nextId() {
+        return idGen.nextId();
+    }
+}
@@ -0,0 +1,112 @@
+package com.adong.fingermark.benchmark;
+
+import com.adong.fingermark.benchmark.support.StubRedisTemplate;
+import com.adong.fingermark.core.IdGenMetrics;
+import com.adong.fingermark.core.LocalWorkerIdRegistry;
+import com.adong.fingermark.core.RedisWorkerIdRegistry;
+import com.adong.fingermark.core.WorkerIdManager;
+import com.adong.fingermark.core.WorkerIdRegistry;
+import com.adong.fingermark.core.WorkerIdRenewer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author ADong
+ * @Description 机器号注册耗时：逐个 setIfAbsent 与 Lua 脚本探测对比，以及 Redis 与本地槽位表注册中心对比
+ * 用本地 RedisTemplate 模拟一次往返延迟，预先占用大部分机器号模拟拥挤的集群，每次注册成功后释放保持占用率不变
+ * 本地注册中心不受 latencyMicros 影响，耗时为文件锁和内存映射读写
+ * @Date 2026-10-18 4:10 PM
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkerRegisterBenchmark {
+
+    private static final String APP_KEY = "benchmark";
+
+    private static final long MAX_WORKER_ID = 1024;
+
+    @Param({"0.5", "0.9", "0.99"})
+    private double occupancy;
+
+    @Param({"true", "false"})
+    private boolean script;
+
+    /** 注册中心：redis、local **/
+    @Param({"redis", "local"})
+    private String registry;
+
+    /** 模拟单次 Redis 往返延迟，单位μs **/
+    @Param({"200"})
+    private long latencyMicros;
+
+    private WorkerIdRegistry workerIdRegistry;
+
+    private WorkerIdRenewer renewer;
+
+    private WorkerIdManager workerIdManager;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        long occupied = (long) (MAX_WORKER_ID * occupancy);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if ("local".equals(registry)) {
+            workerIdRegistry = new LocalWorkerIdRegistry(
+                    Files.createTempDirectory("worker-registry").toString());
+            for (long filled = 0; filled < occupied; ) {
+                if (workerIdRegistry.acquire(APP_KEY, random.nextLong(MAX_WORKER_ID), MAX_WORKER_ID, 1, 180) >= 0) {
+                    filled++;
+                }
+            }
+        } else {
+            StubRedisTemplate redisTemplate = new StubRedisTemplate(latencyMicros);
+            for (long filled = 0; filled < occupied; ) {
+                long workerId = random.nextLong(MAX_WORKER_ID);
+                String key = String.format("snow_flake_worker_%s_%s", APP_KEY, workerId);
+                if (redisTemplate.occupy(key)) {
+                    filled++;
+                }
+            }
+            workerIdRegistry = new RedisWorkerIdRegistry(redisTemplate);
+        }
+        renewer = new WorkerIdRenewer(180, 3600);
+        workerIdManager = new WorkerIdManager(workerIdRegistry, true, APP_KEY, MAX_WORKER_ID,
+                180, new IdGenMetrics(APP_KEY), script, renewer);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        workerIdManager.destroy();
+        renewer.destroy();
+        workerIdRegistry.close();
+    }
+
+    /**
+     * 两种策略都额外包含一次释放（Redis 下为 DEL 往返）
+     */
+    @Benchmark
+    public Long register() {
+        Long workerId = workerIdManager.registerAndGetWorkerId();
+        workerIdManager.delWorkerId(workerId);
+        return workerId;
+    }
+}
@@ -0,0 +1,32 @@
+package com.adong.fingermark.benchmark.support;
+
+import com.adong.fingermark.core.AtomicSnowFlakeId;
+import com.adong.fingermark.core.IdGen;
+import com.adong.fingermark.core.IdGenMetrics;
+import com.adong.fingermark.core.SnowFlakeId;
+
+/**
+ * @author ADong
+ * @Description 使用 {@link VirtualClock} 作为时间源的雪花算法生成器
+ * @Date 2026-10-18 4:40 PM
+ */
+public final class ClockedIdGens {
+
+    private ClockedIdGens() {
+    }
+
+    public static IdGen snowFlake(long workerId, long workerIdShift, VirtualClock clock) {
+        return snowFlakeBorrow(workerId, workerIdShift, 0, clock);
+    }
+
+    /**
+     * 开启借用时间的雪花算法
+     */
+    public static IdGen snowFlakeBorrow(long workerId, long workerIdShift, long maxBorrow, VirtualClock clock) {
+        return new SnowFlakeId(workerId, workerIdShift, null, new IdGenMetrics(null), null, maxBorrow, clock);
+    }
+
+    public static IdGen atomic(long workerId, long workerIdShift, VirtualClock clock) {
+        return new AtomicSnowFlakeId(workerId, workerIdShift, null, new IdGenMetrics(null), null, clock);
+    }
+}
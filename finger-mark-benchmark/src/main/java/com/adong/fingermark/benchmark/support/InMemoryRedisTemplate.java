@@ -0,0 +1,234 @@
+package com.adong.fingermark.benchmark.support;
+
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author ADong
+ * @Description 进程内的 Redis 替身，供浸泡测试模拟多个节点共用一个 Redis
+ * 与 {@link StubRedisTemplate} 不同，key 按真实时间过期，续期 pipeline 中的 SET NX EX 和 EXPIRE 按语义执行，
+ * 可以通过 {@link #setAvailable(boolean)} 模拟 Redis 不可用，不可用期间所有调用抛出连接异常、key 照常过期
+ * 支持 INCRBY、SET、SET NX [EX]、GET、EXPIRE、DEL 和机器号注册脚本（本地按相同语义执行，不解析 Lua）
+ * @Date 2026-10-18 4:30 PM
+ */
+public class InMemoryRedisTemplate extends RedisTemplate<String, Object> {
+
+    private final Map<String, Entry> values = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    private final ValueOperations<String, Object> valueOperations;
+
+    private final LongAdder calls = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    private volatile boolean available = true;
+
+    @SuppressWarnings("unchecked")
+    public InMemoryRedisTemplate() {
+        setKeySerializer(StringRedisSerializer.UTF_8);
+        setValueSerializer(StringRedisSerializer.UTF_8);
+        this.valueOperations = (ValueOperations<String, Object>) Proxy.newProxyInstance(
+                InMemoryRedisTemplate.class.getClassLoader(),
+                new Class[]{ValueOperations.class},
+                (proxy, method, args) -> {
+                    int length = args == null ? 0 : args.length;
+                    switch (method.getName() + "/" + length) {
+                        case "setIfAbsent/2":
+                            return setIfAbsent((String) args[0], args[1], Long.MAX_VALUE);
+                        case "setIfAbsent/4":
+                            return setIfAbsent((String) args[0], args[1],
+                                    ((TimeUnit) args[3]).toNanos(((Number) args[2]).longValue()));
+                        case "set/2":
+                            call();
+                            values.put((String) args[0], new Entry(args[1], Long.MAX_VALUE));
+                            return null;
+                        case "get/1":
+                            call();
+                            Entry entry = live((String) args[0]);
+                            return entry == null ? null : entry.value;
+                        case "increment/2":
+                            call();
+                            return counters.computeIfAbsent((String) args[0], k -> new AtomicLong())
+                                    .addAndGet(((Number) args[1]).longValue());
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /**
+     * 模拟 Redis 宕机或恢复
+     * @param available
+     */
+    public void setAvailable(boolean available) {
+        this.available = available;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    @Override
+    public ValueOperations<String, Object> opsForValue() {
+        return valueOperations;
+    }
+
+    @Override
+    public Boolean expire(String key, long timeout, TimeUnit unit) {
+        call();
+        return expire(key, unit.toNanos(timeout));
+    }
+
+    @Override
+    public Boolean delete(String key) {
+        call();
+        return values.remove(key) != null;
+    }
+
+    /**
+     * 续期 pipeline：只支持 SET key value EX NX 和 EXPIRE，整个 pipeline 算一次调用
+     */
+    @Override
+    public List<Object> executePipelined(RedisCallback<?> action) {
+        call();
+        RedisConnection connection = (RedisConnection) Proxy.newProxyInstance(
+                InMemoryRedisTemplate.class.getClassLoader(),
+                new Class[]{RedisConnection.class},
+                (proxy, method, args) -> {
+                    int length = args == null ? 0 : args.length;
+                    switch (method.getName() + "/" + length) {
+                        case "stringCommands/0":
+                        case "keyCommands/0":
+                            return proxy;
+                        case "set/4":
+                            Expiration expiration = (Expiration) args[2];
+                            return setIfAbsent(decode((byte[]) args[0]), decode((byte[]) args[1]),
+                                    expiration.getConverted(TimeUnit.NANOSECONDS));
+                        case "expire/2":
+                            return expire(decode((byte[]) args[0]),
+                                    TimeUnit.SECONDS.toNanos(((Number) args[1]).longValue()));
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        action.doInRedis(connection);
+        return Collections.emptyList();
+    }
+
+    /**
+     * 按机器号注册脚本的语义执行：ARGV 为 key 前缀, start, maxWorkerId, size, 有效期, 值
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T execute(RedisScript<T> script, RedisSerializer<?> argsSerializer,
+                         RedisSerializer<T> resultSerializer, List<String> keys, Object... args) {
+        call();
+        String prefix = (String) args[0];
+        long start = ((Number) args[1]).longValue();
+        long max = ((Number) args[2]).longValue();
+        long size = ((Number) args[3]).longValue();
+        long ttl = TimeUnit.SECONDS.toNanos(((Number) args[4]).longValue());
+        for (long i = 0; i < size; i++) {
+            long id = (start + i) % max;
+            if (putIfAbsent(prefix + id, args[5], ttl)) {
+                return (T) Long.valueOf(id);
+            }
+        }
+        return (T) Long.valueOf(-1);
+    }
+
+    /**
+     * 当前未过期的 key 数量，不计入调用
+     * @param prefix
+     * @return
+     */
+    public long countLive(String prefix) {
+        return values.keySet().stream().filter(key -> key.startsWith(prefix) && live(key) != null).count();
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    private Boolean setIfAbsent(String key, Object value, long ttlNanos) {
+        call();
+        return putIfAbsent(key, value, ttlNanos);
+    }
+
+    private boolean putIfAbsent(String key, Object value, long ttlNanos) {
+
+        long now = System.nanoTime();
+        Entry created = new Entry(value, ttlNanos == Long.MAX_VALUE ? Long.MAX_VALUE : now + ttlNanos);
+        return values.compute(key, (k, entry) -> entry == null || entry.expired(now) ? created : entry) == created;
+    }
+
+    private Boolean expire(String key, long ttlNanos) {
+
+        long now = System.nanoTime();
+        return values.computeIfPresent(key, (k, entry) ->
+                entry.expired(now) ? null : new Entry(entry.value, now + ttlNanos)) != null;
+    }
+
+    private Entry live(String key) {
+
+        Entry entry = values.get(key);
+        if (entry != null && entry.expired(System.nanoTime())) {
+            values.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    private void call() {
+
+        calls.increment();
+        if (!available) {
+            failures.increment();
+            throw new RedisConnectionFailureException("in-memory redis unavailable");
+        }
+    }
+
+    private static String decode(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static class Entry {
+
+        private final Object value;
+
+        /** 过期时间，nanoTime，Long.MAX_VALUE 表示不过期 **/
+        private final long expireAt;
+
+        private Entry(Object value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+
+        private boolean expired(long now) {
+            return expireAt != Long.MAX_VALUE && now - expireAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.adong.fingermark.benchmark.support;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author ADong
+ * @Description 分页的无锁开放寻址 long 集合，用于校验数十亿 id 的唯一性
+ * 容量固定为 2 的幂，线性探测，每个槽位 8 字节，插入只有一次 CAS，不装箱、不扩容、不产生垃圾
+ * 槽位按 {@link #PAGE_SLOTS} 分成多个 {@link AtomicLongArray}，突破单个数组 2^31 个元素的限制；
+ * 页内只有 long，GC 不扫描内容，但占用堆，校验数十亿 id 时需相应调大 -Xmx
+ * 0 作为空槽位标记，单独用一个标志位记录；容量按 {@link #MAX_LOAD_FACTOR} 预留，超过后 {@link #isFull()} 返回 true
+ * @Date 2026-10-18 4:30 PM
+ */
+public class PagedLongSet {
+
+    /** 超过该装载率后探测长度明显变长，调用方应停止写入 **/
+    public static final double MAX_LOAD_FACTOR = 0.75;
+
+    /** 每页槽位数，1GB **/
+    private static final int PAGE_SHIFT = 27;
+
+    private static final int PAGE_SLOTS = 1 << PAGE_SHIFT;
+
+    private static final int PAGE_MASK = PAGE_SLOTS - 1;
+
+    private static final long EMPTY = 0;
+
+    private final long capacity;
+
+    private final long mask;
+
+    private final AtomicLongArray[] pages;
+
+    private final long threshold;
+
+    private final AtomicBoolean containsZero = new AtomicBoolean();
+
+    private final LongAdder size = new LongAdder();
+
+    /**
+     * @param expected 预计写入数量，容量取不小于 expected / MAX_LOAD_FACTOR 的 2 的幂
+     */
+    public PagedLongSet(long expected) {
+        if (expected <= 0) {
+            throw new IllegalArgumentException("expected set error!");
+        }
+        long slots = (long) Math.ceil(expected / MAX_LOAD_FACTOR);
+        this.capacity = Math.max(2, Long.highestOneBit(slots - 1) << 1);
+        this.mask = capacity - 1;
+        this.threshold = (long) (capacity * MAX_LOAD_FACTOR);
+        int pageCount = (int) ((capacity + PAGE_SLOTS - 1) >>> PAGE_SHIFT);
+        this.pages = new AtomicLongArray[pageCount];
+        for (int i = 0; i < pageCount; i++) {
+            pages[i] = new AtomicLongArray((int) Math.min(PAGE_SLOTS, capacity));
+        }
+    }
+
+    /**
+     * 写入 value
+     * @param value
+     * @return 已存在返回 false
+     */
+    public boolean add(long value) {
+
+        if (value == EMPTY) {
+            return containsZero.compareAndSet(false, true) && increment();
+        }
+        long index = mix(value) & mask;
+        for (long probed = 0; probed < capacity; probed++) {
+            AtomicLongArray page = pages[(int) (index >>> PAGE_SHIFT)];
+            int offset = (int) (index & PAGE_MASK);
+            long current = page.get(offset);
+            if (current == EMPTY) {
+                if (page.compareAndSet(offset, EMPTY, value)) {
+                    return increment();
+                }
+                current = page.get(offset);
+            }
+            if (current == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        throw new IllegalStateException("PagedLongSet is full, capacity=" + capacity);
+    }
+
+    public boolean contains(long value) {
+
+        if (value == EMPTY) {
+            return containsZero.get();
+        }
+        long index = mix(value) & mask;
+        for (long probed = 0; probed < capacity; probed++) {
+            long current = pages[(int) (index >>> PAGE_SHIFT)].get((int) (index & PAGE_MASK));
+            if (current == value) {
+                return true;
+            }
+            if (current == EMPTY) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * 清空，调用期间不能有并发写入，之后启动的写入线程可见
+     */
+    public void clear() {
+
+        for (AtomicLongArray page : pages) {
+            for (int i = 0; i < page.length(); i++) {
+                page.lazySet(i, EMPTY);
+            }
+        }
+        containsZero.set(false);
+        size.reset();
+    }
+
+    public boolean isFull() {
+        return size.sum() >= threshold;
+    }
+
+    public long size() {
+        return size.sum();
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 槽位占用的内存，单位字节
+     * @return
+     */
+    public long getMemoryBytes() {
+        return capacity * Long.BYTES;
+    }
+
+    private boolean increment() {
+        size.increment();
+        return true;
+    }
+
+    /**
+     * id 的低位是连续的序列，打散后再取槽位，避免线性探测聚集
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+}
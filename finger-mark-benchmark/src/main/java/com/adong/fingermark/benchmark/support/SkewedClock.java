@@ -0,0 +1,33 @@
+package com.adong.fingermark.benchmark.support;
+
+import com.adong.fingermark.core.TimeSource;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author ADong
+ * @Description 系统时间加可调偏移的时间源，浸泡测试中模拟单个节点的时钟回拨
+ * 回拨后偏移一直保留，与 NTP 把快了的时钟拨回去的效果一致
+ * @Date 2026-10-18 4:30 PM
+ */
+public class SkewedClock implements TimeSource {
+
+    private final AtomicLong offset = new AtomicLong();
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis() + offset.get();
+    }
+
+    /**
+     * 时钟回拨 millis
+     * @param millis
+     */
+    public void rollback(long millis) {
+        offset.addAndGet(-millis);
+    }
+
+    public long getOffset() {
+        return offset.get();
+    }
+}
@@ -0,0 +1,120 @@
+package com.adong.fingermark.benchmark.support;
+
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author ADong
+ * @Description 基准测试用 RedisTemplate，支持号段模式使用的 INCRBY 和机器号注册使用的 SET NX、EXPIRE、DEL、注册脚本
+ * 每次调用（包括一次脚本执行）模拟一次网络往返延迟，脚本在本地按相同语义执行，不解析 Lua
+ * 不处理过期，key 一直保留到被删除，pipeline 续期直接忽略
+ * @Date 2026-10-18 4:40 PM
+ */
+public class StubRedisTemplate extends RedisTemplate<String, Object> {
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    private final Map<String, Object> values = new ConcurrentHashMap<>();
+
+    private final ValueOperations<String, Object> valueOperations;
+
+    private final long latencyMicros;
+
+    @SuppressWarnings("unchecked")
+    public StubRedisTemplate(long latencyMicros) {
+        this.latencyMicros = latencyMicros;
+        this.valueOperations = (ValueOperations<String, Object>) Proxy.newProxyInstance(
+                StubRedisTemplate.class.getClassLoader(),
+                new Class[]{ValueOperations.class},
+                (proxy, method, args) -> {
+                    if ("increment".equals(method.getName()) && args != null && args.length == 2) {
+                        simulateLatency(latencyMicros);
+                        return counters.computeIfAbsent((String) args[0], k -> new AtomicLong())
+                                .addAndGet(((Number) args[1]).longValue());
+                    }
+                    if ("setIfAbsent".equals(method.getName()) && args != null && args.length == 4) {
+                        simulateLatency(latencyMicros);
+                        return values.putIfAbsent((String) args[0], args[1]) == null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @Override
+    public ValueOperations<String, Object> opsForValue() {
+        return valueOperations;
+    }
+
+    /**
+     * 不经过模拟延迟直接写入 key，用于预先占用机器号
+     * @param key
+     * @return key 之前不存在返回 true
+     */
+    public boolean occupy(String key) {
+        return values.putIfAbsent(key, "1") == null;
+    }
+
+    @Override
+    public Boolean expire(String key, long timeout, TimeUnit unit) {
+        simulateLatency();
+        return values.containsKey(key);
+    }
+
+    @Override
+    public Boolean delete(String key) {
+        simulateLatency();
+        return values.remove(key) != null;
+    }
+
+    @Override
+    public List<Object> executePipelined(RedisCallback<?> action) {
+        simulateLatency();
+        return Collections.emptyList();
+    }
+
+    /**
+     * 按机器号注册脚本的语义执行：ARGV 为 key 前缀, start, maxWorkerId, size, 有效期, 值
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T execute(RedisScript<T> script, RedisSerializer<?> argsSerializer,
+                         RedisSerializer<T> resultSerializer, List<String> keys, Object... args) {
+        simulateLatency();
+        String prefix = (String) args[0];
+        long start = ((Number) args[1]).longValue();
+        long max = ((Number) args[2]).longValue();
+        long size = ((Number) args[3]).longValue();
+        for (long i = 0; i < size; i++) {
+            long id = (start + i) % max;
+            if (values.putIfAbsent(prefix + id, args[5]) == null) {
+                return (T) Long.valueOf(id);
+            }
+        }
+        return (T) Long.valueOf(-1);
+    }
+
+    private void simulateLatency() {
+        try {
+            simulateLatency(latencyMicros);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void simulateLatency(long latencyMicros) throws InterruptedException {
+        if (latencyMicros > 0) {
+            Thread.sleep(latencyMicros / 1000, (int) (latencyMicros % 1000) * 1000);
+        }
+    }
+}
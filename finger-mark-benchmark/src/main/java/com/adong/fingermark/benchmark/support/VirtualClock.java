@@ -0,0 +1,45 @@
+package com.adong.fingermark.benchmark.support;
+
+import com.adong.fingermark.core.TimeSource;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author ADong
+ * @Description 由读取次数和真实流逝时间共同驱动的虚拟时钟
+ * 每读取 readsPerMillis 次前进 1ms，readsPerMillis 大于序列上限即可稳定复现序列耗尽；
+ * 生成器挂起等待时真实时间照常推进，不会因为没有读取而停住；
+ * rollbackPeriod 大于 0 时每 rollbackPeriod 个虚拟毫秒中的最后 1ms 回拨 rollbackMillis
+ * @Date 2026-10-18 4:40 PM
+ */
+public class VirtualClock implements TimeSource {
+
+    private final long base = System.currentTimeMillis();
+
+    private final long startNanos = System.nanoTime();
+
+    private final AtomicLong reads = new AtomicLong();
+
+    private final long readsPerMillis;
+
+    private final long rollbackPeriod;
+
+    private final long rollbackMillis;
+
+    public VirtualClock(long readsPerMillis, long rollbackPeriod, long rollbackMillis) {
+        this.readsPerMillis = readsPerMillis;
+        this.rollbackPeriod = rollbackPeriod;
+        this.rollbackMillis = rollbackMillis;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        long millis = reads.getAndIncrement() / readsPerMillis
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        if (rollbackPeriod > 0 && millis % rollbackPeriod == rollbackPeriod - 1) {
+            return base + millis - rollbackMillis;
+        }
+        return base + millis;
+    }
+}
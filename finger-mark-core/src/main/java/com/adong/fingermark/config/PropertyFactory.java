@@ -0,0 +1,55 @@
+package com.adong.fingermark.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * @author ADong
+ * @Description 配置工厂
+ * @Date 2022-08-15 11:45 AM
+ */
+public class PropertyFactory {
+
+    private static final Logger log = LoggerFactory.getLogger(PropertyFactory.class);
+
+    private static final Properties prop = new Properties();
+    static {
+        // 嵌入业务进程时 classpath 中不一定有 application.properties，全部使用默认值
+        try (InputStream in = PropertyFactory.class.getClassLoader().getResourceAsStream("application.properties")) {
+            if (in != null) {
+                prop.load(in);
+            } else {
+                log.warn("application.properties not found, use default config");
+            }
+        } catch (IOException e) {
+            log.error("Load Properties Ex", e);
+        }
+    }
+    public static Properties getProperties() {
+        return prop;
+    }
+
+    /**
+     * 覆盖配置，需在 {@link com.adong.fingermark.manager.IdGenManager} 初始化前调用
+     * @param key
+     * @param value
+     */
+    public static void setProperty(String key, String value) {
+        prop.setProperty(key, value);
+    }
+
+    /**
+     * 获取 appKey 维度配置，优先取 key.appKey，没有再取 key
+     * @param key
+     * @param appKey
+     * @param defaultValue
+     * @return
+     */
+    public static String getProperty(String key, String appKey, String defaultValue) {
+        return prop.getProperty(key + "." + appKey, prop.getProperty(key, defaultValue));
+    }
+}
@@ -3,8 +3,6 @@ package com.adong.fingermark.config;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
@@ -12,14 +10,16 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 /**
  * @author ADong
- * @Description RedisConfig
- * @Date 2022-08-15 7:34 PM
+ * @Description 机器号、位布局、号段使用的 RedisTemplate
+ * 独立服务和嵌入业务进程的节点必须使用相同的序列化方式，才能看到彼此的机器号租约和已发布的位布局
+ * @Date 2026-10-18 10:20 AM
  */
-@Configuration
-public class RedisConfig {
+public final class RedisTemplateFactory {
 
-    @Bean
-    public RedisTemplate<String,Object> redisTemplate(RedisConnectionFactory factory){
+    private RedisTemplateFactory() {
+    }
+
+    public static RedisTemplate<String, Object> create(RedisConnectionFactory factory) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(factory);
         Jackson2JsonRedisSerializer jackson2JsonRedisSerializer = new Jackson2JsonRedisSerializer(Object.class);
@@ -40,4 +40,3 @@ public class RedisConfig {
         return template;
     }
 }
-
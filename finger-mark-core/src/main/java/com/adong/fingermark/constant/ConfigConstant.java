@@ -0,0 +1,174 @@
+package com.adong.fingermark.constant;
+
+import com.adong.fingermark.core.SnowFlakeId;
+import com.adong.fingermark.core.WorkerIdManager;
+
+/**
+ * @author ADong
+ * @Description ConfigConstant
+ * @Date 2022-08-15 5:59 PM
+ */
+public abstract class ConfigConstant {
+
+    /** 机器号位 {@link SnowFlakeId#workerIdShift} **/
+    public final static String WORKERID_SHIFT = "workerId.shift";
+
+    /** 随机策略达到上限后是否启用顺序策略 {@link WorkerIdManager#sequenceSetWorkerId()} **/
+    public final static String OPEN_SEQUENCE_SET_WORKERID = "workerId.open.sequence.strategy";
+
+    /** 机器号续期任务间隔时间，单位s {@link com.adong.fingermark.core.WorkerIdRenewer#renewalIntervalTime} **/
+    public final static String WORKERID_RENEWAL_INTERVAL_TIME = "workerId.renewal.Interval.time";
+
+    /** 机器号续期时间，单位s {@link WorkerIdManager#renewalTime} **/
+    public final static String WORKERID_RENEWAL_TIME = "workerId.renewal.time";
+
+    /** 是否使用 Lua 脚本注册机器号，一次往返探测一批机器号，Redis Cluster 需关闭 {@link WorkerIdManager#scriptRegister} **/
+    public final static String WORKERID_REGISTER_SCRIPT_ENABLE = "workerId.register.script.enable";
+
+    /** 是否所有 appKey 共用一个机器号租约，集群内所有节点需保持一致 **/
+    public final static String WORKERID_LEASE_SHARED = "workerId.lease.shared";
+
+    /** 机器号注册中心类型 {@link WorkerIdRegistryType} **/
+    public final static String WORKERID_REGISTRY = "workerId.registry";
+
+    /** 本地注册中心槽位表所在目录，同一台主机上需要协调的 JVM 配置同一个目录 {@link com.adong.fingermark.core.LocalWorkerIdRegistry} **/
+    public final static String WORKERID_REGISTRY_LOCAL_DIR = "workerId.registry.local.dir";
+
+    /** ID 生成器类型，支持 idGen.type.{appKey} 单独配置 {@link IdGenType} **/
+    public final static String IDGEN_TYPE = "idGen.type";
+
+    /** 批量获取 id 单次最大数量 {@link com.adong.fingermark.manager.IdGenManager#getIds(String, int)} **/
+    public final static String IDGEN_BATCH_MAX_SIZE = "idGen.batch.max.size";
+
+    /** 流式获取 id 单次请求最大数量（finger-mark-server IdGenController#stream） **/
+    public final static String IDGEN_STREAM_MAX_COUNT = "idGen.stream.max.count";
+
+    /** 是否开放诊断接口，包括停顿记录（finger-mark-server IdGenController#stalls） **/
+    public final static String IDGEN_DIAGNOSTICS_ENABLE = "idGen.diagnostics.enable";
+
+    /** 是否启用 TCP 二进制协议服务（finger-mark-server IdTcpServer） **/
+    public final static String IDGEN_TCP_ENABLE = "idGen.tcp.enable";
+
+    /** TCP 服务监听地址 **/
+    public final static String IDGEN_TCP_HOST = "idGen.tcp.host";
+
+    /** TCP 服务监听端口 **/
+    public final static String IDGEN_TCP_PORT = "idGen.tcp.port";
+
+    /** TCP 服务生成 id 的工作线程数，默认 CPU 核数 **/
+    public final static String IDGEN_TCP_WORKER_THREADS = "idGen.tcp.worker.threads";
+
+    /** 逻辑时间最多借用的未来毫秒数，0 不开启，支持 appKey 单独配置 {@link com.adong.fingermark.core.SnowFlakeId#maxBorrow} **/
+    public final static String IDGEN_CLOCK_BORROW_MAX = "idGen.clock.borrow.max";
+
+    /** 序列耗尽时最多借用的未来毫秒数，0 等待下一个时间戳，支持 appKey 单独配置 {@link com.adong.fingermark.core.SnowFlakeId#sequenceBorrow} **/
+    public final static String IDGEN_SEQUENCE_BORROW_MAX = "idGen.sequence.borrow.max";
+
+    /** 降级 id 防重窗口槽位数，向上取 2 的幂，默认 0 不开启，回拨期间最多发放的降级 id 数，支持 appKey 单独配置 {@link com.adong.fingermark.core.RecentIdGuard} **/
+    public final static String IDGEN_DEGRADED_GUARD_SIZE = "idGen.degraded.guard.size";
+
+    /** 降级 id 防重窗口时长，单位ms，支持 appKey 单独配置 **/
+    public final static String IDGEN_DEGRADED_GUARD_WINDOW = "idGen.degraded.guard.window";
+
+    /** 嵌入业务进程时 IdGen bean 使用的 appKey，默认 default（finger-mark-spring-boot-starter FingerMarkAutoConfiguration） **/
+    public final static String IDGEN_EMBEDDED_APP_KEY = "idGen.embedded.appKey";
+
+    /** 是否开启 appKey 维度的准入控制 {@link com.adong.fingermark.manager.TenantLimiter} **/
+    public final static String IDGEN_LIMIT_ENABLE = "idGen.limit.enable";
+
+    /** 每秒发放 id 数上限，0 不限制，支持 appKey 单独配置 {@link com.adong.fingermark.manager.TenantLimiter.Quota#rate} **/
+    public final static String IDGEN_LIMIT_RATE = "idGen.limit.rate";
+
+    /** 突发 id 数，0 等于每秒上限，支持 appKey 单独配置 {@link com.adong.fingermark.manager.TenantLimiter.Quota#burst} **/
+    public final static String IDGEN_LIMIT_BURST = "idGen.limit.burst";
+
+    /** 最大在途请求数，0 不限制，支持 appKey 单独配置 {@link com.adong.fingermark.manager.TenantLimiter.Quota#maxConcurrency} **/
+    public final static String IDGEN_LIMIT_CONCURRENCY = "idGen.limit.concurrency";
+
+    /** 配额数量上限，超过后新出现的 appKey 共用一个配额 {@link com.adong.fingermark.manager.TenantLimiter#maxTenants} **/
+    public final static String IDGEN_LIMIT_MAX_TENANTS = "idGen.limit.max.tenants";
+
+    /** 雪花算法时间源，支持 appKey 单独配置 {@link TimeSourceType} **/
+    public final static String IDGEN_TIME_SOURCE = "idGen.time.source";
+
+    /** 单调时间源与系统时间对齐间隔，单位ms {@link com.adong.fingermark.core.MonotonicTimeSource#resyncInterval} **/
+    public final static String IDGEN_TIME_RESYNC_INTERVAL = "idGen.time.resync.interval";
+
+    /** 单调时间源最大速率偏差 {@link com.adong.fingermark.core.MonotonicTimeSource#maxSlewRate} **/
+    public final static String IDGEN_TIME_MAX_SLEW_RATE = "idGen.time.max.slew.rate";
+
+    /** 系统时间超前单调时间超过该值直接跟上，单位ms {@link com.adong.fingermark.core.MonotonicTimeSource#stepThreshold} **/
+    public final static String IDGEN_TIME_STEP_THRESHOLD = "idGen.time.step.threshold";
+
+    /** ticker 时间源刷新间隔，单位μs {@link com.adong.fingermark.core.TickerTimeSource#tickInterval} **/
+    public final static String IDGEN_TIME_TICK_INTERVAL = "idGen.time.tick.interval";
+
+    /** id 起始时间，单位ms，0 为 1970 年（原有布局），支持 appKey 单独配置 {@link com.adong.fingermark.core.IdLayout#epoch} **/
+    public final static String IDGEN_EPOCH = "idGen.epoch";
+
+    /** 时间戳单位，单位ms，支持 appKey 单独配置 {@link com.adong.fingermark.core.IdLayout#timeUnit} **/
+    public final static String IDGEN_TIME_UNIT = "idGen.time.unit";
+
+    /** 序列位数，为空时按 idGen.layout.years 推导，支持 appKey 单独配置 {@link com.adong.fingermark.core.IdLayout#sequenceBits} **/
+    public final static String IDGEN_SEQUENCE_BITS = "idGen.sequence.bits";
+
+    /** 推导序列位数时时间戳从 epoch 起至少可用的年数 {@link com.adong.fingermark.core.IdLayout#fit} **/
+    public final static String IDGEN_LAYOUT_YEARS = "idGen.layout.years";
+
+    /** 是否根据存活节点数自动选择机器号位数，支持 appKey 单独配置 **/
+    public final static String IDGEN_LAYOUT_AUTO = "idGen.layout.auto";
+
+    /** 自动选择机器号位数时按存活节点数的倍数预留 {@link com.adong.fingermark.core.IdLayout#workerBitsFor} **/
+    public final static String IDGEN_LAYOUT_AUTO_HEADROOM = "idGen.layout.auto.headroom";
+
+    /** 自动选择机器号位数时的最小位数，默认 workerId.shift {@link com.adong.fingermark.core.IdLayout#workerBitsFor} **/
+    public final static String IDGEN_LAYOUT_AUTO_MIN_BITS = "idGen.layout.auto.min.bits";
+
+    /** 数据中心号位数，0 不划分数据中心 {@link com.adong.fingermark.core.IdLayout#datacenterBits} **/
+    public final static String IDGEN_DATACENTER_BITS = "idGen.datacenter.bits";
+
+    /** 本节点数据中心号，机器号在数据中心内独立注册 {@link WorkerIdManager#datacenterId} **/
+    public final static String IDGEN_DATACENTER_ID = "idGen.datacenter.id";
+
+    /** 本地时间戳检查点目录，为空不开启 {@link com.adong.fingermark.core.TimestampCheckpoint} **/
+    public final static String IDGEN_CHECKPOINT_DIR = "idGen.checkpoint.dir";
+
+    /** 检查点每次预留的时间，单位ms，越大写文件越少，重启时可能需要等待的时间越长 **/
+    public final static String IDGEN_CHECKPOINT_INTERVAL = "idGen.checkpoint.interval";
+
+    /** 重启沿用检查点机器号时最长等待时间，单位ms，超过则重新注册机器号 **/
+    public final static String IDGEN_CHECKPOINT_MAX_WAIT = "idGen.checkpoint.max.wait";
+
+    /** 缓存生成器缓冲区大小，支持 appKey 单独配置 {@link com.adong.fingermark.core.CachedSnowFlakeId#capacity} **/
+    public final static String IDGEN_CACHE_SIZE = "idGen.cache.size";
+
+    /** 缓存生成器填充阈值百分比，支持 appKey 单独配置 {@link com.adong.fingermark.core.CachedSnowFlakeId#paddingThreshold} **/
+    public final static String IDGEN_CACHE_PADDING_FACTOR = "idGen.cache.padding.factor";
+
+    /** 缓存生成器中 id 的最长停留时间，单位ms，0 不限制，支持 appKey 单独配置 {@link com.adong.fingermark.core.CachedSnowFlakeId#maxAge} **/
+    public final static String IDGEN_CACHE_MAX_AGE = "idGen.cache.max.age";
+
+    /** 号段模式初始（最小）步长，支持 appKey 单独配置 {@link com.adong.fingermark.core.SegmentIdGen#minStep} **/
+    public final static String SEGMENT_STEP = "segment.step";
+
+    /** 号段模式最大步长，支持 appKey 单独配置 {@link com.adong.fingermark.core.SegmentIdGen#maxStep} **/
+    public final static String SEGMENT_MAX_STEP = "segment.max.step";
+
+    /** 号段期望消耗时长，单位s，用于自适应步长 {@link com.adong.fingermark.core.SegmentIdGen#segmentDuration} **/
+    public final static String SEGMENT_DURATION = "segment.duration";
+
+    /** 号段使用百分比达到该值后异步加载下一个号段 {@link com.adong.fingermark.core.SegmentIdGen#prefetchFactor} **/
+    public final static String SEGMENT_PREFETCH_FACTOR = "segment.prefetch.factor";
+
+    /** 访问日志 1/N 采样，1 全部记录，0 只记录慢调用（finger-mark-server AccessLogBuffer#sampleRate） **/
+    public final static String ACCESS_LOG_SAMPLE_RATE = "accessLog.sample.rate";
+
+    /** 访问日志慢调用阈值，单位μs，超过总是记录，0 不启用（finger-mark-server AccessLogBuffer#slowThreshold） **/
+    public final static String ACCESS_LOG_SLOW_THRESHOLD = "accessLog.slow.threshold";
+
+    /** 访问日志是否序列化返回值（finger-mark-server AccessLogBuffer#logResult） **/
+    public final static String ACCESS_LOG_RESULT_ENABLE = "accessLog.result.enable";
+
+    /** 访问日志缓冲区大小 **/
+    public final static String ACCESS_LOG_BUFFER_SIZE = "accessLog.buffer.size";
+}
@@ -0,0 +1,21 @@
+package com.adong.fingermark.constant;
+
+/**
+ * @author ADong
+ * @Description ID 生成器类型 {@link ConfigConstant#IDGEN_TYPE}
+ * @Date 2026-10-18 10:05 AM
+ */
+public enum IdGenType {
+    /** 加锁雪花算法 {@link com.adong.fingermark.core.SnowFlakeId} **/
+    SNOWFLAKE,
+    /** 无锁 CAS 雪花算法 {@link com.adong.fingermark.core.AtomicSnowFlakeId} **/
+    ATOMIC,
+    /** 环形缓冲区预生成 {@link com.adong.fingermark.core.CachedSnowFlakeId} **/
+    CACHED,
+    /** Redis 号段模式，生成稠密递增 id {@link com.adong.fingermark.core.SegmentIdGen} **/
+    SEGMENT;
+
+    public static IdGenType of(String name) {
+        return IdGenType.valueOf(name.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,19 @@
+package com.adong.fingermark.constant;
+
+/**
+ * @author ADong
+ * @Description 雪花算法时间源类型 {@link ConfigConstant#IDGEN_TIME_SOURCE}
+ * @Date 2026-10-18 10:00 AM
+ */
+public enum TimeSourceType {
+    /** 每次读取系统时间 {@link com.adong.fingermark.core.TimeSource#SYSTEM} **/
+    SYSTEM,
+    /** nanoTime 单调时间，逐步与系统时间对齐 {@link com.adong.fingermark.core.MonotonicTimeSource} **/
+    MONOTONIC,
+    /** 后台线程发布单调时间，读取只有一次 volatile 读 {@link com.adong.fingermark.core.TickerTimeSource} **/
+    TICKER;
+
+    public static TimeSourceType of(String name) {
+        return TimeSourceType.valueOf(name.trim().toUpperCase());
+    }
+}
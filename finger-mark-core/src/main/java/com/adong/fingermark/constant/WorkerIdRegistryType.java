@@ -0,0 +1,17 @@
+package com.adong.fingermark.constant;
+
+/**
+ * @author ADong
+ * @Description 机器号注册中心类型 {@link ConfigConstant#WORKERID_REGISTRY}
+ * @Date 2026-10-18 11:30 AM
+ */
+public enum WorkerIdRegistryType {
+    /** 集群内通过 Redis 协调 {@link com.adong.fingermark.core.RedisWorkerIdRegistry} **/
+    REDIS,
+    /** 同一台主机的多个 JVM 通过内存映射的槽位表协调 {@link com.adong.fingermark.core.LocalWorkerIdRegistry} **/
+    LOCAL;
+
+    public static WorkerIdRegistryType of(String name) {
+        return WorkerIdRegistryType.valueOf(name.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,435 @@
+package com.adong.fingermark.core;
+
+import com.adong.fingermark.jfr.FingerMarkEvents;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author ADong
+ * @Description 无锁版雪花算法，位布局与 {@link SnowFlakeId} 一致
+ * 1位正负位 + 41位时间戳 + 10位机器号 + 12位随机序列，可通过 {@link IdLayout} 调整
+ * 时间戳与随机序列打包在同一个 {@link AtomicLong} 中通过 CAS 推进，不再竞争同一把锁
+ * 只有切换机器号时才加锁，时间回拨等待时也不会占用锁
+ * 切换机器号时先把状态 CAS 为 {@link #SWITCHING}，发放线程等待切换完成，机器号和新状态发布后再继续发放
+ * 每个时间戳的序列从 0 开始用满，序列耗尽时在 sequenceBorrow 范围内借用下一个时间戳，否则挂起等待
+ * @Date 2026-10-18 10:05 AM
+ */
+public class AtomicSnowFlakeId implements IdGen {
+
+    private static final Logger log = LoggerFactory.getLogger(AtomicSnowFlakeId.class);
+
+    /** 回拨等待阈值，单位ms **/
+    private static final long MAX_WAIT_OFFSET = 5;
+
+    /** 等待下一个时间戳时单次挂起时间，单位ns **/
+    private static final long PARK_NANOS = 50_000;
+
+    /** 降级 id 重复时最多重新随机次数 **/
+    private static final int MAX_REDRAW = 8;
+
+    /** 正在切换机器号，正常状态不会是负数 **/
+    private static final long SWITCHING = Long.MIN_VALUE;
+
+    // 数据中心号，已左移到机器号之上
+    private final long datacenter;
+    // 时间戳左移位数
+    private final long timeShift;
+
+    // 机房机器ID 10位
+    private volatile long workerId;
+    /** 机器号切换次数，CAS 成功后校验，防止切换后状态恰好回到旧值时配上错误的机器号 **/
+    private volatile long generation;
+    private final long workerIdShift;
+
+    // 随机数 12位
+    private final long randomShift;
+    // 随机数的最大值
+    private final long maxRandom;
+    private final long randomMask;
+
+    /** 高位时间戳 + 低 randomShift 位随机序列 **/
+    private final AtomicLong state;
+
+    /** 切换机器号时加锁，保证同一时刻只有一个线程去 Redis 注册 **/
+    private final ReentrantLock changeLock = new ReentrantLock();
+
+    private final WorkerIdManager workerIdManager;
+
+    private final IdGenMetrics metrics;
+
+    /** 本地时间戳检查点，未开启为 null **/
+    private final TimestampCheckpoint checkpoint;
+
+    /** 时间源 **/
+    private final TimeSource timeSource;
+
+    /** 位布局 **/
+    private final IdLayout layout;
+
+    /** 序列耗尽时最多领先系统时间的时间单位数，0 表示等待下一个时间戳 **/
+    private final long sequenceBorrow;
+
+    /** 降级 id 防重窗口，未开启为 null **/
+    private final RecentIdGuard guard;
+
+    public AtomicSnowFlakeId(long workerId, long workerIdShift, WorkerIdManager workerIdManager) {
+        this(workerId, workerIdShift, workerIdManager, new IdGenMetrics(null));
+    }
+
+    public AtomicSnowFlakeId(long workerId, long workerIdShift, WorkerIdManager workerIdManager, IdGenMetrics metrics) {
+        this(workerId, workerIdShift, workerIdManager, metrics, null);
+    }
+
+    public AtomicSnowFlakeId(long workerId, long workerIdShift, WorkerIdManager workerIdManager, IdGenMetrics metrics,
+                             TimestampCheckpoint checkpoint) {
+        this(workerId, workerIdShift, workerIdManager, metrics, checkpoint, TimeSource.SYSTEM);
+    }
+
+    public AtomicSnowFlakeId(long workerId, long workerIdShift, WorkerIdManager workerIdManager, IdGenMetrics metrics,
+                             TimestampCheckpoint checkpoint, TimeSource timeSource) {
+        this(workerId, IdLayout.legacy(workerIdShift), workerIdManager, metrics, checkpoint, timeSource);
+    }
+
+    public AtomicSnowFlakeId(long workerId, IdLayout layout, WorkerIdManager workerIdManager, IdGenMetrics metrics,
+                             TimestampCheckpoint checkpoint, TimeSource timeSource) {
+        this(workerId, layout, workerIdManager, metrics, checkpoint, 0, timeSource);
+    }
+
+    /**
+     * @param sequenceBorrow 序列耗尽时最多领先系统时间的毫秒数，0 表示等待，按时间单位向上取整
+     */
+    public AtomicSnowFlakeId(long workerId, IdLayout layout, WorkerIdManager workerIdManager, IdGenMetrics metrics,
+                             TimestampCheckpoint checkpoint, long sequenceBorrow, TimeSource timeSource) {
+        this(workerId, layout, workerIdManager, metrics, checkpoint, sequenceBorrow, timeSource, null);
+    }
+
+    /**
+     * @param sequenceBorrow 序列耗尽时最多领先系统时间的毫秒数，0 表示等待，按时间单位向上取整
+     * @param guard 降级 id 防重窗口，为 null 不检查
+     */
+    public AtomicSnowFlakeId(long workerId, IdLayout layout, WorkerIdManager workerIdManager, IdGenMetrics metrics,
+                             TimestampCheckpoint checkpoint, long sequenceBorrow, TimeSource timeSource,
+                             RecentIdGuard guard) {
+        this(0, workerId, layout, workerIdManager, metrics, checkpoint, sequenceBorrow, timeSource, guard);
+    }
+
+    /**
+     * @param datacenterId 数据中心号，不能超出布局的 datacenterBits
+     * @param sequenceBorrow 序列耗尽时最多领先系统时间的毫秒数，0 表示等待，按时间单位向上取整
+     * @param guard 降级 id 防重窗口，为 null 不检查
+     */
+    public AtomicSnowFlakeId(long datacenterId, long workerId, IdLayout layout, WorkerIdManager workerIdManager,
+                             IdGenMetrics metrics, TimestampCheckpoint checkpoint, long sequenceBorrow,
+                             TimeSource timeSource, RecentIdGuard guard) {
+        if (sequenceBorrow < 0) {
+            throw new IllegalArgumentException("sequenceBorrow set error!");
+        }
+        layout.checkDatacenterId(datacenterId);
+        this.sequenceBorrow = (sequenceBorrow + layout.getTimeUnit() - 1) / layout.getTimeUnit();
+        this.workerId = workerId;
+        this.layout = layout;
+        this.timeShift = layout.getTimeShift();
+        this.datacenter = datacenterId << (layout.getWorkerBits() + layout.getSequenceBits());
+        this.workerIdShift = layout.getWorkerBits();
+        this.randomShift = layout.getSequenceBits();
+        this.maxRandom = 1L << randomShift;
+        this.randomMask = maxRandom - 1;
+        this.workerIdManager = workerIdManager;
+        this.metrics = metrics;
+        this.checkpoint = checkpoint;
+        this.timeSource = timeSource;
+        this.guard = guard;
+        // 上一个时间戳序列已满，当前时间戳的序列从 0 开始发放
+        this.state = new AtomicLong((timeGen() << randomShift) - 1);
+        log.info("AtomicSnowFlakeId init success, datacenterId={}, workerId={}, sequenceBorrow={}ms, layout={}",
+                datacenterId, workerId, sequenceBorrow, layout);
+    }
+
+    /**
+     * 生成新 Id
+     * @return
+     */
+    @Override
+    public long nextId() {
+
+        metrics.issued();
+        return generate();
+    }
+
+    private long generate() {
+
+        long waitStart = 0;
+        for (;;) {
+            long currentGeneration = generation;
+            long current = state.get();
+            if (current == SWITCHING) {
+                LockSupport.parkNanos(this, PARK_NANOS);
+                continue;
+            }
+            long lastTime = current >>> randomShift;
+            long now = timeGen();
+            // 本次发放使用的时间戳，借用时领先 now
+            long tick = now;
+            boolean borrowed = false;
+            long next;
+            if (now > lastTime) {
+                // 如果当前时间大于上次时间，序列从 0 开始
+                next = now << randomShift;
+            } else if (lastTime - now <= sequenceBorrow) {
+                if ((current & randomMask) + 1 < maxRandom) {
+                    tick = lastTime;
+                    next = current + 1;
+                } else if (lastTime + 1 - now <= sequenceBorrow) {
+                    // 当前时间戳序列耗尽，借用下一个时间戳
+                    tick = lastTime + 1;
+                    next = tick << randomShift;
+                    borrowed = true;
+                } else {
+                    // 序列耗尽且不能再借用，挂起等待，每次调用只记录一次
+                    if (waitStart == 0) {
+                        waitStart = System.nanoTime();
+                        metrics.sequenceExhausted();
+                    }
+                    long safeMillis = (lastTime - sequenceBorrow - now) * layout.getTimeUnit();
+                    LockSupport.parkNanos(this, safeMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(safeMillis) : PARK_NANOS);
+                    continue;
+                }
+            } else {
+                // 判断如果回拨时间小于5ms就进行等待，否则切换机器号，失败进行降级方案
+                long offset = (lastTime - now) * layout.getTimeUnit();
+                if (offset <= MAX_WAIT_OFFSET) {
+                    // 等待两倍offset，不持有任何锁
+                    long rollbackStart = System.nanoTime();
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(offset << 1));
+                    long rollbackWaited = System.nanoTime() - rollbackStart;
+                    metrics.rollbackWait(rollbackWaited);
+                    FingerMarkEvents.rollbackWait(metrics.getAppKey(), rollbackWaited, offset);
+                    // 等待期间其他线程切换了机器号或推进了状态，按新状态重试
+                    if (lastTime - timeGen() > sequenceBorrow && state.get() == current) {
+                        return getBadId(lastTime);
+                    }
+                } else if (!changeWorkerId(current)) {
+                    return getBadId(lastTime);
+                }
+                continue;
+            }
+            // 读到新机器号时状态已经是 SWITCHING 或新状态，旧状态的 CAS 只会失败
+            long currentWorkerId = workerId;
+            if (state.compareAndSet(current, next)) {
+                if (generation != currentGeneration) {
+                    // CAS 期间完成了切换，推进的可能是新机器号的状态，丢弃这个序列重试
+                    continue;
+                }
+                if (waitStart != 0) {
+                    long waited = System.nanoTime() - waitStart;
+                    metrics.sequenceWait(waited);
+                    FingerMarkEvents.sequenceWait(metrics.getAppKey(), waited);
+                }
+                if (borrowed) {
+                    metrics.sequenceExhausted();
+                    metrics.clockBorrowed();
+                }
+                checkpoint(currentWorkerId, tick);
+                return getId(next, currentWorkerId);
+            }
+        }
+    }
+
+    /**
+     * 批量生成 Id
+     * 一次 CAS 预留当前时间戳内连续的一段序列，序列耗尽或时间回拨走 {@link #generate()}
+     * @param size 数量
+     * @return
+     */
+    @Override
+    public long[] nextIds(int size) {
+
+        metrics.issued(size);
+        long[] ids = new long[size];
+        int index = 0;
+        while (index < size) {
+            long currentGeneration = generation;
+            long current = state.get();
+            if (current == SWITCHING) {
+                LockSupport.parkNanos(this, PARK_NANOS);
+                continue;
+            }
+            long lastTime = current >>> randomShift;
+            long now = timeGen();
+            long tick = now;
+            long first;
+            if (now > lastTime) {
+                first = now << randomShift;
+            } else if (lastTime - now <= sequenceBorrow && (current & randomMask) + 1 < maxRandom) {
+                tick = lastTime;
+                first = current + 1;
+            } else {
+                ids[index++] = generate();
+                continue;
+            }
+            int count = (int) Math.min(size - index, maxRandom - (first & randomMask));
+            long currentWorkerId = workerId;
+            if (state.compareAndSet(current, first + count - 1) && generation == currentGeneration) {
+                checkpoint(currentWorkerId, tick);
+                for (int i = 0; i < count; i++) {
+                    ids[index++] = getId(first + i, currentWorkerId);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 记录已发放的时间戳
+     * @param workerId
+     * @param time
+     */
+    private void checkpoint(long workerId, long time) {
+        if (checkpoint != null) {
+            checkpoint.mark(workerId, layout.tickEndMillis(time));
+        }
+    }
+
+    /**
+     * 获取 id
+     * @param state
+     * @param workerId
+     * @return
+     */
+    private long getId(long state, long workerId) {
+        return (state >>> randomShift) << timeShift | datacenter |
+                workerId << randomShift |
+                (state & randomMask);
+    }
+
+    /**
+     * 降级方案获取 id
+     * 开启防重窗口时跳过本机器号，窗口内重复重新随机，多次重复或窗口容量不足时直接失败，不等待时间追上
+     * @param lastTime
+     * @return
+     * @throws DegradedIdUnavailableException 无法保证降级 id 不重复
+     */
+    private long getBadId(long lastTime) {
+        if (guard == null) {
+            metrics.degraded();
+            return lastTime << timeShift | datacenter |
+                    getRandom(1L << (randomShift + workerIdShift));
+        }
+        long currentWorkerId = workerId;
+        for (int i = 0; i < MAX_REDRAW; i++) {
+            long badRandom = getRandom(1L << (randomShift + workerIdShift));
+            // 机器号部分与本机器号相同时可能与 lastTime 内正常发放的 id 重复
+            if (badRandom >>> randomShift == currentWorkerId) {
+                continue;
+            }
+            long id = lastTime << timeShift | datacenter | badRandom;
+            RecentIdGuard.Result result = id == 0 ? RecentIdGuard.Result.DUPLICATE : guard.add(id);
+            if (result == RecentIdGuard.Result.ADDED) {
+                metrics.degraded();
+                return id;
+            }
+            if (result == RecentIdGuard.Result.FULL) {
+                break;
+            }
+        }
+        throw new DegradedIdUnavailableException(metrics.getAppKey(), lastTime);
+    }
+
+    /**
+     * 如果发生时间回拨，重新注册机器号
+     * 其他线程如果发现正在切换，等待切换完成后重试即可
+     * @param expect 发现回拨时的状态
+     * @return 是否切换成功
+     */
+    private boolean changeWorkerId(long expect) {
+
+        if (Objects.isNull(workerIdManager)) {
+            return false;
+        }
+        if (!changeLock.tryLock()) {
+            changeLock.lock();
+            changeLock.unlock();
+            return true;
+        }
+        try {
+            // 其他线程已经完成切换或状态已经推进；成功后其他线程等待切换完成
+            if (!state.compareAndSet(expect, SWITCHING)) {
+                return true;
+            }
+            long switchStart = System.nanoTime();
+            Long changeWorkerId = null;
+            try {
+                changeWorkerId = workerIdManager.switchWorkerId(workerId);
+            } finally {
+                if (changeWorkerId == null) {
+                    state.set(expect);
+                }
+            }
+            FingerMarkEvents.workerSwitch(metrics.getAppKey(), System.nanoTime() - switchStart, workerId, changeWorkerId, false);
+            if (changeWorkerId == null) {
+                return false;
+            }
+            // 先发布机器号和切换次数，最后发布新状态
+            workerId = changeWorkerId;
+            generation++;
+            state.set((timeGen() << randomShift) - 1);
+            metrics.workerSwitched();
+            return true;
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    /**
+     * 根据最大限制获取随机序列
+     * @param bound
+     * @return
+     */
+    private long getRandom(long bound) {
+
+        return ThreadLocalRandom.current().nextLong(bound);
+    }
+
+    /**
+     * 生成当前时间戳，单位为布局的时间单位
+     * @return
+     */
+    protected long timeGen() {
+
+        return layout.tick(timeSource.currentTimeMillis());
+    }
+
+    public IdLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * 逻辑时间领先系统时间的毫秒数，用于监控借用情况
+     * @return
+     */
+    public long getLead() {
+
+        long current = state.get();
+        if (current == SWITCHING) {
+            return 0;
+        }
+        return Math.max(0, layout.toMillis(current >>> randomShift) - layout.toMillis(timeGen()));
+    }
+
+    @Override
+    public void destory() {
+        if (!Objects.isNull(workerIdManager)) {
+            workerIdManager.destroy(workerId);
+        }
+        if (checkpoint != null) {
+            checkpoint.close();
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.adong.fingermark.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author ADong
+ * @Description 带环形缓冲区的 id 生成器
+ * 后台线程通过 {@link IdGen#nextIds(int)} 预先生成 id 填充 long[] 环形缓冲区，
+ * 消费者只需 CAS 推进读指针取走下一个槽位，不会被序列耗尽等待和时间回拨等待阻塞
+ * 剩余数量低于阈值时异步唤醒填充线程，定时检查也只在低于阈值时填充，缓冲区取空时直接回退到被包装的生成器
+ * 开启 maxAge 时填充线程定时丢弃缓冲时间过长的 id，避免访问量低的 appKey 发放出时间戳远早于当前的 id，
+ * 影响按 id 解析时间和按时间范围查询
+ * 发放数在 id 被取走时统计，预填充不计入
+ * 注意：缓存的 id 全局唯一，但不保证严格按时间递增
+ * @Date 2026-10-18 2:10 PM
+ */
+public class CachedSnowFlakeId implements IdGen {
+
+    private static final Logger log = LoggerFactory.getLogger(CachedSnowFlakeId.class);
+
+    /** 空闲时定时检查填充和过期的间隔，单位ms **/
+    private static final long IDLE_FILL_INTERVAL = 100;
+
+    /** 单次向被包装生成器批量获取的最大数量 **/
+    private static final int MAX_FILL_BATCH = 4096;
+
+    private final String appKey;
+
+    private final IdGen delegate;
+
+    private final IdGenMetrics metrics;
+
+    /** 环形缓冲区，容量为 2 的幂 **/
+    private final long[] buffer;
+    private final int capacity;
+    private final int mask;
+
+    /** 剩余数量低于该值时触发填充 **/
+    private final int paddingThreshold;
+
+    /** id 在缓冲区中的最长停留时间，单位ms，0 不限制 **/
+    private final long maxAge;
+
+    /** 缓冲区内各批 id 的结束位置和填充时间，按填充顺序排列，只有填充线程读写 **/
+    private final ArrayDeque<FillMark> fillMarks = new ArrayDeque<>();
+
+    /** 下一个消费位置 **/
+    private final AtomicLong tail = new AtomicLong();
+
+    /** 下一个填充位置，只有填充线程写 **/
+    private volatile long head;
+
+    private final Thread fillThread;
+
+    private volatile boolean running = true;
+
+    /**
+     * @param appKey
+     * @param delegate 被包装的生成器
+     * @param bufferSize 缓冲区大小，向上取整为 2 的幂
+     * @param paddingFactor 填充阈值百分比，剩余数量低于 bufferSize * paddingFactor / 100 时填充
+     */
+    public CachedSnowFlakeId(String appKey, IdGen delegate, int bufferSize, int paddingFactor) {
+        this(appKey, delegate, bufferSize, paddingFactor, new IdGenMetrics(appKey));
+    }
+
+    /**
+     * @param appKey
+     * @param delegate 被包装的生成器，需使用 {@link IdGenMetrics#withoutIssued()} 视图，避免预填充计入发放数
+     * @param bufferSize 缓冲区大小，向上取整为 2 的幂
+     * @param paddingFactor 填充阈值百分比，剩余数量低于 bufferSize * paddingFactor / 100 时填充
+     * @param metrics
+     */
+    public CachedSnowFlakeId(String appKey, IdGen delegate, int bufferSize, int paddingFactor, IdGenMetrics metrics) {
+        this(appKey, delegate, bufferSize, paddingFactor, 0, metrics);
+    }
+
+    /**
+     * @param appKey
+     * @param delegate 被包装的生成器，需使用 {@link IdGenMetrics#withoutIssued()} 视图，避免预填充计入发放数
+     * @param bufferSize 缓冲区大小，向上取整为 2 的幂
+     * @param paddingFactor 填充阈值百分比，剩余数量低于 bufferSize * paddingFactor / 100 时填充
+     * @param maxAge id 在缓冲区中的最长停留时间，单位ms，0 不限制，实际最多再晚一个检查间隔丢弃
+     * @param metrics
+     */
+    public CachedSnowFlakeId(String appKey, IdGen delegate, int bufferSize, int paddingFactor, long maxAge,
+                             IdGenMetrics metrics) {
+        if (bufferSize <= 0 || bufferSize > (1 << 30)) {
+            throw new IllegalArgumentException("bufferSize set error!");
+        }
+        if (paddingFactor <= 0 || paddingFactor >= 100) {
+            throw new IllegalArgumentException("paddingFactor set error!");
+        }
+        if (maxAge < 0) {
+            throw new IllegalArgumentException("maxAge set error!");
+        }
+        this.appKey = appKey;
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.capacity = bufferSize == 1 ? 1 : Integer.highestOneBit(bufferSize - 1) << 1;
+        this.mask = capacity - 1;
+        this.buffer = new long[capacity];
+        this.paddingThreshold = (int) ((long) capacity * paddingFactor / 100);
+        this.maxAge = maxAge;
+        this.fillThread = new Thread(this::fillLoop, "id-cache-fill-" + appKey);
+        this.fillThread.setDaemon(true);
+        this.fillThread.start();
+        log.info("CachedSnowFlakeId init success, appKey={}, capacity={}, paddingThreshold={}, maxAge={}ms",
+                appKey, capacity, paddingThreshold, maxAge);
+    }
+
+    /**
+     * 从缓冲区取下一个 id
+     * @return
+     */
+    @Override
+    public long nextId() {
+
+        for (;;) {
+            long current = tail.get();
+            long available = head - current;
+            if (available <= 0) {
+                // 缓冲区已空，唤醒填充线程并回退到被包装的生成器
+                LockSupport.unpark(fillThread);
+                metrics.issued();
+                return delegate.nextId();
+            }
+            long id = buffer[(int) (current & mask)];
+            if (tail.compareAndSet(current, current + 1)) {
+                if (available - 1 < paddingThreshold) {
+                    LockSupport.unpark(fillThread);
+                }
+                metrics.issued();
+                return id;
+            }
+        }
+    }
+
+    /**
+     * 批量获取直接走被包装的生成器，缓冲区只服务单个 id 的低延迟场景
+     * @param size 数量
+     * @return
+     */
+    @Override
+    public long[] nextIds(int size) {
+        metrics.issued(size);
+        return delegate.nextIds(size);
+    }
+
+    /**
+     * 填充线程，唤醒或定时检查时先丢弃过期 id，剩余数量低于阈值才把缓冲区补满
+     */
+    private void fillLoop() {
+
+        while (running) {
+            try {
+                expire();
+                if (head - tail.get() < paddingThreshold) {
+                    fill();
+                }
+            } catch (Exception e) {
+                log.error("appKey={} id cache fill error", appKey, e);
+            }
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(IDLE_FILL_INTERVAL));
+        }
+    }
+
+    private void fill() {
+
+        long free = capacity - (head - tail.get());
+        while (running && free > 0) {
+            long fillTime = System.currentTimeMillis();
+            long[] ids = delegate.nextIds((int) Math.min(free, MAX_FILL_BATCH));
+            long position = head;
+            for (long id : ids) {
+                buffer[(int) (position++ & mask)] = id;
+            }
+            if (maxAge > 0) {
+                fillMarks.addLast(new FillMark(position, fillTime));
+            }
+            // volatile 写发布本批数据
+            head = position;
+            free = capacity - (head - tail.get());
+        }
+    }
+
+    /**
+     * 丢弃填充时间早于 maxAge 的 id，推进读指针后消费者对旧位置的 CAS 会失败，不会取到被丢弃的 id
+     */
+    private void expire() {
+
+        if (maxAge <= 0) {
+            return;
+        }
+        long deadline = System.currentTimeMillis() - maxAge;
+        for (;;) {
+            long current = tail.get();
+            // 已经取完的批次不再需要记录
+            while (!fillMarks.isEmpty() && fillMarks.peekFirst().end <= current) {
+                fillMarks.pollFirst();
+            }
+            long expired = current;
+            for (FillMark mark : fillMarks) {
+                if (mark.time >= deadline) {
+                    break;
+                }
+                expired = mark.end;
+            }
+            if (expired == current) {
+                return;
+            }
+            if (tail.compareAndSet(current, expired)) {
+                log.debug("appKey={} id cache expired {} ids", appKey, expired - current);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 缓冲区剩余可用数量
+     * @return
+     */
+    public long getRemaining() {
+        return Math.max(0, head - tail.get());
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 缓冲区填充率 [0, 1]
+     * @return
+     */
+    public double getFillRate() {
+        return (double) getRemaining() / capacity;
+    }
+
+    @Override
+    public void destory() {
+        running = false;
+        LockSupport.unpark(fillThread);
+        delegate.destory();
+    }
+
+    /**
+     * 一批 id 的结束位置（不含）和填充时间
+     */
+    private static class FillMark {
+
+        private final long end;
+
+        private final long time;
+
+        private FillMark(long end, long time) {
+            this.end = end;
+            this.time = time;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.adong.fingermark.core;
+
+/**
+ * @author ADong
+ * @Description 时间回拨且切换机器号失败，降级 id 防重窗口已满，无法保证降级 id 不重复，本次请求直接失败，不等待时间追上
+ * @Date 2026-10-18 4:00 PM
+ */
+public class DegradedIdUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DegradedIdUnavailableException(String appKey, long lastTime) {
+        super("appKey=" + appKey + " degraded id guard is full, clock is behind lastTime=" + lastTime);
+    }
+
+    /**
+     * 回拨期间每次请求都会抛出，不需要栈
+     * @return
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
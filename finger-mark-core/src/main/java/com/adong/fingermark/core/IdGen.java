@@ -0,0 +1,26 @@
+package com.adong.fingermark.core;
+
+/**
+ * @author ADong
+ * @Description IdGen
+ * @Date 2022-08-15 4:51 PM
+ */
+public interface IdGen {
+
+    long nextId();
+
+    /**
+     * 批量生成 id，默认逐个生成，实现类可一次性预留连续序列
+     * @param size 数量
+     * @return
+     */
+    default long[] nextIds(int size) {
+        long[] ids = new long[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = nextId();
+        }
+        return ids;
+    }
+
+    void destory();
+}
@@ -0,0 +1,258 @@
+package com.adong.fingermark.core;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * @author ADong
+ * @Description appKey 维度的 id 发放指标
+ * 热路径只做 {@link LongAdder} 累加，由 {@link FunctionCounter} 在采集时读取；
+ * 耗时类指标只在等待、注册、续期这些慢路径上记录，使用带百分位直方图的 {@link Timer}
+ * 未调用 {@link #bindTo(MeterRegistry)} 时只累加计数，不记录耗时
+ * 包装生成器的内部生成器使用 {@link #withoutIssued()} 视图，发放数只由对外发放的生成器统计
+ * @Date 2026-10-18 10:15 AM
+ */
+public class IdGenMetrics {
+
+    private static final String TAG_APP_KEY = "appKey";
+
+    private final String appKey;
+
+    /** 持有指标注册状态的实例，视图指向创建它的实例 **/
+    private final IdGenMetrics owner;
+
+    /** 是否统计发放数 **/
+    private final boolean countIssued;
+
+    /** 发放 id 数 **/
+    private final LongAdder issued;
+
+    /** 单个时间戳内序列耗尽次数 **/
+    private final LongAdder sequenceExhausted;
+
+    /** 时间回拨等待次数 **/
+    private final LongAdder rollbackWaits;
+
+    /** 切换机器号次数 **/
+    private final LongAdder workerSwitches;
+
+    /** 降级 id 数 **/
+    private final LongAdder degraded;
+
+    /** 借用未来毫秒次数 **/
+    private final LongAdder clockBorrows;
+
+    private final List<Meter> meters = new ArrayList<>();
+
+    private volatile MeterRegistry registry;
+
+    private volatile Timer rollbackWaitTimer;
+
+    private volatile Timer sequenceWaitTimer;
+
+    private volatile Timer registerTimer;
+
+    private volatile Timer renewalTimer;
+
+    public IdGenMetrics(String appKey) {
+        this.appKey = appKey;
+        this.owner = this;
+        this.countIssued = true;
+        this.issued = new LongAdder();
+        this.sequenceExhausted = new LongAdder();
+        this.rollbackWaits = new LongAdder();
+        this.workerSwitches = new LongAdder();
+        this.degraded = new LongAdder();
+        this.clockBorrows = new LongAdder();
+    }
+
+    private IdGenMetrics(IdGenMetrics owner) {
+        this.appKey = owner.appKey;
+        this.owner = owner;
+        this.countIssued = false;
+        this.issued = owner.issued;
+        this.sequenceExhausted = owner.sequenceExhausted;
+        this.rollbackWaits = owner.rollbackWaits;
+        this.workerSwitches = owner.workerSwitches;
+        this.degraded = owner.degraded;
+        this.clockBorrows = owner.clockBorrows;
+    }
+
+    /**
+     * 共享全部指标但不统计发放数的视图，交给被包装的生成器使用
+     * 例如缓存生成器预填充时不算发放，id 真正取走时才计数
+     * @return
+     */
+    public IdGenMetrics withoutIssued() {
+        return new IdGenMetrics(owner);
+    }
+
+    /**
+     * 注册到 MeterRegistry，通过 /actuator/prometheus 暴露
+     * @param registry
+     */
+    public synchronized void bindTo(MeterRegistry registry) {
+
+        if (this.registry != null) {
+            return;
+        }
+        counter(registry, "fingermark.id.issued", "issued ids", issued);
+        counter(registry, "fingermark.sequence.exhausted", "sequence exhausted within one tick", sequenceExhausted);
+        counter(registry, "fingermark.rollback.waits", "clock rollback waits", rollbackWaits);
+        counter(registry, "fingermark.worker.switches", "worker id switches after clock rollback", workerSwitches);
+        counter(registry, "fingermark.id.degraded", "degraded ids with random worker and sequence bits", degraded);
+        counter(registry, "fingermark.clock.borrows", "milliseconds borrowed ahead of the system clock", clockBorrows);
+        rollbackWaitTimer = timer(registry, "fingermark.rollback.wait", "time spent waiting out clock rollback");
+        sequenceWaitTimer = timer(registry, "fingermark.sequence.wait", "time parked waiting for the next tick");
+        registerTimer = timer(registry, "fingermark.worker.register", "worker id registration latency");
+        renewalTimer = timer(registry, "fingermark.worker.renewal", "worker id renewal latency");
+        this.registry = registry;
+    }
+
+    /**
+     * 注册 appKey 维度的瞬时值指标，未绑定时忽略
+     * @param name
+     * @param obj
+     * @param function
+     */
+    public synchronized <T> void gauge(String name, T obj, ToDoubleFunction<T> function) {
+
+        if (registry != null) {
+            meters.add(Gauge.builder(name, obj, function).tag(TAG_APP_KEY, appKey).register(registry));
+        }
+    }
+
+    /**
+     * 注册 appKey 维度的累计值指标，未绑定时忽略
+     * @param name
+     * @param obj
+     * @param function
+     */
+    public synchronized <T> void counter(String name, T obj, ToDoubleFunction<T> function) {
+
+        if (registry != null) {
+            meters.add(FunctionCounter.builder(name, obj, function).tag(TAG_APP_KEY, appKey).register(registry));
+        }
+    }
+
+    /**
+     * 从 MeterRegistry 移除本 appKey 的指标
+     */
+    public synchronized void close() {
+
+        if (registry != null) {
+            meters.forEach(registry::remove);
+            meters.clear();
+            registry = null;
+            rollbackWaitTimer = null;
+            sequenceWaitTimer = null;
+            registerTimer = null;
+            renewalTimer = null;
+        }
+    }
+
+    public void issued() {
+        if (countIssued) {
+            issued.increment();
+        }
+    }
+
+    public void issued(long count) {
+        if (countIssued) {
+            issued.add(count);
+        }
+    }
+
+    public void sequenceExhausted() {
+        sequenceExhausted.increment();
+    }
+
+    public void rollbackWait(long nanos) {
+        rollbackWaits.increment();
+        record(owner.rollbackWaitTimer, nanos);
+    }
+
+    public void sequenceWait(long nanos) {
+        record(owner.sequenceWaitTimer, nanos);
+    }
+
+    public void workerSwitched() {
+        workerSwitches.increment();
+    }
+
+    public void degraded() {
+        degraded.increment();
+    }
+
+    public void clockBorrowed() {
+        clockBorrows.increment();
+    }
+
+    public void workerRegistered(long nanos) {
+        record(owner.registerTimer, nanos);
+    }
+
+    public void workerRenewed(long nanos) {
+        record(owner.renewalTimer, nanos);
+    }
+
+    public String getAppKey() {
+        return appKey;
+    }
+
+    public long getIssued() {
+        return issued.sum();
+    }
+
+    public long getSequenceExhausted() {
+        return sequenceExhausted.sum();
+    }
+
+    public long getRollbackWaits() {
+        return rollbackWaits.sum();
+    }
+
+    public long getWorkerSwitches() {
+        return workerSwitches.sum();
+    }
+
+    public long getDegraded() {
+        return degraded.sum();
+    }
+
+    public long getClockBorrows() {
+        return clockBorrows.sum();
+    }
+
+    private void record(Timer timer, long nanos) {
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void counter(MeterRegistry registry, String name, String description, LongAdder adder) {
+        meters.add(FunctionCounter.builder(name, adder, LongAdder::sum)
+                .description(description)
+                .tag(TAG_APP_KEY, appKey)
+                .register(registry));
+    }
+
+    private Timer timer(MeterRegistry registry, String name, String description) {
+        Timer timer = Timer.builder(name)
+                .description(description)
+                .tag(TAG_APP_KEY, appKey)
+                .publishPercentileHistogram()
+                .register(registry);
+        meters.add(timer);
+        return timer;
+    }
+}
@@ -0,0 +1,401 @@
+package com.adong.fingermark.core;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author ADong
+ * @Description 雪花 id 位布局
+ * 1位正负位 + timeBits 位时间戳 + datacenterBits 位数据中心号 + workerBits 位机器号 + sequenceBits 位序列，四者之和为 63
+ * 数据中心号由部署配置固定，机器号在数据中心内独立注册，各数据中心之间不需要协调；datacenterBits 为 0 时与原有布局一致
+ * 时间戳 = (当前时间 - epoch) / timeUnit，epoch 为 0 且 timeUnit 为 1ms 时与原有布局完全一致
+ * 时间单位越大、epoch 越近，时间戳需要的位数越少，省下的位数给序列，单个时间单位内可发放的 id 越多
+ * 布局以 {@link #format()} 的文本形式发布到 Redis，解码方按 {@link #parse(String)} 解析
+ * {@link #minId(long)}、{@link #maxId(long)} 把时间区间换算为 id 区间，按主键范围查询代替时间字段索引
+ * @Date 2026-10-18 2:30 PM
+ */
+public final class IdLayout {
+
+    /** 时间戳 + 数据中心号 + 机器号 + 序列的总位数 **/
+    public static final int TOTAL_BITS = 63;
+
+    /** 原有布局数据中心号 + 机器号 + 序列的位数 **/
+    public static final int LEGACY_WORKER_SEQUENCE_BITS = 22;
+
+    private static final long MILLIS_PER_YEAR = TimeUnit.DAYS.toMillis(365) + TimeUnit.HOURS.toMillis(6);
+
+    /** 起始时间，单位ms **/
+    private final long epoch;
+
+    /** 时间单位，单位ms **/
+    private final long timeUnit;
+
+    private final int timeBits;
+
+    private final int datacenterBits;
+
+    private final int workerBits;
+
+    private final int sequenceBits;
+
+    public IdLayout(long epoch, long timeUnit, int workerBits, int sequenceBits) {
+        this(epoch, timeUnit, 0, workerBits, sequenceBits);
+    }
+
+    public IdLayout(long epoch, long timeUnit, int datacenterBits, int workerBits, int sequenceBits) {
+        if (epoch < 0 || timeUnit <= 0) {
+            throw new IllegalArgumentException("layout epoch or timeUnit set error!");
+        }
+        if (datacenterBits < 0 || workerBits < 0 || sequenceBits < 0
+                || datacenterBits + workerBits + sequenceBits >= TOTAL_BITS) {
+            throw new IllegalArgumentException("layout bits set error!");
+        }
+        this.epoch = epoch;
+        this.timeUnit = timeUnit;
+        this.datacenterBits = datacenterBits;
+        this.workerBits = workerBits;
+        this.sequenceBits = sequenceBits;
+        this.timeBits = TOTAL_BITS - datacenterBits - workerBits - sequenceBits;
+    }
+
+    /**
+     * 原有布局：epoch 为 0，时间单位 1ms，机器号 + 序列共 22 位
+     * @param workerBits 机器号位 {@link com.adong.fingermark.constant.ConfigConstant#WORKERID_SHIFT}
+     * @return
+     */
+    public static IdLayout legacy(long workerBits) {
+        return legacy(0, workerBits);
+    }
+
+    /**
+     * 原有布局划出数据中心号：时间戳仍为 41 位，数据中心号 + 机器号 + 序列共 22 位，数据中心号占用序列的位数
+     * @param datacenterBits 数据中心号位 {@link com.adong.fingermark.constant.ConfigConstant#IDGEN_DATACENTER_BITS}
+     * @param workerBits 机器号位 {@link com.adong.fingermark.constant.ConfigConstant#WORKERID_SHIFT}
+     * @return
+     */
+    public static IdLayout legacy(int datacenterBits, long workerBits) {
+
+        if (datacenterBits < 0 || workerBits < 0 || datacenterBits + workerBits > LEGACY_WORKER_SEQUENCE_BITS) {
+            throw new IllegalArgumentException("workerIdShift set error!");
+        }
+        return new IdLayout(0, 1, datacenterBits, (int) workerBits,
+                LEGACY_WORKER_SEQUENCE_BITS - datacenterBits - (int) workerBits);
+    }
+
+    /**
+     * 时间戳只保留覆盖 years 年所需的位数，其余全部给序列
+     * @param epoch
+     * @param timeUnit
+     * @param workerBits
+     * @param years 从 from 起至少可用的年数
+     * @param from 年数的起算时间，单位ms
+     * @return
+     */
+    public static IdLayout fit(long epoch, long timeUnit, int workerBits, int years, long from) {
+        return fit(epoch, timeUnit, 0, workerBits, years, from);
+    }
+
+    /**
+     * 时间戳只保留覆盖 years 年所需的位数，其余全部给序列
+     * 同一集群的节点需传入相同的 from（一般为 epoch），推导出的布局才与启动时间无关
+     * @param epoch
+     * @param timeUnit
+     * @param datacenterBits
+     * @param workerBits
+     * @param years 从 from 起至少可用的年数
+     * @param from 年数的起算时间，单位ms
+     * @return
+     */
+    public static IdLayout fit(long epoch, long timeUnit, int datacenterBits, int workerBits, int years, long from) {
+
+        if (years <= 0 || from < epoch) {
+            throw new IllegalArgumentException("layout years or epoch set error!");
+        }
+        long maxTick = (from - epoch + years * MILLIS_PER_YEAR) / timeUnit;
+        int timeBits = bitsFor(maxTick + 1);
+        return new IdLayout(epoch, timeUnit, datacenterBits, workerBits,
+                TOTAL_BITS - timeBits - datacenterBits - workerBits);
+    }
+
+    /**
+     * 根据当前存活节点数选择机器号位数，按 headroom 倍预留扩容空间，不低于 minBits
+     * 布局选定后由后续节点沿用，集群从少量节点起步时需靠 minBits 为后续扩容留出机器号
+     * @param liveWorkers 当前存活的机器号数量
+     * @param headroom 扩容倍数
+     * @param minBits 最小位数
+     * @return
+     */
+    public static int workerBitsFor(long liveWorkers, int headroom, int minBits) {
+
+        int bits = bitsFor((Math.max(liveWorkers, 0) + 1) * Math.max(headroom, 1));
+        return Math.max(1, Math.max(bits, minBits));
+    }
+
+    /**
+     * 机器号位数能否容纳 workers 个节点
+     * @param workers
+     * @return
+     */
+    public boolean canHoldWorkers(long workers) {
+        return workers <= 1L << workerBits;
+    }
+
+    /**
+     * 表示 [0, count) 需要的位数
+     * @param count
+     * @return
+     */
+    private static int bitsFor(long count) {
+
+        return count <= 1 ? 0 : Long.SIZE - Long.numberOfLeadingZeros(count - 1);
+    }
+
+    /**
+     * 时间戳
+     * @param millis 时间，单位ms
+     * @return
+     */
+    public long tick(long millis) {
+        return (millis - epoch) / timeUnit;
+    }
+
+    /**
+     * 时间戳对应时间单位的起始时间，单位ms
+     * @param tick
+     * @return
+     */
+    public long toMillis(long tick) {
+        return epoch + tick * timeUnit;
+    }
+
+    /**
+     * 时间戳对应时间单位的最后 1ms，检查点按该值记录
+     * @param tick
+     * @return
+     */
+    public long tickEndMillis(long tick) {
+        return toMillis(tick + 1) - 1;
+    }
+
+    /**
+     * 时间戳用尽的时间，单位ms
+     * @return
+     */
+    public long getExpireTime() {
+        return toMillis(1L << timeBits);
+    }
+
+    /**
+     * 当前时间的时间戳是否还能放进 timeBits 位
+     * @param now
+     */
+    public void checkCapacity(long now) {
+
+        if (now < epoch || tick(now) >= 1L << timeBits) {
+            throw new IllegalArgumentException("layout timestamp out of range, layout=" + format());
+        }
+    }
+
+    /**
+     * id 中的时间戳
+     * @param id
+     * @return
+     */
+    public long tickOf(long id) {
+        return id >>> getTimeShift();
+    }
+
+    /**
+     * id 对应时间单位的起始时间，单位ms
+     * @param id
+     * @return
+     */
+    public long timeOf(long id) {
+        return toMillis(tickOf(id));
+    }
+
+    /**
+     * id 中的数据中心号，降级 id 也保留本数据中心号
+     * @param id
+     * @return
+     */
+    public long datacenterIdOf(long id) {
+        return (id >>> (workerBits + sequenceBits)) & ((1L << datacenterBits) - 1);
+    }
+
+    /**
+     * 数据中心号是否能放进 datacenterBits 位
+     * @param datacenterId
+     */
+    public void checkDatacenterId(long datacenterId) {
+
+        if (datacenterId < 0 || datacenterId >= 1L << datacenterBits) {
+            throw new IllegalArgumentException("datacenterId " + datacenterId + " out of range, layout=" + format());
+        }
+    }
+
+    /**
+     * id 中的机器号，降级 id 的机器号和序列是随机数
+     * @param id
+     * @return
+     */
+    public long workerIdOf(long id) {
+        return (id >>> sequenceBits) & ((1L << workerBits) - 1);
+    }
+
+    /**
+     * id 中的序列
+     * @param id
+     * @return
+     */
+    public long sequenceOf(long id) {
+        return id & ((1L << sequenceBits) - 1);
+    }
+
+    /**
+     * 不早于 millis 所在时间单位发放的最小 id
+     * 边界按时间单位对齐，同一时间单位内早于 millis 发放的 id 也会落在区间内
+     * @param millis
+     * @return
+     */
+    public long minId(long millis) {
+
+        if (millis <= epoch) {
+            return 0;
+        }
+        long tick = tick(millis);
+        return tick >= 1L << timeBits ? Long.MAX_VALUE : tick << getTimeShift();
+    }
+
+    /**
+     * 不晚于 millis 所在时间单位发放的最大 id
+     * 开启借用时间时 id 的时间戳最多领先发放时间 idGen.clock.borrow.max，查询方需自行放宽
+     * @param millis
+     * @return
+     */
+    public long maxId(long millis) {
+
+        if (millis < epoch) {
+            return -1;
+        }
+        long tick = tick(millis);
+        if (tick >= (1L << timeBits) - 1) {
+            return Long.MAX_VALUE;
+        }
+        return ((tick + 1) << getTimeShift()) - 1;
+    }
+
+    /**
+     * 文本形式，发布给解码方，没有数据中心号时不输出 datacenterBits，与原有格式一致
+     * @return
+     */
+    public String format() {
+        return "epoch=" + epoch + ",timeUnit=" + timeUnit + ",timeBits=" + timeBits
+                + (datacenterBits > 0 ? ",datacenterBits=" + datacenterBits : "")
+                + ",workerBits=" + workerBits + ",sequenceBits=" + sequenceBits;
+    }
+
+    /**
+     * 解析 {@link #format()} 的结果，timeBits 由另外两项推导，只做校验
+     * @param text
+     * @return
+     */
+    public static IdLayout parse(String text) {
+
+        long epoch = 0;
+        long timeUnit = 1;
+        int timeBits = -1;
+        int datacenterBits = 0;
+        int workerBits = -1;
+        int sequenceBits = -1;
+        for (String item : text.split(",")) {
+            int index = item.indexOf('=');
+            if (index < 0) {
+                throw new IllegalArgumentException("illegal layout " + text);
+            }
+            String name = item.substring(0, index).trim();
+            long value = Long.parseLong(item.substring(index + 1).trim());
+            switch (name) {
+                case "epoch":
+                    epoch = value;
+                    break;
+                case "timeUnit":
+                    timeUnit = value;
+                    break;
+                case "timeBits":
+                    timeBits = (int) value;
+                    break;
+                case "datacenterBits":
+                    datacenterBits = (int) value;
+                    break;
+                case "workerBits":
+                    workerBits = (int) value;
+                    break;
+                case "sequenceBits":
+                    sequenceBits = (int) value;
+                    break;
+                default:
+            }
+        }
+        IdLayout layout = new IdLayout(epoch, timeUnit, datacenterBits, workerBits, sequenceBits);
+        if (timeBits >= 0 && timeBits != layout.timeBits) {
+            throw new IllegalArgumentException("illegal layout " + text);
+        }
+        return layout;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public long getTimeUnit() {
+        return timeUnit;
+    }
+
+    public int getTimeBits() {
+        return timeBits;
+    }
+
+    public int getDatacenterBits() {
+        return datacenterBits;
+    }
+
+    public int getWorkerBits() {
+        return workerBits;
+    }
+
+    public int getSequenceBits() {
+        return sequenceBits;
+    }
+
+    /**
+     * 时间戳左移位数
+     * @return
+     */
+    public int getTimeShift() {
+        return datacenterBits + workerBits + sequenceBits;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IdLayout)) {
+            return false;
+        }
+        IdLayout that = (IdLayout) o;
+        return epoch == that.epoch && timeUnit == that.timeUnit && datacenterBits == that.datacenterBits
+                && workerBits == that.workerBits && sequenceBits == that.sequenceBits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(epoch, timeUnit, datacenterBits, workerBits, sequenceBits);
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+}
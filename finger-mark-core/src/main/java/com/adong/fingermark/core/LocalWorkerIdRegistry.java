@@ -0,0 +1,302 @@
+package com.adong.fingermark.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * @author ADong
+ * @Description 基于本地文件的机器号注册中心，同一台主机上的多个 JVM 通过内存映射的槽位表分配机器号，不依赖 Redis
+ * 每个 appKey 一个文件，每个机器号一个槽位：long 租约到期时间（ms，0 为空闲）| long 持有进程号（仅用于排查）
+ * 位布局保存在同目录的 .layout 文件中，同样在文件锁内读写
+ * 读写都在文件锁内完成，没有网络往返；文件锁只在进程间互斥，同一个 JVM 内的多个实例按文件共用一个监视器
+ * 写入只到操作系统页缓存，进程崩溃不丢失；主机重启后未到期的槽位仍然保留，与 Redis 中未过期的 key 一样等待过期
+ * 注意：只在同一台主机内协调，多台主机各自分配会得到重复的机器号，多主机部署需使用 Redis 或按主机划分位布局
+ * @Date 2026-10-18 11:00 AM
+ */
+public class LocalWorkerIdRegistry implements WorkerIdRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalWorkerIdRegistry.class);
+
+    private static final int SLOT_BYTES = 2 * Long.BYTES;
+
+    private static final int OWNER_OFFSET = Long.BYTES;
+
+    /** 单个映射区域不超过 2GB **/
+    private static final long MAX_SLOTS = Integer.MAX_VALUE / SLOT_BYTES;
+
+    /** 同一个 JVM 内对同一文件重复加文件锁会抛 OverlappingFileLockException，按文件路径共用监视器 **/
+    private static final ConcurrentHashMap<String, Object> MONITORS = new ConcurrentHashMap<>();
+
+    /** 当前进程号 **/
+    private static final long PID = currentPid();
+
+    private final File dir;
+
+    private final ConcurrentHashMap<String, SlotTable> tables = new ConcurrentHashMap<>();
+
+    public LocalWorkerIdRegistry(String dir) {
+        this.dir = new File(dir);
+        if (!this.dir.isDirectory() && !this.dir.mkdirs()) {
+            throw new IllegalArgumentException("can not create worker registry dir " + dir);
+        }
+    }
+
+    @Override
+    public long acquire(String appKey, long start, long maxWorkerId, long size, long leaseTime) {
+
+        return table(appKey).locked(maxWorkerId, table -> {
+            long now = System.currentTimeMillis();
+            for (long i = 0; i < size; i++) {
+                long workerId = (start + i) % maxWorkerId;
+                if (table.expireAt(workerId) <= now) {
+                    table.hold(workerId, now + TimeUnit.SECONDS.toMillis(leaseTime));
+                    log.info("WorkerId={} register success, file={}", workerId, table.path);
+                    return workerId;
+                }
+            }
+            return -1L;
+        });
+    }
+
+    /**
+     * 与 Redis 一致，续期不校验持有者，过期被清理的槽位直接重新占用
+     */
+    @Override
+    public void renew(Map<String, List<Long>> leases, long leaseTime) {
+
+        for (Map.Entry<String, List<Long>> entry : leases.entrySet()) {
+            List<Long> workerIds = entry.getValue();
+            long needed = 0;
+            for (Long workerId : workerIds) {
+                needed = Math.max(needed, workerId + 1);
+            }
+            table(entry.getKey()).locked(needed, table -> {
+                long expireAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(leaseTime);
+                for (Long workerId : workerIds) {
+                    table.hold(workerId, expireAt);
+                }
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public void release(String appKey, long workerId) {
+
+        table(appKey).locked(workerId + 1, table -> {
+            table.hold(workerId, 0);
+            return null;
+        });
+    }
+
+    @Override
+    public long countLive(String appKey) {
+
+        return table(appKey).locked(0, table -> {
+            long now = System.currentTimeMillis();
+            long live = 0;
+            for (long workerId = 0; workerId < table.slots; workerId++) {
+                if (table.expireAt(workerId) > now) {
+                    live++;
+                }
+            }
+            return live;
+        });
+    }
+
+    @Override
+    public String getLayout(String appKey) {
+
+        return layoutLocked(appKey, LocalWorkerIdRegistry::readLayout);
+    }
+
+    @Override
+    public boolean putLayout(String appKey, String layout, boolean overwrite) {
+
+        return layoutLocked(appKey, raf -> {
+            if (!overwrite && readLayout(raf) != null) {
+                return false;
+            }
+            raf.setLength(0);
+            raf.write(layout.getBytes(StandardCharsets.UTF_8));
+            return true;
+        });
+    }
+
+    @Override
+    public void close() {
+
+        for (SlotTable table : tables.values()) {
+            table.close();
+        }
+        tables.clear();
+    }
+
+    private SlotTable table(String appKey) {
+
+        return tables.computeIfAbsent(appKey, key -> new SlotTable(new File(dir, fileName(key, ".slots"))));
+    }
+
+    /**
+     * 布局文件只在启动时读写，每次打开后持有文件锁操作
+     * @param appKey
+     * @param action
+     * @return
+     */
+    private <T> T layoutLocked(String appKey, LayoutAction<T> action) {
+
+        File file = new File(dir, fileName(appKey, ".layout"));
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            Object monitor = MONITORS.computeIfAbsent(file.getCanonicalPath(), key -> new Object());
+            synchronized (monitor) {
+                try (FileLock ignored = raf.getChannel().lock()) {
+                    return action.apply(raf);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("access layout file error, file=" + file, e);
+        }
+    }
+
+    private static String readLayout(RandomAccessFile raf) throws IOException {
+
+        if (raf.length() == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[(int) raf.length()];
+        raf.seek(0);
+        raf.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * appKey 只包含字母、数字、下划线、中划线时直接作为文件名，否则转为十六进制，避免非法文件名和互相冲突
+     * @param appKey
+     * @param suffix
+     * @return
+     */
+    private static String fileName(String appKey, String suffix) {
+
+        if (appKey.matches("[A-Za-z0-9_-]+")) {
+            return "snow_flake_worker_" + appKey + suffix;
+        }
+        StringBuilder hex = new StringBuilder("snow_flake_worker_0x");
+        for (byte b : appKey.getBytes(StandardCharsets.UTF_8)) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.append(suffix).toString();
+    }
+
+    private static long currentPid() {
+
+        String name = ManagementFactory.getRuntimeMXBean().getName();
+        try {
+            return Long.parseLong(name.substring(0, name.indexOf('@')));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 持有布局文件锁执行的操作
+     */
+    private interface LayoutAction<T> {
+
+        T apply(RandomAccessFile raf) throws IOException;
+    }
+
+    /**
+     * 单个 appKey 的槽位表，文件按需扩大，其他进程扩大后在下次加锁时重新映射
+     */
+    private static class SlotTable {
+
+        private final String path;
+
+        private final Object monitor;
+
+        private final RandomAccessFile raf;
+
+        private final FileChannel channel;
+
+        private MappedByteBuffer buffer;
+
+        /** 当前映射的槽位数 **/
+        private long slots = -1;
+
+        private SlotTable(File file) {
+            try {
+                this.path = file.getCanonicalPath();
+                this.raf = new RandomAccessFile(file, "rw");
+            } catch (IOException e) {
+                throw new UncheckedIOException("open worker registry file error, file=" + file, e);
+            }
+            this.channel = raf.getChannel();
+            this.monitor = MONITORS.computeIfAbsent(path, key -> new Object());
+        }
+
+        /**
+         * 持有文件锁执行操作
+         * @param needed 操作需要的最少槽位数
+         * @param action
+         * @return
+         */
+        private <T> T locked(long needed, Function<SlotTable, T> action) {
+
+            synchronized (monitor) {
+                try (FileLock ignored = channel.lock()) {
+                    remap(needed);
+                    return action.apply(this);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("lock worker registry file error, file=" + path, e);
+                }
+            }
+        }
+
+        private void remap(long needed) throws IOException {
+
+            long target = Math.max(needed, channel.size() / SLOT_BYTES);
+            if (target > MAX_SLOTS) {
+                throw new IllegalArgumentException("too many worker slots: " + target);
+            }
+            if (target != slots) {
+                // 映射超出文件大小时文件自动扩大，新增部分为 0 即空闲
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, target * SLOT_BYTES);
+                slots = target;
+            }
+        }
+
+        private long expireAt(long workerId) {
+            return buffer.getLong((int) (workerId * SLOT_BYTES));
+        }
+
+        private void hold(long workerId, long expireAt) {
+            int offset = (int) (workerId * SLOT_BYTES);
+            buffer.putLong(offset, expireAt);
+            buffer.putLong(offset + OWNER_OFFSET, expireAt == 0 ? 0 : PID);
+        }
+
+        private void close() {
+
+            try {
+                raf.close();
+            } catch (IOException e) {
+                log.warn("close worker registry file error, file={}", path, e);
+            }
+        }
+    }
+}
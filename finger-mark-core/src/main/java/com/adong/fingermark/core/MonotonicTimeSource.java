@@ -0,0 +1,132 @@
+package com.adong.fingermark.core;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author ADong
+ * @Description 单调时间源，以启动时的系统时间为锚点，用 {@link System#nanoTime()} 计算流逝时间
+ * 后台线程定期与系统时间对齐：系统时间向前跳变超过 stepThreshold 直接跟上，
+ * 其他偏差（包括系统时间回拨）通过调整走时速率逐渐消除，速率偏差不超过 maxSlewRate，时间永不回退
+ * @Date 2026-10-18 10:00 AM
+ */
+public class MonotonicTimeSource implements TimeSource {
+
+    private static final Logger log = LoggerFactory.getLogger(MonotonicTimeSource.class);
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    /** 对齐间隔，单位ms **/
+    private final long resyncInterval;
+
+    /** 最大速率偏差，0.001 表示每秒最多追赶或放慢 1ms **/
+    private final double maxSlewRate;
+
+    /** 系统时间超前超过该值直接跟上，单位ms **/
+    private final long stepThreshold;
+
+    private final ScheduledExecutorService service;
+
+    /** 当前锚点，整体替换保证读到一致的值 **/
+    private volatile Anchor anchor;
+
+    /** 已返回的最大时间，单位ms **/
+    private final AtomicLong last = new AtomicLong();
+
+    public MonotonicTimeSource(long resyncInterval, double maxSlewRate, long stepThreshold) {
+        if (resyncInterval <= 0 || maxSlewRate <= 0 || maxSlewRate >= 1) {
+            throw new IllegalArgumentException("MonotonicTimeSource set error!");
+        }
+        this.resyncInterval = resyncInterval;
+        this.maxSlewRate = maxSlewRate;
+        this.stepThreshold = stepThreshold;
+        this.anchor = new Anchor(System.currentTimeMillis() * NANOS_PER_MILLI, System.nanoTime(), 1.0);
+        this.service = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("time-source-resync-%d").setDaemon(true).build());
+        this.service.scheduleWithFixedDelay(this::resync, resyncInterval, resyncInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 读线程可能先取到旧锚点、对齐后才取 nanoTime，按旧速率算出的值会略高于新锚点，跨毫秒边界时出现 1ms 回退，
+     * 因此不小于已返回的最大值；只有毫秒推进时才写 last
+     */
+    @Override
+    public long currentTimeMillis() {
+
+        long now = anchor.nanosAt(System.nanoTime()) / NANOS_PER_MILLI;
+        long prev = last.get();
+        while (now > prev) {
+            if (last.compareAndSet(prev, now)) {
+                return now;
+            }
+            prev = last.get();
+        }
+        return prev;
+    }
+
+    /**
+     * 与系统时间对齐，以当前值为新锚点，保证连续且递增
+     */
+    void resync() {
+
+        try {
+            long nanoTime = System.nanoTime();
+            long current = anchor.nanosAt(nanoTime);
+            long wall = System.currentTimeMillis() * NANOS_PER_MILLI;
+            long error = wall - current;
+            if (error > stepThreshold * NANOS_PER_MILLI) {
+                log.warn("system clock jumped forward {}ms, step", error / NANOS_PER_MILLI);
+                anchor = new Anchor(wall, nanoTime, 1.0);
+                return;
+            }
+            // 下个周期内消除偏差所需的速率，限制在 maxSlewRate 以内
+            double slew = (double) error / (resyncInterval * NANOS_PER_MILLI);
+            slew = Math.max(-maxSlewRate, Math.min(maxSlewRate, slew));
+            anchor = new Anchor(current, nanoTime, 1.0 + slew);
+            if (error < -resyncInterval * NANOS_PER_MILLI) {
+                log.warn("system clock is {}ms behind monotonic time, slewing", -error / NANOS_PER_MILLI);
+            }
+        } catch (Exception e) {
+            log.error("time source resync error", e);
+        }
+    }
+
+    /**
+     * 当前时间与系统时间的偏差，单位ms
+     * @return
+     */
+    public long getOffset() {
+        return currentTimeMillis() - System.currentTimeMillis();
+    }
+
+    public void close() {
+        service.shutdown();
+    }
+
+    private static class Anchor {
+
+        /** 锚点时间，单位ns **/
+        private final long wallNanos;
+
+        private final long nanoTime;
+
+        /** 走时速率 **/
+        private final double rate;
+
+        private Anchor(long wallNanos, long nanoTime, double rate) {
+            this.wallNanos = wallNanos;
+            this.nanoTime = nanoTime;
+            this.rate = rate;
+        }
+
+        private long nanosAt(long now) {
+            return wallNanos + (long) ((now - nanoTime) * rate);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.adong.fingermark.core;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author ADong
+ * @Description 降级 id 防重窗口，记录最近一段时间内发放的降级 id，重复时由生成器重新随机
+ * 无锁开放寻址表：槽位值即 id，0 为空槽；id 的时间戳早于窗口的槽位视为过期，可以直接覆盖，表不需要清理
+ * 写入只有一次 CAS，构造后不再分配内存；内存占用 = 槽位数 * 8 字节
+ * 每个 id 最多探测 {@link #MAX_PROBE} 个槽位，探测范围内没有空槽或过期槽位时返回 {@link Result#FULL}，
+ * 说明窗口内的降级 id 超过了容量，调用方不能再保证不重复
+ * 时间回拨期间降级 id 的时间戳都停在回拨前的 lastTime，不会过期，容量是停住的这一个时间戳上的容量，而不是按窗口时长滚动
+ * 只能发现本进程发放的重复 id，其他节点随机到相同机器号和序列时无法发现
+ * @Date 2026-10-18 4:00 PM
+ */
+public class RecentIdGuard {
+
+    /** 单个 id 最多探测的槽位数 **/
+    private static final int MAX_PROBE = 32;
+
+    public enum Result {
+        /** 窗口内没有重复，已记录 **/
+        ADDED,
+        /** 窗口内已经发放过 **/
+        DUPLICATE,
+        /** 探测范围内没有可用槽位，无法判断 **/
+        FULL
+    }
+
+    private final AtomicLongArray table;
+
+    private final int mask;
+
+    /** id 右移该位数得到时间戳 **/
+    private final int timeShift;
+
+    /** 窗口长度，单位为布局的时间单位 **/
+    private final long windowTicks;
+
+    private final LongAdder checks = new LongAdder();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder overflows = new LongAdder();
+
+    /**
+     * @param layout 位布局
+     * @param size 槽位数，向上取 2 的幂
+     * @param windowMillis 窗口长度，单位ms
+     */
+    public RecentIdGuard(IdLayout layout, int size, long windowMillis) {
+        if (size <= 0 || size > 1 << 30 || windowMillis <= 0) {
+            throw new IllegalArgumentException("recent id guard set error!");
+        }
+        int capacity = Integer.highestOneBit(size);
+        if (capacity < size) {
+            capacity <<= 1;
+        }
+        this.table = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        this.timeShift = layout.getTimeShift();
+        this.windowTicks = (windowMillis + layout.getTimeUnit() - 1) / layout.getTimeUnit();
+    }
+
+    /**
+     * 检查并记录 id
+     * 先在探测范围内查找，没有重复再 CAS 占用第一个空槽或过期槽位；
+     * 多个线程同时写入同一个 id 时都会占到槽位，写入后再检查一遍，重复的一方都返回 DUPLICATE
+     * @param id 不为 0
+     * @return
+     */
+    public Result add(long id) {
+
+        checks.increment();
+        long minTick = (id >>> timeShift) - windowTicks;
+        int home = (int) mix(id) & mask;
+        for (;;) {
+            int candidate = -1;
+            long expected = 0;
+            for (int i = 0; i < MAX_PROBE; i++) {
+                int slot = (home + i) & mask;
+                long value = table.get(slot);
+                if (value == id) {
+                    hits.increment();
+                    return Result.DUPLICATE;
+                }
+                if (candidate < 0 && (value == 0 || value >>> timeShift < minTick)) {
+                    candidate = slot;
+                    expected = value;
+                }
+                // 槽位写入后不会再变为 0，空槽之后不可能有相同的 id
+                if (value == 0) {
+                    break;
+                }
+            }
+            if (candidate < 0) {
+                overflows.increment();
+                return Result.FULL;
+            }
+            if (!table.compareAndSet(candidate, expected, id)) {
+                continue;
+            }
+            for (int i = 0; i < MAX_PROBE; i++) {
+                int slot = (home + i) & mask;
+                if (slot != candidate && table.get(slot) == id) {
+                    hits.increment();
+                    return Result.DUPLICATE;
+                }
+            }
+            return Result.ADDED;
+        }
+    }
+
+    /**
+     * murmur3 fmix64，id 低位是随机数、高位是时间戳，混合后再取模
+     * @param id
+     * @return
+     */
+    private static long mix(long id) {
+
+        id ^= id >>> 33;
+        id *= 0xff51afd7ed558ccdL;
+        id ^= id >>> 33;
+        id *= 0xc4ceb9fe1a85ec53L;
+        id ^= id >>> 33;
+        return id;
+    }
+
+    public int getSize() {
+        return table.length();
+    }
+
+    public long getMemoryBytes() {
+        return (long) table.length() * Long.BYTES;
+    }
+
+    public long getChecks() {
+        return checks.sum();
+    }
+
+    /**
+     * 发现重复的次数
+     * @return
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * 窗口容量不足的次数
+     * @return
+     */
+    public long getOverflows() {
+        return overflows.sum();
+    }
+
+    /**
+     * 命中率 = 发现重复次数 / 检查次数
+     * @return
+     */
+    public double getHitRate() {
+
+        long total = checks.sum();
+        return total == 0 ? 0 : (double) hits.sum() / total;
+    }
+}
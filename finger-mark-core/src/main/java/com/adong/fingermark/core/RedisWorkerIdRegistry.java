@@ -0,0 +1,194 @@
+package com.adong.fingermark.core;
+
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author ADong
+ * @Description 基于 Redis 的机器号注册中心，每个机器号一个 key：snow_flake_worker_{appKey}_{workerId}
+ * 单个机器号用 setIfAbsent 抢占，批量探测用 Lua 脚本一次往返；续期把所有 key 放在一个 pipeline 中
+ * @Date 2026-10-18 10:00 AM
+ */
+public class RedisWorkerIdRegistry implements WorkerIdRegistry {
+
+    /** SCAN 每批数量 **/
+    private static final long SCAN_COUNT = 1024;
+
+    /** 机器号 key 的值 **/
+    private static final String WORKER_VALUE = "1";
+
+    /** 位布局的 key **/
+    private static final String LAYOUT_KEY_FORMAT = "snow_flake_layout_%s";
+
+    /**
+     * 从 start 开始顺序探测 size 个机器号，SET NX EX 抢占第一个空闲的，没有空闲返回 -1
+     * ARGV: key 前缀, start, maxWorkerId, size, 有效期, 值
+     * 注意：key 由脚本拼接，不兼容 Redis Cluster，集群模式下关闭 workerId.register.script.enable
+     */
+    private static final RedisScript<Long> REGISTER_SCRIPT = new DefaultRedisScript<>(
+            "local max = tonumber(ARGV[3]) " +
+            "for i = 0, tonumber(ARGV[4]) - 1 do " +
+            "  local id = (tonumber(ARGV[2]) + i) % max " +
+            "  if redis.call('SET', ARGV[1] .. id, ARGV[6], 'EX', ARGV[5], 'NX') then " +
+            "    return id " +
+            "  end " +
+            "end " +
+            "return -1", Long.class);
+
+    private final RedisTemplate redisTemplate;
+
+    public RedisWorkerIdRegistry(RedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * 只探测一个机器号时直接 setIfAbsent，不依赖脚本，兼容 Redis Cluster
+     */
+    @Override
+    public long acquire(String appKey, long start, long maxWorkerId, long size, long leaseTime) {
+
+        if (size == 1) {
+            long workerId = start % maxWorkerId;
+            Boolean success = redisTemplate.opsForValue().setIfAbsent(buildSnowFlakeWorkerIdKey(appKey, workerId),
+                    WORKER_VALUE, leaseTime, TimeUnit.SECONDS);
+            return Boolean.TRUE.equals(success) ? workerId : -1;
+        }
+        // 值与 setIfAbsent 使用同一个序列化器，保证 key 的内容一致
+        Long result = (Long) redisTemplate.execute(REGISTER_SCRIPT, ScriptArgsSerializer.INSTANCE,
+                ScriptArgsSerializer.INSTANCE, Collections.emptyList(), buildSnowFlakeWorkerIdKey(appKey, ""),
+                start % maxWorkerId, maxWorkerId, size, leaseTime, serializeWorkerValue());
+        return result == null ? -1 : result;
+    }
+
+    /**
+     * 每个 key 先 SET NX EX（防止被内存淘汰清理）再 EXPIRE，全部放在一个 pipeline 中，只有一次往返
+     */
+    @Override
+    public void renew(Map<String, List<Long>> leases, long leaseTime) {
+
+        List<String> keys = new ArrayList<>();
+        for (Map.Entry<String, List<Long>> entry : leases.entrySet()) {
+            for (Long workerId : entry.getValue()) {
+                keys.add(buildSnowFlakeWorkerIdKey(entry.getKey(), workerId));
+            }
+        }
+        RedisSerializer keySerializer = redisTemplate.getKeySerializer();
+        byte[] value = serializeWorkerValue();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                byte[] rawKey = keySerializer.serialize(key);
+                // 续期时再次set防止被Redis内存淘汰机制清理
+                connection.stringCommands().set(rawKey, value, Expiration.seconds(leaseTime),
+                        RedisStringCommands.SetOption.ifAbsent());
+                connection.keyCommands().expire(rawKey, leaseTime);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void release(String appKey, long workerId) {
+
+        redisTemplate.delete(buildSnowFlakeWorkerIdKey(appKey, workerId));
+    }
+
+    /**
+     * SCAN 统计存活的机器号 key
+     */
+    @Override
+    public long countLive(String appKey) {
+
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(buildSnowFlakeWorkerIdKey(appKey, "*"))
+                .count(SCAN_COUNT)
+                .build();
+        Long count = (Long) redisTemplate.execute((RedisCallback<Long>) connection -> {
+            long live = 0;
+            try (Cursor<byte[]> cursor = connection.scan(options)) {
+                while (cursor.hasNext()) {
+                    cursor.next();
+                    live++;
+                }
+            }
+            return live;
+        });
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 没有 Redis（基准测试）时不保存布局
+     */
+    @Override
+    public String getLayout(String appKey) {
+
+        if (redisTemplate == null) {
+            return null;
+        }
+        return (String) redisTemplate.opsForValue().get(String.format(LAYOUT_KEY_FORMAT, appKey));
+    }
+
+    @Override
+    public boolean putLayout(String appKey, String layout, boolean overwrite) {
+
+        if (redisTemplate == null) {
+            return false;
+        }
+        String key = String.format(LAYOUT_KEY_FORMAT, appKey);
+        if (overwrite) {
+            redisTemplate.opsForValue().set(key, layout);
+            return true;
+        }
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, layout));
+    }
+
+    /**
+     * 机器号 key 的值，与 setIfAbsent 使用同一个序列化器
+     * @return
+     */
+    private byte[] serializeWorkerValue() {
+
+        return redisTemplate.getValueSerializer() == null
+                ? WORKER_VALUE.getBytes(StandardCharsets.UTF_8)
+                : redisTemplate.getValueSerializer().serialize(WORKER_VALUE);
+    }
+
+    private static String buildSnowFlakeWorkerIdKey(String appKey, Object workerId) {
+
+        return String.format("snow_flake_worker_%s_%s", appKey, workerId);
+    }
+
+    /**
+     * 脚本参数序列化：byte[] 原样传递，其他按字符串
+     */
+    private static class ScriptArgsSerializer implements RedisSerializer<Object> {
+
+        private static final ScriptArgsSerializer INSTANCE = new ScriptArgsSerializer();
+
+        @Override
+        public byte[] serialize(Object value) {
+            if (value instanceof byte[]) {
+                return (byte[]) value;
+            }
+            return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public Object deserialize(byte[] bytes) {
+            return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
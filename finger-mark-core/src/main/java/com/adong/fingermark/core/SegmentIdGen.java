@@ -0,0 +1,294 @@
+package com.adong.fingermark.core;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author ADong
+ * @Description 号段模式 id 生成器，生成稠密递增的 id
+ * 通过 Redis INCRBY 租用号段，在本地内存中发放
+ * 当前号段使用超过 prefetchFactor 后异步加载下一个号段（双 buffer），Redis 基本不在请求链路上
+ * 号段步长根据号段消耗时长自适应：消耗过快翻倍，消耗过慢减半
+ * 等待异步加载超时后同步加载，之后才到达的异步号段位于当前号段之前，直接丢弃，保证 id 递增
+ * @Date 2026-10-18 3:30 PM
+ */
+public class SegmentIdGen implements IdGen {
+
+    private static final Logger log = LoggerFactory.getLogger(SegmentIdGen.class);
+
+    /** 等待异步加载号段的最长时间，单位ms **/
+    private static final long LOAD_WAIT_TIMEOUT = 500;
+
+    /** 号段异步加载线程池，所有 appKey 共用 **/
+    private static final ExecutorService LOADER = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("segment-loader-%d").setDaemon(true).build());
+
+    private final RedisTemplate redisTemplate;
+
+    /** 区分业务 **/
+    private final String appKey;
+
+    /** 最小步长 **/
+    private final long minStep;
+
+    /** 最大步长 **/
+    private final long maxStep;
+
+    /** 号段期望消耗时长，单位ms **/
+    private final long segmentDuration;
+
+    /** 当前号段使用百分比达到该值后预加载下一个号段 **/
+    private final int prefetchFactor;
+
+    /** 当前步长，只在 switchLock 内修改 **/
+    private volatile long step;
+
+    /** 上次加载号段的时间，只在 switchLock 内修改 **/
+    private volatile long lastLoadTime;
+
+    private volatile Segment current;
+
+    private volatile Segment next;
+
+    /** 是否正在异步加载下一个号段 **/
+    private final AtomicBoolean loading = new AtomicBoolean(false);
+
+    private final ReentrantLock switchLock = new ReentrantLock();
+
+    private final Condition loaded = switchLock.newCondition();
+
+    private final IdGenMetrics metrics;
+
+    public SegmentIdGen(RedisTemplate redisTemplate,
+                        String appKey,
+                        long minStep,
+                        long maxStep,
+                        long segmentDuration,
+                        int prefetchFactor,
+                        IdGenMetrics metrics) {
+        if (minStep <= 0 || maxStep < minStep) {
+            throw new IllegalArgumentException("segment step set error!");
+        }
+        if (prefetchFactor <= 0 || prefetchFactor >= 100) {
+            throw new IllegalArgumentException("prefetchFactor set error!");
+        }
+        this.redisTemplate = redisTemplate;
+        this.appKey = appKey;
+        this.minStep = minStep;
+        this.maxStep = maxStep;
+        this.segmentDuration = segmentDuration;
+        this.prefetchFactor = prefetchFactor;
+        this.metrics = metrics;
+        this.step = minStep;
+        this.current = loadSegment();
+        log.info("SegmentIdGen init success, appKey={}, segment=[{}, {})", appKey, current.start, current.max);
+    }
+
+    /**
+     * 生成新 Id
+     * @return
+     */
+    @Override
+    public long nextId() {
+
+        metrics.issued();
+        for (;;) {
+            Segment segment = current;
+            prefetch(segment);
+            long id = segment.value.getAndIncrement();
+            if (id < segment.max) {
+                return id;
+            }
+            switchSegment(segment);
+        }
+    }
+
+    /**
+     * 批量生成 Id，一次 getAndAdd 预留当前号段中连续的一段
+     * @param size 数量
+     * @return
+     */
+    @Override
+    public long[] nextIds(int size) {
+
+        metrics.issued(size);
+        long[] ids = new long[size];
+        int index = 0;
+        while (index < size) {
+            Segment segment = current;
+            prefetch(segment);
+            long want = size - index;
+            long start = segment.value.getAndAdd(want);
+            long end = Math.min(start + want, segment.max);
+            for (long id = start; id < end; id++) {
+                ids[index++] = id;
+            }
+            if (end < start + want) {
+                switchSegment(segment);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 当前号段使用超过阈值且下一个号段未加载时，异步加载
+     * @param segment
+     */
+    private void prefetch(Segment segment) {
+
+        if (next != null || loading.get() || segment.used() * 100 < segment.step * prefetchFactor) {
+            return;
+        }
+        if (segment != current || !loading.compareAndSet(false, true)) {
+            return;
+        }
+        LOADER.execute(() -> {
+            Segment loadedSegment = null;
+            try {
+                loadedSegment = loadSegment();
+            } catch (Exception e) {
+                log.error("appKey={} prefetch segment error", appKey, e);
+            } finally {
+                switchLock.lock();
+                try {
+                    // 等待超时后已经同步加载并切换，晚到的号段在当前号段之前，不能再使用
+                    if (loadedSegment != null && loadedSegment.start >= current.max) {
+                        next = loadedSegment;
+                    } else if (loadedSegment != null) {
+                        log.warn("appKey={} drop stale segment=[{}, {}), current=[{}, {})", appKey,
+                                loadedSegment.start, loadedSegment.max, current.start, current.max);
+                    }
+                    loading.set(false);
+                    loaded.signalAll();
+                } finally {
+                    switchLock.unlock();
+                }
+            }
+        });
+    }
+
+    /**
+     * 当前号段用完，切换到下一个号段
+     * 下一个号段正在加载则等待，没有加载则同步加载
+     * @param exhausted 已用完的号段
+     */
+    private void switchSegment(Segment exhausted) {
+
+        switchLock.lock();
+        try {
+            // 其他线程已经切换
+            if (current != exhausted) {
+                return;
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(LOAD_WAIT_TIMEOUT);
+            while (next == null && loading.get()) {
+                long remain = deadline - System.nanoTime();
+                if (remain <= 0) {
+                    break;
+                }
+                loaded.awaitNanos(remain);
+            }
+            Segment segment = next;
+            if (segment == null) {
+                log.warn("appKey={} next segment not ready, load synchronously", appKey);
+                segment = loadSegment();
+            }
+            current = segment;
+            next = null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("switch segment interrupted", e);
+        } finally {
+            switchLock.unlock();
+        }
+    }
+
+    /**
+     * 到 Redis 租用号段 [end - step + 1, end]，并根据上个号段的消耗时长调整步长
+     * 步长的计算和修改在 switchLock 内，访问 Redis 时不持有锁（同步加载的调用方已持有）
+     * @return
+     */
+    private Segment loadSegment() {
+
+        long now;
+        long nextStep;
+        switchLock.lock();
+        try {
+            now = System.currentTimeMillis();
+            nextStep = step;
+            if (lastLoadTime > 0) {
+                long duration = now - lastLoadTime;
+                if (duration < segmentDuration) {
+                    nextStep = Math.min(step << 1, maxStep);
+                } else if (duration >= segmentDuration << 1) {
+                    nextStep = Math.max(step >> 1, minStep);
+                }
+            }
+        } finally {
+            switchLock.unlock();
+        }
+        Long end = redisTemplate.opsForValue().increment(buildSegmentKey(appKey), nextStep);
+        if (end == null) {
+            throw new IllegalStateException("load segment error, appKey=" + appKey);
+        }
+        switchLock.lock();
+        try {
+            step = nextStep;
+            lastLoadTime = now;
+        } finally {
+            switchLock.unlock();
+        }
+        log.info("appKey={} load segment=[{}, {}], step={}", appKey, end - nextStep + 1, end, nextStep);
+        return new Segment(end - nextStep + 1, end + 1, nextStep);
+    }
+
+    private String buildSegmentKey(String appKey) {
+
+        return String.format("segment_id_%s", appKey);
+    }
+
+    public long getStep() {
+        return step;
+    }
+
+    @Override
+    public void destory() {
+        // 号段未用完的部分直接丢弃，号段模式不保证连续
+        log.info("appKey={} SegmentIdGen destroy", appKey);
+    }
+
+    /**
+     * 号段 [start, max)
+     */
+    private static class Segment {
+
+        private final long start;
+
+        private final long max;
+
+        private final long step;
+
+        private final AtomicLong value;
+
+        private Segment(long start, long max, long step) {
+            this.start = start;
+            this.max = max;
+            this.step = step;
+            this.value = new AtomicLong(start);
+        }
+
+        private long used() {
+            return value.get() - start;
+        }
+    }
+}
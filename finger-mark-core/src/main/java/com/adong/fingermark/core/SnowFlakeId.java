@@ -0,0 +1,582 @@
+package com.adong.fingermark.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adong.fingermark.jfr.FingerMarkEvents;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author ADong
+ * @Description 参考雪花算法实现分布式id
+ * 1位正负位 + 41位时间戳 + 10位机器号 + 12位随机序列，可通过 {@link IdLayout} 调整起始时间、时间单位和各部分位数
+ * 通过 Redis {@link WorkerIdManager#renewalWorkerId()}
+ * 续期逻辑保证重启时不会注册上一个机器号来防止重启时的时间回拨问题
+ * 开启借用时间（maxBorrow > 0）后使用只增不减的逻辑时间戳：时间回拨或当前毫秒序列耗尽时
+ * 直接借用后续毫秒继续发放，不等待也不在锁内访问 Redis；回拨超过 maxBorrow 时异步切换机器号
+ * 每个时间戳的序列从 0 开始用满，序列耗尽时在 sequenceBorrow 范围内借用下一个时间戳的序列，
+ * 超出范围需要等待时持锁挂起，其他线程阻塞在锁上，不自旋
+ * 配置 {@link RecentIdGuard} 后降级 id 在窗口内重复时重新随机，窗口容量不足时等待时间追上后正常发放
+ * 布局划出数据中心号时，数据中心号固定在机器号之上，降级随机只覆盖机器号和序列，不同数据中心的 id 不会重复
+ * @Date 2022-08-15 4:24 PM
+ */
+public class SnowFlakeId implements IdGen {
+
+    private static final Logger log = LoggerFactory.getLogger(SnowFlakeId.class);
+
+    /** 异步切换机器号失败后的重试间隔，单位ms **/
+    private static final long SWITCH_RETRY_INTERVAL = 1000;
+
+    /** 回拨等待阈值，单位ms **/
+    private static final long MAX_WAIT_OFFSET = 5;
+
+    /** 等待下一个时间戳时单次挂起时间，单位ns **/
+    private static final long PARK_NANOS = 50_000;
+
+    /** 降级 id 重复时最多重新随机次数 **/
+    private static final int MAX_REDRAW = 8;
+
+    /** 异步切换机器号线程池，所有 appKey 共用 **/
+    private static final ExecutorService SWITCHER = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("worker-switch-%d").setDaemon(true).build());
+
+    /** 时间源 **/
+    private TimeSource timeSource = TimeSource.SYSTEM;
+
+    /** 位布局 **/
+    private IdLayout layout = IdLayout.legacy(10);
+
+    // 时间戳，单位为布局的时间单位
+    private long lastTime = timeGen();
+
+    // 数据中心号，已左移到机器号之上
+    private long datacenter = 0;
+    // 时间戳左移位数
+    private long timeShift = 22;
+
+    // 机房机器ID 10位
+    private long workerId = 0;
+    private long workerIdShift = 10;
+
+    // 随机数 12位
+    private long random = 0;
+    private long randomShift = 12;
+    // 随机数的最大值
+    private long maxRandom = (long) Math.pow(2, randomShift);
+
+    private WorkerIdManager workerIdManager;
+
+    private IdGenMetrics metrics = new IdGenMetrics(null);
+
+    /** 本地时间戳检查点，未开启为 null **/
+    private TimestampCheckpoint checkpoint;
+
+    /** 逻辑时间最多领先系统时间的时间单位数，0 表示不借用 **/
+    private long maxBorrow;
+
+    /** 序列耗尽时最多领先系统时间的时间单位数，0 表示等待下一个时间戳 **/
+    private long sequenceBorrow;
+
+    /** 观察到的最大系统时间，系统时间小于该值说明发生了回拨 **/
+    private long maxSeenTime = lastTime;
+
+    /** 是否正在异步切换机器号 **/
+    private final AtomicBoolean switching = new AtomicBoolean(false);
+
+    /** 下次允许异步切换机器号的时间 **/
+    private long nextSwitchTime;
+
+    /** 降级 id 防重窗口，未开启为 null **/
+    private RecentIdGuard guard;
+
+    public SnowFlakeId() {}
+
+    public SnowFlakeId(long workerId, long workerIdShift, WorkerIdManager workerIdManager){
+        this(workerId, workerIdShift, workerIdManager, new IdGenMetrics(null));
+    }
+
+    public SnowFlakeId(long workerId, long workerIdShift, WorkerIdManager workerIdManager, IdGenMetrics metrics){
+        this(workerId, workerIdShift, workerIdManager, metrics, null);
+    }
+
+    public SnowFlakeId(long workerId, long workerIdShift, WorkerIdManager workerIdManager, IdGenMetrics metrics,
+                       TimestampCheckpoint checkpoint){
+        this(workerId, workerIdShift, workerIdManager, metrics, checkpoint, 0);
+    }
+
+    /**
+     * @param maxBorrow 逻辑时间最多领先系统时间的毫秒数，0 表示不借用
+     */
+    public SnowFlakeId(long workerId, long workerIdShift, WorkerIdManager workerIdManager, IdGenMetrics metrics,
+                       TimestampCheckpoint checkpoint, long maxBorrow){
+        this(workerId, workerIdShift, workerIdManager, metrics, checkpoint, maxBorrow, TimeSource.SYSTEM);
+    }
+
+    /**
+     * @param maxBorrow 逻辑时间最多领先系统时间的毫秒数，0 表示不借用
+     * @param timeSource 时间源
+     */
+    public SnowFlakeId(long workerId, long workerIdShift, WorkerIdManager workerIdManager, IdGenMetrics metrics,
+                       TimestampCheckpoint checkpoint, long maxBorrow, TimeSource timeSource){
+        this(workerId, IdLayout.legacy(workerIdShift), workerIdManager, metrics, checkpoint, maxBorrow, timeSource);
+    }
+
+    /**
+     * @param layout 位布局
+     * @param maxBorrow 逻辑时间最多领先系统时间的毫秒数，0 表示不借用，按时间单位向上取整
+     * @param timeSource 时间源
+     */
+    public SnowFlakeId(long workerId, IdLayout layout, WorkerIdManager workerIdManager, IdGenMetrics metrics,
+                       TimestampCheckpoint checkpoint, long maxBorrow, TimeSource timeSource){
+        this(workerId, layout, workerIdManager, metrics, checkpoint, maxBorrow, 0, timeSource);
+    }
+
+    /**
+     * @param layout 位布局
+     * @param maxBorrow 逻辑时间最多领先系统时间的毫秒数，0 表示不借用，按时间单位向上取整
+     * @param sequenceBorrow 序列耗尽时最多领先系统时间的毫秒数，0 表示等待，按时间单位向上取整
+     * @param timeSource 时间源
+     */
+    public SnowFlakeId(long workerId, IdLayout layout, WorkerIdManager workerIdManager, IdGenMetrics metrics,
+                       TimestampCheckpoint checkpoint, long maxBorrow, long sequenceBorrow, TimeSource timeSource){
+        this(workerId, layout, workerIdManager, metrics, checkpoint, maxBorrow, sequenceBorrow, timeSource, null);
+    }
+
+    /**
+     * @param layout 位布局
+     * @param maxBorrow 逻辑时间最多领先系统时间的毫秒数，0 表示不借用，按时间单位向上取整
+     * @param sequenceBorrow 序列耗尽时最多领先系统时间的毫秒数，0 表示等待，按时间单位向上取整
+     * @param timeSource 时间源
+     * @param guard 降级 id 防重窗口，为 null 不检查
+     */
+    public SnowFlakeId(long workerId, IdLayout layout, WorkerIdManager workerIdManager, IdGenMetrics metrics,
+                       TimestampCheckpoint checkpoint, long maxBorrow, long sequenceBorrow, TimeSource timeSource,
+                       RecentIdGuard guard){
+        this(0, workerId, layout, workerIdManager, metrics, checkpoint, maxBorrow, sequenceBorrow, timeSource, guard);
+    }
+
+    /**
+     * @param datacenterId 数据中心号，不能超出布局的 datacenterBits
+     * @param layout 位布局
+     * @param maxBorrow 逻辑时间最多领先系统时间的毫秒数，0 表示不借用，按时间单位向上取整
+     * @param sequenceBorrow 序列耗尽时最多领先系统时间的毫秒数，0 表示等待，按时间单位向上取整
+     * @param timeSource 时间源
+     * @param guard 降级 id 防重窗口，为 null 不检查
+     */
+    public SnowFlakeId(long datacenterId, long workerId, IdLayout layout, WorkerIdManager workerIdManager,
+                       IdGenMetrics metrics, TimestampCheckpoint checkpoint, long maxBorrow, long sequenceBorrow,
+                       TimeSource timeSource, RecentIdGuard guard){
+        if (maxBorrow < 0 || sequenceBorrow < 0) {
+            throw new IllegalArgumentException("maxBorrow set error!");
+        }
+        layout.checkDatacenterId(datacenterId);
+        this.workerId = workerId;
+        this.layout = layout;
+        this.timeShift = layout.getTimeShift();
+        this.datacenter = datacenterId << (layout.getWorkerBits() + layout.getSequenceBits());
+        this.workerIdShift = layout.getWorkerBits();
+        this.randomShift = layout.getSequenceBits();
+        this.maxRandom = 1L << randomShift;
+        this.workerIdManager = workerIdManager;
+        this.metrics = metrics;
+        this.checkpoint = checkpoint;
+        this.maxBorrow = (maxBorrow + layout.getTimeUnit() - 1) / layout.getTimeUnit();
+        this.sequenceBorrow = (sequenceBorrow + layout.getTimeUnit() - 1) / layout.getTimeUnit();
+        this.timeSource = timeSource;
+        this.guard = guard;
+        // 从上一个时间戳开始，当前时间戳的序列从 0 开始发放
+        this.lastTime = timeGen() - 1;
+        this.maxSeenTime = lastTime;
+        log.info("SnowFlakeId init success, datacenterId={}, workerId={}, maxBorrow={}ms, sequenceBorrow={}ms, layout={}",
+                datacenterId, workerId, maxBorrow, sequenceBorrow, layout);
+    }
+
+    /**
+     * 获取 id
+     * @return
+     */
+    private long getId() {
+        return lastTime << timeShift | datacenter |
+                workerId << randomShift |
+                random;
+    }
+
+    /**
+     * 降级方案获取 id
+     * @param badRandom
+     * @return
+     */
+    private long getBadId(long badRandom) {
+        metrics.degraded();
+        return lastTime << timeShift | datacenter |
+                badRandom;
+    }
+
+    /**
+     * 降级发放，开启防重窗口时跳过本机器号，窗口内重复重新随机
+     * 回拨期间降级 id 的时间戳都是 lastTime，窗口不会过期，多次重复或容量不足时直接失败，
+     * 不持锁等待时间追上，避免整个回拨期间阻塞所有调用方
+     * @return
+     * @throws DegradedIdUnavailableException 无法保证降级 id 不重复
+     */
+    private long degrade() {
+
+        if (guard == null) {
+            return getBadId(getBadMaxRandom());
+        }
+        for (int i = 0; i < MAX_REDRAW; i++) {
+            long badRandom = getBadMaxRandom();
+            // 机器号部分与本机器号相同时可能与本生成器在 lastTime 发放过的 id 重复
+            if (badRandom >>> randomShift == workerId) {
+                continue;
+            }
+            long id = lastTime << timeShift | datacenter | badRandom;
+            RecentIdGuard.Result result = id == 0 ? RecentIdGuard.Result.DUPLICATE : guard.add(id);
+            if (result == RecentIdGuard.Result.ADDED) {
+                metrics.degraded();
+                return id;
+            }
+            if (result == RecentIdGuard.Result.FULL) {
+                break;
+            }
+        }
+        throw new DegradedIdUnavailableException(metrics.getAppKey(), lastTime);
+    }
+
+    /**
+     * 生成新 Id
+     * @return
+     */
+    @Override
+    public synchronized long nextId() {
+
+        metrics.issued();
+        long id = generate();
+        checkpoint();
+        return id;
+    }
+
+    /**
+     * 生成新 Id，调用方持有锁
+     * @return
+     */
+    private long generate() {
+
+        long now = timeGen();
+
+        //如果当前时间大于上次时间，直接返回
+        if (now > lastTime) {
+            lastTime = now;
+            maxSeenTime = now;
+            random = 0;
+            return getId();
+        }
+        // 如果当前时间等于上次时间（或处于借用的序列中）且random小于最大值随机序列
+        boolean sameTick = now == lastTime || isLeading(now);
+        if (sameTick && ++ random < maxRandom) {
+            return getId();
+        }
+        if (maxBorrow > 0) {
+            return borrow(now);
+        }
+        // 序列耗尽，借用下一个时间戳或挂起等待
+        if (sameTick) {
+            lastTime = nextTick(now);
+            random = 0;
+            return getId();
+        }
+        // 判断如果回拨时间小于5ms就进行等待，否则进行降级方案
+        long offset = lastTime - now;
+        if (offset == 1 || offset * layout.getTimeUnit() <= MAX_WAIT_OFFSET) {
+            long waitStart = System.nanoTime();
+            try {
+                // 等待两倍offset
+                wait(offset * layout.getTimeUnit() << 1);
+            } catch (InterruptedException e) {
+                log.error("nextId wait interrupted");
+                return degrade();
+            } finally {
+                long waited = System.nanoTime() - waitStart;
+                metrics.rollbackWait(waited);
+                FingerMarkEvents.rollbackWait(metrics.getAppKey(), waited, offset * layout.getTimeUnit());
+            }
+        } else {
+            // 发生时间回拨切换机器号，失败兜底
+            if (!changeWorkerId()) {
+                return degrade();
+            }
+        }
+        now = timeGen();
+        // 再次判断，如果时间还不符合进行降级方案
+        if (now < lastTime) {
+            return degrade();
+        } else {
+            now = awaitTick(lastTime + 1);
+        }
+        lastTime = now;
+        random = 0;
+        return getId();
+    }
+
+    /**
+     * 系统时间落后于 lastTime 是否只是因为借用了序列，而不是时间回拨
+     * @param now
+     * @return
+     */
+    private boolean isLeading(long now) {
+
+        return maxBorrow == 0 && now < lastTime && lastTime - now <= sequenceBorrow;
+    }
+
+    /**
+     * 当前时间戳序列耗尽后的下一个时间戳
+     * 领先系统时间不超过 sequenceBorrow 直接借用，否则挂起等待系统时间追上
+     * @param now 系统时间
+     * @return
+     */
+    private long nextTick(long now) {
+
+        metrics.sequenceExhausted();
+        long next = lastTime + 1;
+        if (next - now > sequenceBorrow) {
+            now = awaitTick(next - sequenceBorrow);
+        }
+        if (next > now) {
+            metrics.clockBorrowed();
+        }
+        return Math.max(next, now);
+    }
+
+    /**
+     * 借用时间发放，逻辑时间不回退
+     * 当前逻辑毫秒还有序列直接发放，序列耗尽借用下一毫秒；
+     * 领先系统时间超过 maxBorrow 时，如果是时间回拨则异步切换机器号并继续借用，
+     * 如果只是发放过快则等待系统时间追上
+     * @param now 系统时间，不大于 lastTime
+     * @return
+     */
+    private long borrow(long now) {
+
+        boolean rollback = now < maxSeenTime;
+        if (now > maxSeenTime) {
+            maxSeenTime = now;
+        }
+        if (now < lastTime) {
+            random++;
+        }
+        if (random < maxRandom) {
+            if (rollback && lastTime - now > maxBorrow) {
+                switchWorkerIdAsync(now);
+            }
+            return getId();
+        }
+        if (lastTime + 1 - now > maxBorrow) {
+            if (rollback) {
+                switchWorkerIdAsync(now);
+            } else {
+                metrics.sequenceExhausted();
+                awaitTick(lastTime + 1 - maxBorrow);
+            }
+        }
+        // 借用下一毫秒
+        lastTime++;
+        random = 0;
+        metrics.clockBorrowed();
+        return getId();
+    }
+
+    /**
+     * 回拨超过借用上限时异步切换机器号，切换完成后逻辑时间回到系统时间
+     * 切换期间继续借用时间发放，同一机器号下逻辑时间只增不减，不会重复
+     * @param now
+     */
+    private void switchWorkerIdAsync(long now) {
+
+        if (Objects.isNull(workerIdManager) || now < nextSwitchTime || !switching.compareAndSet(false, true)) {
+            return;
+        }
+        long current = workerId;
+        log.warn("clock rollback exceeds maxBorrow, lastTime={}, now={}, switch workerId async", lastTime, now);
+        SWITCHER.execute(() -> {
+            Long changeWorkerId = null;
+            long switchStart = System.nanoTime();
+            try {
+                changeWorkerId = workerIdManager.switchWorkerId(current);
+            } catch (Exception e) {
+                log.error("switch workerId async error", e);
+            }
+            FingerMarkEvents.workerSwitch(metrics.getAppKey(), System.nanoTime() - switchStart, current, changeWorkerId, true);
+            synchronized (this) {
+                if (changeWorkerId != null && workerId == current) {
+                    workerId = changeWorkerId;
+                    lastTime = timeGen();
+                    maxSeenTime = lastTime;
+                    random = 0;
+                    metrics.workerSwitched();
+                } else if (changeWorkerId == null) {
+                    nextSwitchTime = timeGen() + Math.max(1, SWITCH_RETRY_INTERVAL / layout.getTimeUnit());
+                }
+                switching.set(false);
+            }
+        });
+    }
+
+    /**
+     * 批量生成 Id
+     * 在一次加锁内把当前时间戳剩余的序列连续分配出去，序列耗尽借用或等待下一个时间戳
+     * 时间回拨仍走 {@link #generate()} 的处理逻辑
+     * @param size 数量
+     * @return
+     */
+    @Override
+    public synchronized long[] nextIds(int size) {
+
+        metrics.issued(size);
+        long[] ids = new long[size];
+        int index = 0;
+        while (index < size) {
+            long now = timeGen();
+            if (now < lastTime && !isLeading(now)) {
+                ids[index++] = generate();
+                continue;
+            }
+            if (now > lastTime) {
+                lastTime = now;
+                maxSeenTime = now;
+                random = 0;
+                ids[index++] = getId();
+            } else if (random + 1 >= maxRandom && maxBorrow > 0) {
+                ids[index++] = generate();
+            } else if (random + 1 >= maxRandom) {
+                lastTime = nextTick(now);
+                random = 0;
+                ids[index++] = getId();
+            }
+            // 当前毫秒剩余序列一次性分配
+            while (index < size && random + 1 < maxRandom) {
+                random++;
+                ids[index++] = getId();
+            }
+        }
+        checkpoint();
+        return ids;
+    }
+
+    /**
+     * 记录已发放的时间戳
+     */
+    private void checkpoint() {
+        if (checkpoint != null) {
+            checkpoint.mark(workerId, layout.tickEndMillis(lastTime));
+        }
+    }
+
+    /**
+     * 等待时间戳到达 target，持锁挂起而不是自旋，其他线程阻塞在锁上
+     * 先挂起确定不会越过 target 的时长，再按 {@link #PARK_NANOS} 小步挂起
+     * @param target
+     * @return 当前时间戳
+     */
+    private long awaitTick(long target) {
+
+        long now = timeGen();
+        if (now >= target) {
+            return now;
+        }
+        long waitStart = System.nanoTime();
+        while (now < target) {
+            long safeMillis = (target - now - 1) * layout.getTimeUnit();
+            LockSupport.parkNanos(this, safeMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(safeMillis) : PARK_NANOS);
+            now = timeGen();
+        }
+        long waited = System.nanoTime() - waitStart;
+        metrics.sequenceWait(waited);
+        FingerMarkEvents.sequenceWait(metrics.getAppKey(), waited);
+        return now;
+    }
+
+    /**
+     * 如果发生时间回拨，重新注册机器号
+     * 如果集群规模较大，机器号进行切换后考虑删除上一个机器号 {@link WorkerIdManager#delWorkerId(Long)}
+     * @return 是否切换成功
+     */
+    private boolean changeWorkerId() {
+
+        if (!Objects.isNull(workerIdManager)) {
+            long switchStart = System.nanoTime();
+            Long changeWorkerId = workerIdManager.switchWorkerId(workerId);
+            FingerMarkEvents.workerSwitch(metrics.getAppKey(), System.nanoTime() - switchStart, workerId, changeWorkerId, false);
+            if (changeWorkerId != null) {
+                workerId = changeWorkerId;
+                lastTime = timeGen();
+                metrics.workerSwitched();
+                // TODO 考虑是否清空上个机器号
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 降级方案获取最大随机序列位数
+     * @return
+     */
+    private long getBadMaxRandom() {
+
+        return getRandom(1L << (randomShift + workerIdShift));
+    }
+
+    /**
+     * 根据最大限制获取随机序列
+     * @param bound
+     * @return
+     */
+    private long getRandom(long bound) {
+
+        return ThreadLocalRandom.current().nextLong(bound);
+    }
+
+    /**
+     * 生成当前时间戳，单位为布局的时间单位
+     * @return
+     */
+    protected long timeGen() {
+
+        return layout.tick(timeSource.currentTimeMillis());
+    }
+
+    public IdLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * 逻辑时间领先系统时间的毫秒数，用于监控借用情况
+     * @return
+     */
+    public long getLead() {
+
+        return Math.max(0, layout.toMillis(lastTime) - layout.toMillis(timeGen()));
+    }
+
+    @Override
+    public void destory() {
+        if (!Objects.isNull(workerIdManager)) {
+            long current;
+            synchronized (this) {
+                current = workerId;
+            }
+            workerIdManager.destroy(current);
+        }
+        if (checkpoint != null) {
+            checkpoint.close();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.adong.fingermark.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author ADong
+ * @Description 后台线程定时读取被包装的时间源，通过 volatile 字段发布当前毫秒
+ * 读取只有一次 volatile 读，发布值最多落后一个 tickInterval
+ * @Date 2026-10-18 10:00 AM
+ */
+public class TickerTimeSource implements TimeSource {
+
+    private final TimeSource delegate;
+
+    /** 刷新间隔，单位μs **/
+    private final long tickInterval;
+
+    private final Thread ticker;
+
+    private volatile long now;
+
+    private volatile boolean running = true;
+
+    public TickerTimeSource(TimeSource delegate, long tickInterval) {
+        if (tickInterval <= 0) {
+            throw new IllegalArgumentException("tickInterval set error!");
+        }
+        this.delegate = delegate;
+        this.tickInterval = tickInterval;
+        this.now = delegate.currentTimeMillis();
+        this.ticker = new Thread(this::tick, "time-source-ticker");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return now;
+    }
+
+    private void tick() {
+
+        long parkNanos = TimeUnit.MICROSECONDS.toNanos(tickInterval);
+        while (running) {
+            long time = delegate.currentTimeMillis();
+            // 被包装的时间源回退时保持发布值不变
+            if (time > now) {
+                now = time;
+            }
+            LockSupport.parkNanos(this, parkNanos);
+        }
+    }
+
+    public void close() {
+        running = false;
+        LockSupport.unpark(ticker);
+    }
+}
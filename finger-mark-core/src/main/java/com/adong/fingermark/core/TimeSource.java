@@ -0,0 +1,16 @@
+package com.adong.fingermark.core;
+
+/**
+ * @author ADong
+ * @Description 雪花算法使用的时间源，单位ms
+ * 测试中可以传入手动控制的实现，稳定复现序列耗尽和时间回拨
+ * @Date 2026-10-18 10:00 AM
+ */
+@FunctionalInterface
+public interface TimeSource {
+
+    /** 系统时间，每次调用读取 {@link System#currentTimeMillis()} **/
+    TimeSource SYSTEM = System::currentTimeMillis;
+
+    long currentTimeMillis();
+}
@@ -0,0 +1,319 @@
+package com.adong.fingermark.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author ADong
+ * @Description 本地时间戳检查点，通过内存映射文件记录机器号、已预留的时间戳上限和机器号租约最近一次续期成功的时间
+ * 生成器发放的时间戳达到上限时才写一次，上限 = 当前时间 + interval，正常发放时只有一次 volatile 读
+ * 重启时租约仍在有效期内可以直接沿用上次的机器号，只需等待时间越过上限，启动过程不依赖 Redis
+ * 数据中心号或位布局变化后机器号租约属于其他 key、机器号含义也不同，不沿用
+ * 写入只到操作系统页缓存，进程崩溃不丢失，操作系统崩溃可能丢失最近的写入
+ * 文件格式：long 魔数 | long 机器号 | long 时间戳上限 | long 续期时间 | long 数据中心号 | long 位布局签名 | long 校验值
+ * @Date 2026-10-18 8:00 PM
+ */
+public class TimestampCheckpoint {
+
+    private static final Logger log = LoggerFactory.getLogger(TimestampCheckpoint.class);
+
+    private static final long MAGIC = 0x46494E4745524D4BL;
+
+    private static final int FILE_SIZE = 7 * Long.BYTES;
+
+    private static final int WORKER_ID_OFFSET = Long.BYTES;
+
+    private static final int RESERVED_TIME_OFFSET = 2 * Long.BYTES;
+
+    private static final int RENEWED_TIME_OFFSET = 3 * Long.BYTES;
+
+    private static final int DATACENTER_ID_OFFSET = 4 * Long.BYTES;
+
+    private static final int LAYOUT_OFFSET = 5 * Long.BYTES;
+
+    private static final int CHECKSUM_OFFSET = 6 * Long.BYTES;
+
+    private final File file;
+
+    /** 持有文件锁，防止同一目录被多个进程共用 **/
+    private final RandomAccessFile raf;
+
+    private final FileLock lock;
+
+    private final MappedByteBuffer buffer;
+
+    /** 每次预留的时间，单位ms **/
+    private final long interval;
+
+    /** 本次运行的数据中心号 **/
+    private final long datacenterId;
+
+    /** 本次运行的位布局签名 **/
+    private final long layoutSignature;
+
+    /** 启动时读到的检查点，没有或校验失败为 -1 **/
+    private final long savedWorkerId;
+
+    private final long savedReservedTime;
+
+    /** 上次运行时机器号租约最近一次注册或续期成功的时间，单位ms，没有记录为 -1 **/
+    private final long savedRenewedTime;
+
+    private final long savedDatacenterId;
+
+    private final long savedLayoutSignature;
+
+    /** 已预留的机器号和时间戳上限，发放的时间戳不超过该值时不需要写文件；两者一起发布，避免读到不同次预留的组合 **/
+    private volatile Reservation reservation = new Reservation(-1, -1);
+
+    /** 最近一次注册或续期成功的机器号和时间，加锁访问 **/
+    private long renewedWorkerId = -1;
+
+    private long renewedTime = -1;
+
+    private TimestampCheckpoint(File file, RandomAccessFile raf, FileLock lock, MappedByteBuffer buffer, long interval,
+                                long datacenterId, IdLayout layout) {
+        this.file = file;
+        this.raf = raf;
+        this.lock = lock;
+        this.buffer = buffer;
+        this.interval = interval;
+        this.datacenterId = datacenterId;
+        this.layoutSignature = signature(layout);
+        // 旧格式的文件扩大后校验值不匹配，按没有检查点处理
+        if (buffer.getLong(0) == MAGIC && buffer.getLong(CHECKSUM_OFFSET) == checksum(buffer.getLong(WORKER_ID_OFFSET),
+                buffer.getLong(RESERVED_TIME_OFFSET), buffer.getLong(RENEWED_TIME_OFFSET),
+                buffer.getLong(DATACENTER_ID_OFFSET), buffer.getLong(LAYOUT_OFFSET))) {
+            this.savedWorkerId = buffer.getLong(WORKER_ID_OFFSET);
+            this.savedReservedTime = buffer.getLong(RESERVED_TIME_OFFSET);
+            this.savedRenewedTime = buffer.getLong(RENEWED_TIME_OFFSET);
+            this.savedDatacenterId = buffer.getLong(DATACENTER_ID_OFFSET);
+            this.savedLayoutSignature = buffer.getLong(LAYOUT_OFFSET);
+        } else {
+            this.savedWorkerId = -1;
+            this.savedReservedTime = -1;
+            this.savedRenewedTime = -1;
+            this.savedDatacenterId = -1;
+            this.savedLayoutSignature = 0;
+        }
+    }
+
+    /**
+     * 打开 appKey 对应的检查点文件，文件被其他进程占用或打开失败时返回 null
+     * @param dir 目录
+     * @param appKey
+     * @param interval 每次预留的时间，单位ms
+     * @param datacenterId 本次运行的数据中心号
+     * @param layout 本次运行的位布局
+     * @return
+     */
+    public static TimestampCheckpoint open(String dir, String appKey, long interval, long datacenterId, IdLayout layout) {
+
+        File file = new File(dir, appKey.replaceAll("[^A-Za-z0-9_.-]", "_") + ".ckpt");
+        RandomAccessFile raf = null;
+        try {
+            File parent = file.getParentFile();
+            if (parent != null && !parent.exists() && !parent.mkdirs()) {
+                throw new IOException("mkdirs error, dir=" + parent);
+            }
+            raf = new RandomAccessFile(file, "rw");
+            FileChannel channel = raf.getChannel();
+            FileLock lock;
+            try {
+                lock = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                // 同一进程内已经打开
+                lock = null;
+            }
+            if (lock == null) {
+                log.warn("checkpoint file is already in use, file={}", file);
+                raf.close();
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+            TimestampCheckpoint checkpoint = new TimestampCheckpoint(file, raf, lock, buffer, interval,
+                    datacenterId, layout);
+            log.info("checkpoint open success, file={}, workerId={}, reservedTime={}, renewedTime={}, datacenterId={}",
+                    file, checkpoint.savedWorkerId, checkpoint.savedReservedTime, checkpoint.savedRenewedTime,
+                    checkpoint.savedDatacenterId);
+            return checkpoint;
+        } catch (IOException | RuntimeException e) {
+            log.error("checkpoint open error, file={}", file, e);
+            if (raf != null) {
+                try {
+                    raf.close();
+                } catch (IOException closeException) {
+                    log.warn("checkpoint close error", closeException);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 记录已发放的时间戳，超过预留上限或机器号变化时写文件
+     * 必须在 id 返回给调用方之前调用
+     * @param workerId
+     * @param time
+     */
+    public void mark(long workerId, long time) {
+
+        if (reservation.covers(workerId, time)) {
+            return;
+        }
+        reserve(workerId, time);
+    }
+
+    private synchronized void reserve(long workerId, long time) {
+
+        Reservation current = reservation;
+        if (current.covers(workerId, time)) {
+            return;
+        }
+        long reserved = Math.max(time + interval, workerId == current.workerId ? current.time : 0);
+        write(workerId, reserved);
+        reservation = new Reservation(workerId, reserved);
+    }
+
+    /**
+     * 记录机器号租约注册或续期成功，由 {@link WorkerIdManager} 在注册成功和 {@link WorkerIdRenewer} 续期成功后调用
+     * @param workerId
+     * @param time 发起注册或续期的时间，单位ms，租约至少持续到 time + renewalTime
+     */
+    public synchronized void renewed(long workerId, long time) {
+
+        renewedWorkerId = workerId;
+        renewedTime = time;
+        Reservation current = reservation;
+        if (workerId == current.workerId) {
+            write(workerId, current.time);
+        }
+    }
+
+    private void write(long workerId, long reserved) {
+
+        // 续期记录属于其他机器号时不写入，重启后不会沿用
+        long renewed = workerId == renewedWorkerId ? renewedTime : -1;
+        // 先作废校验值，写完再恢复，进程在中途退出时启动读到的是无效检查点
+        buffer.putLong(CHECKSUM_OFFSET, 0);
+        buffer.putLong(0, MAGIC);
+        buffer.putLong(WORKER_ID_OFFSET, workerId);
+        buffer.putLong(RESERVED_TIME_OFFSET, reserved);
+        buffer.putLong(RENEWED_TIME_OFFSET, renewed);
+        buffer.putLong(DATACENTER_ID_OFFSET, datacenterId);
+        buffer.putLong(LAYOUT_OFFSET, layoutSignature);
+        buffer.putLong(CHECKSUM_OFFSET, checksum(workerId, reserved, renewed, datacenterId, layoutSignature));
+    }
+
+    /**
+     * 上次运行的机器号是否可以直接沿用
+     * 按最近一次注册或续期成功的时间判断租约是否仍然有效，与发放时间无关：
+     * 续期失败后即使还在发放，注册中心中的租约也可能已经过期被其他节点抢占
+     * 数据中心号或位布局与上次运行不同时不沿用
+     * @param leaseTime 续期成功后租约至少保持的时间，单位ms，一般为 renewalTime - renewalIntervalTime，
+     *                  留出沿用后到下一次续期之间的余量
+     * @param maxWait 最长等待时间，单位ms
+     * @return
+     */
+    public boolean isReusable(long leaseTime, long maxWait) {
+
+        if (savedWorkerId < 0 || savedRenewedTime < 0) {
+            return false;
+        }
+        if (savedDatacenterId != datacenterId || savedLayoutSignature != layoutSignature) {
+            log.info("checkpoint datacenterId or layout changed, savedDatacenterId={}, datacenterId={}",
+                    savedDatacenterId, datacenterId);
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        return now >= savedRenewedTime && now < savedRenewedTime + leaseTime && savedReservedTime - now <= maxWait;
+    }
+
+    /**
+     * 等待当前时间越过上次预留的上限，之后沿用上次的机器号不会发放重复 id
+     * @throws InterruptedException
+     */
+    public void awaitReservedTime() throws InterruptedException {
+
+        long wait = savedReservedTime - System.currentTimeMillis() + 1;
+        if (wait > 0) {
+            log.info("checkpoint wait {}ms for reserved time", wait);
+            TimeUnit.MILLISECONDS.sleep(wait);
+        }
+        while (System.currentTimeMillis() <= savedReservedTime) {
+            Thread.yield();
+        }
+    }
+
+    public long getSavedWorkerId() {
+        return savedWorkerId;
+    }
+
+    public long getSavedReservedTime() {
+        return savedReservedTime;
+    }
+
+    public long getSavedRenewedTime() {
+        return savedRenewedTime;
+    }
+
+    public long getSavedDatacenterId() {
+        return savedDatacenterId;
+    }
+
+    /**
+     * 刷盘并释放文件锁，映射在 GC 前仍然有效
+     */
+    public void close() {
+
+        try {
+            buffer.force();
+            lock.release();
+            raf.close();
+        } catch (IOException e) {
+            log.warn("checkpoint close error, file={}", file, e);
+        }
+    }
+
+    private static long checksum(long workerId, long reservedTime, long renewedTime, long datacenterId,
+                                 long layoutSignature) {
+        return MAGIC ^ workerId * 31 ^ reservedTime ^ renewedTime * 17 ^ datacenterId * 13 ^ layoutSignature * 7;
+    }
+
+    /**
+     * 位布局签名，覆盖起始时间、时间单位和各部分位数
+     * @param layout
+     * @return
+     */
+    private static long signature(IdLayout layout) {
+        return layout.format().hashCode();
+    }
+
+    /**
+     * 一次预留的机器号和时间戳上限，不可变
+     */
+    private static final class Reservation {
+
+        private final long workerId;
+
+        private final long time;
+
+        private Reservation(long workerId, long time) {
+            this.workerId = workerId;
+            this.time = time;
+        }
+
+        private boolean covers(long workerId, long time) {
+            return time < this.time && workerId == this.workerId;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.adong.fingermark.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author ADong
+ * @Description 无锁令牌桶，按 GCRA（通用信元速率算法）实现
+ * 只维护一个理论到达时间 tat，每个令牌把 tat 推后 1 / rate 秒，tat 领先当前时间超过 burst 个令牌的时长则拒绝
+ * 获取令牌只有一次 CAS，不需要后台线程补充令牌
+ * 超过 burst 的请求在桶满时放行并透支，tat 按实际令牌数推后，之后的请求等透支还清才放行，长期速率不变
+ * @Date 2026-10-18 2:00 PM
+ */
+public class TokenBucket {
+
+    /** 每个令牌的间隔，单位ns **/
+    private final long interval;
+
+    /** tat 最多领先当前时间的时长，单位ns **/
+    private final long tolerance;
+
+    /** 理论到达时间，单位ns **/
+    private final AtomicLong tat;
+
+    /**
+     * @param rate 每秒令牌数
+     * @param burst 突发令牌数，不小于 1
+     */
+    public TokenBucket(long rate, long burst) {
+        if (rate <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("token bucket rate or burst set error!");
+        }
+        this.interval = Math.max(1, TimeUnit.SECONDS.toNanos(1) / rate);
+        this.tolerance = interval * burst;
+        this.tat = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * 获取令牌，不足时立即返回 false，不消耗令牌
+     * @param permits 令牌数，超过 burst 时桶满才能获取
+     * @return
+     */
+    public boolean tryAcquire(long permits) {
+
+        long now = System.nanoTime();
+        long cost = interval * permits;
+        // 准入只按不超过 tolerance 的部分判断，否则超过 burst 的请求永远被拒绝
+        long required = Math.min(cost, tolerance);
+        for (;;) {
+            long current = tat.get();
+            long backlog = Math.max(current - now, 0);
+            if (backlog + required > tolerance) {
+                return false;
+            }
+            long next = now + backlog + cost;
+            if (tat.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 当前可用令牌数
+     * @return
+     */
+    public long available() {
+
+        long now = System.nanoTime();
+        return Math.max(0, (tolerance - Math.max(tat.get() - now, 0)) / interval);
+    }
+}
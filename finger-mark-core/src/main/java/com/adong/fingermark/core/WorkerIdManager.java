@@ -0,0 +1,487 @@
+package com.adong.fingermark.core;
+
+
+import com.adong.fingermark.jfr.FingerMarkEvents;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author ADong
+ * @Description WorkerId 管理，{@link SnowFlakeId#workerId}
+ * 机器号的抢占、续期和释放委托给 {@link WorkerIdRegistry}，默认 {@link RedisWorkerIdRegistry}
+ * 指定数据中心号时按数据中心划分租约，不同数据中心在同一个注册中心中抢占到相同机器号也不会冲突
+ * @Date 2022-08-15 11:45 AM
+ */
+public class WorkerIdManager {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkerIdManager.class);
+
+    /** 随机策略尝试次数 **/
+    private static final int RANDOM_TIMES = 10;
+
+    /** 批量探测单次最多探测的机器号数量，避免长时间阻塞注册中心 **/
+    private static final long SCRIPT_PROBE_BATCH = 1024;
+
+    private final WorkerIdRegistry registry;
+
+    /** 区分业务 **/
+    private final String appKey;
+
+    /** workerId 阈值 **/
+    private final long maxWorkerId;
+
+    /** 是否开启顺序策略 **/
+    private final boolean openSequenceSetWorkerId;
+
+    /** 续期时间, 单位s **/
+    private final long renewalTime;
+
+    /** 续期调度器，多个 appKey 共用 **/
+    private final WorkerIdRenewer renewer;
+
+    /** 是否独占续期调度器，独占时销毁本对象一并关闭 **/
+    private final boolean ownRenewer;
+
+    /** 引用计数，多个生成器共用一个机器号租约时全部销毁后才停止续期 **/
+    private final AtomicInteger refCount = new AtomicInteger(1);
+
+    /** 共用租约时切换机器号前持有的机器号，仍有生成器在使用，继续续期 **/
+    private final Set<Long> retainedWorkerIds = new CopyOnWriteArraySet<>();
+
+    /** 共用租约时每个机器号上的生成器数量，只统计通过 {@link #retain()} 加入的使用者，加锁访问 **/
+    private final Map<Long, Integer> users = new HashMap<>();
+
+    /** 注册、续期耗时指标 **/
+    private final IdGenMetrics metrics;
+
+    /** 是否批量探测注册，Redis 下为 Lua 脚本，一次往返探测一批机器号 **/
+    private final boolean scriptRegister;
+
+    /** 数据中心号，-1 表示不划分数据中心 **/
+    private final long datacenterId;
+
+    /** 注册中心中的租约 key **/
+    private final String leaseKey;
+
+    /** 机器号 **/
+    private volatile Long workerId;
+
+    /** 本地检查点，注册、续期成功后记录时间，重启时据此判断租约是否还能沿用 **/
+    private volatile TimestampCheckpoint checkpoint;
+
+    public WorkerIdManager(RedisTemplate redisTemplate,
+                           boolean openSequenceSetWorkerId,
+                           String appKey,
+                           long maxWorkerId,
+                           long renewalTime,
+                           long renewalIntervalTime) {
+        this(redisTemplate, openSequenceSetWorkerId, appKey, maxWorkerId,
+                renewalTime, renewalIntervalTime, new IdGenMetrics(appKey));
+    }
+
+    public WorkerIdManager(RedisTemplate redisTemplate,
+                           boolean openSequenceSetWorkerId,
+                           String appKey,
+                           long maxWorkerId,
+                           long renewalTime,
+                           long renewalIntervalTime,
+                           IdGenMetrics metrics) {
+        this(redisTemplate, openSequenceSetWorkerId, appKey, maxWorkerId,
+                renewalTime, renewalIntervalTime, metrics, true);
+    }
+
+    public WorkerIdManager(RedisTemplate redisTemplate,
+                           boolean openSequenceSetWorkerId,
+                           String appKey,
+                           long maxWorkerId,
+                           long renewalTime,
+                           long renewalIntervalTime,
+                           IdGenMetrics metrics,
+                           boolean scriptRegister) {
+        this(new RedisWorkerIdRegistry(redisTemplate), openSequenceSetWorkerId, appKey, -1, maxWorkerId, renewalTime,
+                metrics, scriptRegister, new WorkerIdRenewer(renewalTime, renewalIntervalTime), true);
+    }
+
+    /**
+     * 使用共用的续期调度器
+     */
+    public WorkerIdManager(RedisTemplate redisTemplate,
+                           boolean openSequenceSetWorkerId,
+                           String appKey,
+                           long maxWorkerId,
+                           long renewalTime,
+                           IdGenMetrics metrics,
+                           boolean scriptRegister,
+                           WorkerIdRenewer renewer) {
+        this(new RedisWorkerIdRegistry(redisTemplate), openSequenceSetWorkerId, appKey, -1, maxWorkerId, renewalTime,
+                metrics, scriptRegister, renewer, false);
+    }
+
+    /**
+     * 使用指定的注册中心和共用的续期调度器
+     */
+    public WorkerIdManager(WorkerIdRegistry registry,
+                           boolean openSequenceSetWorkerId,
+                           String appKey,
+                           long maxWorkerId,
+                           long renewalTime,
+                           IdGenMetrics metrics,
+                           boolean scriptRegister,
+                           WorkerIdRenewer renewer) {
+        this(registry, openSequenceSetWorkerId, appKey, -1, maxWorkerId, renewalTime, metrics, scriptRegister,
+                renewer, false);
+    }
+
+    /**
+     * 在数据中心内注册机器号，机器号范围 [0, maxWorkerId) 由各数据中心独立使用
+     * @param datacenterId 数据中心号，-1 表示不划分数据中心
+     */
+    public WorkerIdManager(WorkerIdRegistry registry,
+                           boolean openSequenceSetWorkerId,
+                           String appKey,
+                           long datacenterId,
+                           long maxWorkerId,
+                           long renewalTime,
+                           IdGenMetrics metrics,
+                           boolean scriptRegister,
+                           WorkerIdRenewer renewer) {
+        this(registry, openSequenceSetWorkerId, appKey, datacenterId, maxWorkerId, renewalTime, metrics,
+                scriptRegister, renewer, false);
+    }
+
+    private WorkerIdManager(WorkerIdRegistry registry,
+                            boolean openSequenceSetWorkerId,
+                            String appKey,
+                            long datacenterId,
+                            long maxWorkerId,
+                            long renewalTime,
+                            IdGenMetrics metrics,
+                            boolean scriptRegister,
+                            WorkerIdRenewer renewer,
+                            boolean ownRenewer) {
+        this.metrics = metrics;
+        this.scriptRegister = scriptRegister;
+        this.registry = registry;
+        this.openSequenceSetWorkerId = openSequenceSetWorkerId;
+        this.appKey = appKey;
+        this.datacenterId = datacenterId;
+        this.leaseKey = leaseKey(appKey, datacenterId);
+        this.maxWorkerId = maxWorkerId;
+        this.renewalTime = renewalTime;
+        this.renewer = renewer;
+        this.ownRenewer = ownRenewer;
+        // 续期任务
+        renewer.register(this);
+    }
+
+    /**
+     * 沿用本地检查点中上次运行的机器号，不访问注册中心，由续期任务继续维持租约
+     * 调用方需保证该机器号在注册中心的租约尚未过期 {@link TimestampCheckpoint#isReusable(long, long)}
+     * @param workerId
+     */
+    public synchronized void adopt(long workerId) {
+
+        this.workerId = workerId;
+        log.info("WorkerId={} adopt from checkpoint", workerId);
+    }
+
+    /**
+     * 增加一个使用当前机器号的生成器，与 {@link #destroy(long)} 成对调用
+     * @return
+     */
+    public synchronized WorkerIdManager retain() {
+
+        refCount.incrementAndGet();
+        if (workerId != null) {
+            users.merge(workerId, 1, Integer::sum);
+        }
+        return this;
+    }
+
+    /**
+     * 生成器时间回拨后切换机器号
+     * 共用租约时其他生成器可能已经切换过，直接沿用当前机器号；
+     * 旧机器号上还有其他生成器时继续续期，最后一个生成器切走后停止续期，租约到期后释放；
+     * 重新注册失败时保留旧机器号
+     * @param current 生成器当前使用的机器号
+     * @return 新机器号，失败返回 null
+     */
+    public synchronized Long switchWorkerId(long current) {
+
+        Long held = workerId;
+        if (held != null && held != current) {
+            move(current, held);
+            return held;
+        }
+        boolean shared = held != null && users.getOrDefault(held, 0) > 1;
+        if (shared) {
+            retainedWorkerIds.add(held);
+        }
+        Long switched = registerAndGetWorkerId();
+        if (switched == null) {
+            workerId = held;
+            if (shared) {
+                retainedWorkerIds.remove(held);
+            }
+            return null;
+        }
+        move(current, switched);
+        return switched;
+    }
+
+    /**
+     * 生成器从 from 切换到 to，from 上没有生成器后停止续期
+     * @param from
+     * @param to 为 null 表示生成器销毁
+     */
+    private void move(long from, Long to) {
+
+        Integer count = users.get(from);
+        if (count == null) {
+            // 独占租约的生成器不统计
+            return;
+        }
+        if (count > 1) {
+            users.put(from, count - 1);
+        } else {
+            users.remove(from);
+            if (retainedWorkerIds.remove(from)) {
+                log.info("appKey={} WorkerId={} no longer used, stop renewal", appKey, from);
+            }
+        }
+        if (to != null) {
+            users.merge(to, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * 获取 workerId
+     * 优先从随机位置批量顺序探测，批量探测失败时退回逐个抢占：
+     * 先采用随机策略，失败再采用顺序策略，上游给出降级方案
+     * @return
+     */
+    public synchronized Long registerAndGetWorkerId() {
+
+        long start = System.nanoTime();
+        long leaseStart = System.currentTimeMillis();
+        workerId = null;
+        if (!scriptRegister || !scriptSetWorkerId()) {
+            randomSetWorkerId();
+            if (openSequenceSetWorkerId && workerId == null) {
+                sequenceSetWorkerId();
+            }
+        }
+        long cost = System.nanoTime() - start;
+        metrics.workerRegistered(cost);
+        FingerMarkEvents.workerRegister(appKey, cost, workerId, registry.getClass().getSimpleName());
+        if (workerId != null) {
+            leaseRenewed(leaseStart);
+        }
+        return workerId;
+    }
+
+    /**
+     * 当前机器号注册或续期成功
+     * @param time 发起注册或续期的时间，单位ms
+     */
+    void leaseRenewed(long time) {
+
+        TimestampCheckpoint current = checkpoint;
+        Long held = workerId;
+        if (current != null && held != null) {
+            current.renewed(held, time);
+        }
+    }
+
+    /**
+     * 独占租约时设置本地检查点，注册、续期成功的时间写入检查点
+     * @param checkpoint
+     */
+    public void setCheckpoint(TimestampCheckpoint checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * 批量探测策略
+     * 从随机位置开始，每次在注册中心内顺序探测 SCRIPT_PROBE_BATCH 个机器号
+     * 未开启顺序策略时只探测 RANDOM_TIMES 个，与随机策略的尝试次数一致
+     * @return 探测是否执行成功，未抢到机器号也算成功
+     */
+    private boolean scriptSetWorkerId() {
+
+        long limit = openSequenceSetWorkerId ? maxWorkerId : Math.min(RANDOM_TIMES, maxWorkerId);
+        long offset = ThreadLocalRandom.current().nextLong(0, maxWorkerId);
+        try {
+            for (long probed = 0; probed < limit; probed += SCRIPT_PROBE_BATCH) {
+                long size = Math.min(SCRIPT_PROBE_BATCH, limit - probed);
+                long result = registry.acquire(leaseKey, (offset + probed) % maxWorkerId, maxWorkerId, size, renewalTime);
+                if (result >= 0) {
+                    workerId = result;
+                    log.info("WorkerId={} register success", workerId);
+                    return true;
+                }
+            }
+            log.error("无可用 workerId！！！");
+            return true;
+        } catch (Exception e) {
+            log.error("WorkerId script register error, fallback to setIfAbsent", e);
+            return false;
+        }
+    }
+
+    /**
+     * 随机策略
+     * 取 0～1023 随机数
+     * 终止条件：workerId 分配完成 或 或自旋次数大于 10
+     */
+    private void randomSetWorkerId() {
+
+        int times = 0;
+        while (workerId == null && times ++ < RANDOM_TIMES) {
+            long random = ThreadLocalRandom.current().nextLong(0, maxWorkerId);
+            workerId = register(random);
+        }
+    }
+
+    /**
+     * 顺序策略
+     * 从0开始分配，失败后自增1
+     * 终止条件：workerId 分配完成 或 workerId 分配完
+     */
+    private void sequenceSetWorkerId() {
+
+        long preWorkId = 0;
+        while (workerId == null) {
+            workerId = register(preWorkId);
+            // 如果机器号分配10位，workerId 分配范围 [0,1024)
+            if (++ preWorkId >= maxWorkerId) {
+                log.error("无可用 workerId！！！");
+                return;
+            }
+        }
+    }
+
+    /**
+     * 到注册中心注册 workId
+     * @return 如果失败返回 null，成功直接将 workerId 返回
+     */
+    private Long register(long workerId) {
+
+        try {
+            if (registry.acquire(leaseKey, workerId, maxWorkerId, 1, renewalTime) >= 0) {
+                log.info("WorkerId={} register success", workerId);
+                return workerId;
+            }
+        } catch (Exception e) {
+            log.error("WorkerId register error", e);
+        }
+        return null;
+    }
+
+    /**
+     * 需要续期的机器号：当前机器号和仍有生成器在使用的旧机器号
+     * @return
+     */
+    public List<Long> getLeaseWorkerIds() {
+
+        Long current = workerId;
+        if (current == null && retainedWorkerIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> workerIds = new ArrayList<>(retainedWorkerIds.size() + 1);
+        if (current != null) {
+            workerIds.add(current);
+        }
+        for (Long retained : retainedWorkerIds) {
+            if (!retained.equals(current)) {
+                workerIds.add(retained);
+            }
+        }
+        return workerIds;
+    }
+
+    IdGenMetrics getMetrics() {
+        return metrics;
+    }
+
+    WorkerIdRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * 删除机器号
+     * 一般发生时间回拨且集群规模较大的情况下，机器号进行切换后考虑删除上一个机器号
+     * @param workerId
+     */
+    public void delWorkerId(Long workerId) {
+
+        registry.release(leaseKey, workerId);
+    }
+
+    /**
+     * 生成器销毁，所用的旧机器号上没有其他生成器时停止续期
+     * @param workerId 生成器当前使用的机器号
+     */
+    public void destroy(long workerId) {
+
+        synchronized (this) {
+            move(workerId, null);
+        }
+        destroy();
+    }
+
+    /**
+     * 停止续期，共用时最后一个使用者销毁才生效
+     */
+    public void destroy() {
+
+        if (refCount.decrementAndGet() > 0) {
+            return;
+        }
+        renewer.unregister(this);
+        if (ownRenewer) {
+            renewer.destroy();
+        }
+        log.info("appKey={} 机器号停止续期", appKey);
+        // 这里不删除上报机器号防止重启时时间回退造成唯一id发放重复
+        // 但是需要保证重启时间小于 renewalTime - renewalIntervalTime
+        // 如果后期项目重启时间过长可以适当调大有效期
+    }
+
+    /**
+     * 注册中心中的租约 key，划分数据中心时为 appKey@dc{datacenterId}
+     * @param appKey
+     * @param datacenterId 数据中心号，-1 表示不划分数据中心
+     * @return
+     */
+    public static String leaseKey(String appKey, long datacenterId) {
+        return datacenterId < 0 ? appKey : appKey + "@dc" + datacenterId;
+    }
+
+    public String getAppKey() {
+        return appKey;
+    }
+
+    public long getDatacenterId() {
+        return datacenterId;
+    }
+
+    public String getLeaseKey() {
+        return leaseKey;
+    }
+
+    public Long getWorkerId() {
+        return workerId;
+    }
+}
@@ -0,0 +1,71 @@
+package com.adong.fingermark.core;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author ADong
+ * @Description 机器号注册中心，负责机器号租约的抢占、续期和释放，注册策略（随机、顺序、批量探测）由 {@link WorkerIdManager} 决定
+ * {@link RedisWorkerIdRegistry} 在整个集群内协调；{@link LocalWorkerIdRegistry} 在同一台主机的多个 JVM 间协调，不依赖 Redis
+ * @Date 2026-10-18 10:00 AM
+ */
+public interface WorkerIdRegistry {
+
+    /**
+     * 从 start 开始顺序探测 size 个机器号（对 maxWorkerId 取模），抢占第一个空闲的
+     * @param appKey
+     * @param start
+     * @param maxWorkerId
+     * @param size
+     * @param leaseTime 有效期，单位s
+     * @return 抢到的机器号，没有空闲返回 -1；注册中心不可用时抛出异常
+     */
+    long acquire(String appKey, long start, long maxWorkerId, long size, long leaseTime);
+
+    /**
+     * 续期，租约已经过期被清理的重新占用
+     * @param leases appKey -> 机器号
+     * @param leaseTime 有效期，单位s
+     */
+    void renew(Map<String, List<Long>> leases, long leaseTime);
+
+    /**
+     * 释放机器号
+     * @param appKey
+     * @param workerId
+     */
+    void release(String appKey, long workerId);
+
+    /**
+     * 统计 appKey 当前存活的机器号数量，用于自动选择位布局
+     * @param appKey
+     * @return
+     */
+    long countLive(String appKey);
+
+    /**
+     * 读取已发布的位布局，与机器号一起保存，保证使用同一注册中心的节点布局一致
+     * @param appKey
+     * @return {@link IdLayout#format()}，未发布或注册中心不保存布局时返回 null
+     */
+    default String getLayout(String appKey) {
+        return null;
+    }
+
+    /**
+     * 发布位布局
+     * @param appKey
+     * @param layout {@link IdLayout#format()}
+     * @param overwrite false 时只在未发布时写入
+     * @return 是否写入，注册中心不保存布局时返回 false
+     */
+    default boolean putLayout(String appKey, String layout, boolean overwrite) {
+        return false;
+    }
+
+    /**
+     * 释放注册中心持有的资源，不释放已注册的机器号
+     */
+    default void close() {
+    }
+}
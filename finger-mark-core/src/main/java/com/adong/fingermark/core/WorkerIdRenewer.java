@@ -0,0 +1,134 @@
+package com.adong.fingermark.core;
+
+import com.adong.fingermark.jfr.FingerMarkEvents;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author ADong
+ * @Description 机器号续期调度器，多个 {@link WorkerIdManager} 共用一个线程
+ * 每次续期按 {@link WorkerIdRegistry} 分组，每个注册中心一次批量续期，Redis 下所有 key 放在一个 pipeline 中，只有一次往返
+ * @Date 2026-10-18 5:30 PM
+ */
+public class WorkerIdRenewer {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkerIdRenewer.class);
+
+    /** 首次续期延迟，单位s **/
+    private static final long INITIAL_DELAY = 3L;
+
+    /** 续期时间, 单位s **/
+    private final long renewalTime;
+
+    /** 续期任务间隔, 单位s **/
+    private final long renewalIntervalTime;
+
+    private final Set<WorkerIdManager> managers = ConcurrentHashMap.newKeySet();
+
+    /** 续期任务线程池 **/
+    private final ScheduledExecutorService service;
+
+    private final Thread shutdownHook;
+
+    public WorkerIdRenewer(long renewalTime, long renewalIntervalTime) {
+        this.renewalTime = renewalTime;
+        this.renewalIntervalTime = renewalIntervalTime;
+        this.service = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("worker-renewal-%d").setDaemon(true).build());
+        // 钩子函数优雅关闭线程池
+        this.shutdownHook = new Thread(this::shutdown);
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        service.scheduleWithFixedDelay(this::renew, INITIAL_DELAY, renewalIntervalTime, TimeUnit.SECONDS);
+    }
+
+    public void register(WorkerIdManager manager) {
+        managers.add(manager);
+    }
+
+    public void unregister(WorkerIdManager manager) {
+        managers.remove(manager);
+    }
+
+    /**
+     * 续期所有机器号，异常只记录日志，不影响下次调度
+     */
+    private void renew() {
+
+        Map<WorkerIdRegistry, List<WorkerIdManager>> groups = new IdentityHashMap<>();
+        for (WorkerIdManager manager : managers) {
+            groups.computeIfAbsent(manager.getRegistry(), registry -> new ArrayList<>()).add(manager);
+        }
+        for (Map.Entry<WorkerIdRegistry, List<WorkerIdManager>> group : groups.entrySet()) {
+            renew(group.getKey(), group.getValue());
+        }
+    }
+
+    private void renew(WorkerIdRegistry registry, List<WorkerIdManager> snapshot) {
+
+        Map<String, List<Long>> leases = new HashMap<>(snapshot.size() * 2);
+        int count = 0;
+        long start = System.nanoTime();
+        try {
+            for (WorkerIdManager manager : snapshot) {
+                List<Long> workerIds = manager.getLeaseWorkerIds();
+                if (!workerIds.isEmpty()) {
+                    leases.computeIfAbsent(manager.getLeaseKey(), leaseKey -> new ArrayList<>()).addAll(workerIds);
+                    count += workerIds.size();
+                }
+            }
+            if (count == 0) {
+                return;
+            }
+            start = System.nanoTime();
+            long renewStart = System.currentTimeMillis();
+            registry.renew(leases, renewalTime);
+            long cost = System.nanoTime() - start;
+            for (WorkerIdManager manager : snapshot) {
+                manager.getMetrics().workerRenewed(cost);
+                manager.leaseRenewed(renewStart);
+            }
+            FingerMarkEvents.workerRenew(String.join(",", leases.keySet()), cost,
+                    registry.getClass().getSimpleName(), count, true);
+            log.info("workerId 续期成功, keys={}, cost={}μs", count, TimeUnit.NANOSECONDS.toMicros(cost));
+        } catch (Exception e) {
+            FingerMarkEvents.workerRenew(String.join(",", leases.keySet()), System.nanoTime() - start,
+                    registry.getClass().getSimpleName(), count, false);
+            log.error("workerId 续期失败", e);
+        }
+    }
+
+    private void shutdown() {
+
+        service.shutdown();
+        log.info("续期线程池关闭");
+    }
+
+    /**
+     * 关闭调度器
+     */
+    public void destroy() {
+
+        shutdown();
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // 已经在关闭过程中
+        }
+    }
+
+    public int getManagerCount() {
+        return managers.size();
+    }
+}
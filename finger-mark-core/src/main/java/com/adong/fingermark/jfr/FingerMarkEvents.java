@@ -0,0 +1,135 @@
+package com.adong.fingermark.jfr;
+
+/**
+ * @author ADong
+ * @Description 生成器停顿点的 JFR 事件入口，只在等待、切换机器号、注册、续期这些慢路径上调用
+ * 没有开启记录时只有一次 isEnabled 判断；运行环境不支持 JFR（JDK 8u262 之前）时直接忽略，不加载事件类
+ * 生成器锁竞争使用 JDK 自带的 jdk.JavaMonitorEnter 事件，monitorClass 为对应的生成器类 {@link StallProfiler}
+ * @Date 2026-10-18 10:30 AM
+ */
+public final class FingerMarkEvents {
+
+    /** 运行环境是否支持 JFR **/
+    static final boolean AVAILABLE = detect();
+
+    private FingerMarkEvents() {
+    }
+
+    private static boolean detect() {
+
+        try {
+            Class.forName("jdk.jfr.Event", false, FingerMarkEvents.class.getClassLoader());
+            return true;
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    /**
+     * 序列耗尽后挂起等待下一个时间戳
+     * @param appKey
+     * @param nanos 停顿时长
+     */
+    public static void sequenceWait(String appKey, long nanos) {
+
+        if (!AVAILABLE) {
+            return;
+        }
+        SequenceWaitEvent event = new SequenceWaitEvent();
+        if (event.isEnabled()) {
+            event.appKey = appKey;
+            event.stallTime = nanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * 时间回拨等待
+     * @param appKey
+     * @param nanos 停顿时长
+     * @param rollbackMillis 回拨时长
+     */
+    public static void rollbackWait(String appKey, long nanos, long rollbackMillis) {
+
+        if (!AVAILABLE) {
+            return;
+        }
+        RollbackWaitEvent event = new RollbackWaitEvent();
+        if (event.isEnabled()) {
+            event.appKey = appKey;
+            event.stallTime = nanos;
+            event.rollback = rollbackMillis;
+            event.commit();
+        }
+    }
+
+    /**
+     * 切换机器号
+     * @param appKey
+     * @param nanos 耗时
+     * @param oldWorkerId
+     * @param newWorkerId 失败为 null
+     * @param async 是否异步切换，异步切换不阻塞发放线程
+     */
+    public static void workerSwitch(String appKey, long nanos, long oldWorkerId, Long newWorkerId, boolean async) {
+
+        if (!AVAILABLE) {
+            return;
+        }
+        WorkerSwitchEvent event = new WorkerSwitchEvent();
+        if (event.isEnabled()) {
+            event.appKey = appKey;
+            event.stallTime = nanos;
+            event.oldWorkerId = oldWorkerId;
+            event.newWorkerId = newWorkerId == null ? -1 : newWorkerId;
+            event.async = async;
+            event.commit();
+        }
+    }
+
+    /**
+     * 注册机器号
+     * @param appKey
+     * @param nanos 耗时
+     * @param workerId 失败为 null
+     * @param registry 注册中心类名
+     */
+    public static void workerRegister(String appKey, long nanos, Long workerId, String registry) {
+
+        if (!AVAILABLE) {
+            return;
+        }
+        WorkerRegisterEvent event = new WorkerRegisterEvent();
+        if (event.isEnabled()) {
+            event.appKey = appKey;
+            event.stallTime = nanos;
+            event.workerId = workerId == null ? -1 : workerId;
+            event.registry = registry;
+            event.commit();
+        }
+    }
+
+    /**
+     * 批量续期
+     * @param appKeys 参与续期的 appKey，逗号分隔
+     * @param nanos 耗时
+     * @param registry 注册中心类名
+     * @param leases 续期的机器号数量
+     * @param success
+     */
+    public static void workerRenew(String appKeys, long nanos, String registry, int leases, boolean success) {
+
+        if (!AVAILABLE) {
+            return;
+        }
+        WorkerRenewEvent event = new WorkerRenewEvent();
+        if (event.isEnabled()) {
+            event.appKey = appKeys;
+            event.stallTime = nanos;
+            event.registry = registry;
+            event.leases = leases;
+            event.success = success;
+            event.commit();
+        }
+    }
+}
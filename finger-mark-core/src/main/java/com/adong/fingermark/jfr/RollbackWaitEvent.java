@@ -0,0 +1,23 @@
+package com.adong.fingermark.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * @author ADong
+ * @Description 时间回拨不超过等待阈值时等待时间追上
+ * @Date 2026-10-18 10:00 AM
+ */
+@Name(RollbackWaitEvent.NAME)
+@Label("Rollback Wait")
+@Description("Generator waited for the clock to catch up after a small rollback")
+class RollbackWaitEvent extends StallEvent {
+
+    static final String NAME = "com.adong.fingermark.RollbackWait";
+
+    @Label("Rollback")
+    @Timespan(Timespan.MILLISECONDS)
+    long rollback;
+}
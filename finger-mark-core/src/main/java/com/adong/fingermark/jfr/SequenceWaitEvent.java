@@ -0,0 +1,18 @@
+package com.adong.fingermark.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * @author ADong
+ * @Description 序列耗尽后挂起等待下一个时间戳
+ * @Date 2026-10-18 10:00 AM
+ */
+@Name(SequenceWaitEvent.NAME)
+@Label("Sequence Wait")
+@Description("Generator parked until the next tick after the sequence was exhausted")
+class SequenceWaitEvent extends StallEvent {
+
+    static final String NAME = "com.adong.fingermark.SequenceWait";
+}
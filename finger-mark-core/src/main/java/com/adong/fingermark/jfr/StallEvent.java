@@ -0,0 +1,24 @@
+package com.adong.fingermark.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * @author ADong
+ * @Description 生成器停顿 JFR 事件基类，事件在停顿结束后提交，停顿时长记录在 stallTime 字段
+ * 提交线程即停顿的线程，栈信息指向停顿位置
+ * @Date 2026-10-18 10:00 AM
+ */
+@Category({"FingerMark", "Stall"})
+@StackTrace(true)
+abstract class StallEvent extends jdk.jfr.Event {
+
+    @Label("App Key")
+    String appKey;
+
+    @Label("Stall Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long stallTime;
+}
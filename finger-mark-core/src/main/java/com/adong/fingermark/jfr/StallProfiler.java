@@ -0,0 +1,160 @@
+package com.adong.fingermark.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author ADong
+ * @Description 限时 JFR 停顿记录，线上排查发放延迟抖动时使用，同一时间只允许一个记录
+ * 记录内容：生成器自定义停顿事件（序列等待、回拨等待、切换机器号、注册、续期）+ jdk.JavaMonitorEnter 锁竞争事件
+ * 自定义事件停顿结束后才提交，事件本身没有持续时间，阈值按 stallTime 在汇总时过滤；锁竞争事件按 JFR 阈值过滤
+ * 只汇总锁对象为本项目类的锁竞争，其他锁竞争保留在原始记录文件中
+ * @Date 2026-10-18 11:00 AM
+ */
+public class StallProfiler {
+
+    private static final Logger log = LoggerFactory.getLogger(StallProfiler.class);
+
+    /** 单次记录最长时间，单位s **/
+    public static final long MAX_SECONDS = 60;
+
+    private static final String MONITOR_ENTER = "jdk.JavaMonitorEnter";
+
+    private static final String PACKAGE = "com.adong.fingermark.";
+
+    private static final String[] STALL_EVENTS = {
+            SequenceWaitEvent.NAME,
+            RollbackWaitEvent.NAME,
+            WorkerSwitchEvent.NAME,
+            WorkerRegisterEvent.NAME,
+            WorkerRenewEvent.NAME
+    };
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public static boolean isAvailable() {
+        return FingerMarkEvents.AVAILABLE;
+    }
+
+    /**
+     * 记录一段时间并写入临时文件，调用方负责删除
+     * @param seconds 记录时长，单位s
+     * @param thresholdMillis 锁竞争阈值，单位ms
+     * @return jfr 文件
+     */
+    public Path record(long seconds, long thresholdMillis) {
+
+        if (!isAvailable()) {
+            throw new UnsupportedOperationException("JFR is not available in this JVM");
+        }
+        if (seconds <= 0 || seconds > MAX_SECONDS || thresholdMillis < 0) {
+            throw new IllegalArgumentException("seconds must be in (0, " + MAX_SECONDS + "], threshold must be >= 0");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("another stall recording is running");
+        }
+        Path file = null;
+        Recording recording = new Recording();
+        try {
+            file = Files.createTempFile("fingermark-stall-", ".jfr");
+            recording.setName("fingermark-stall");
+            recording.setToDisk(true);
+            recording.setDestination(file);
+            for (String name : STALL_EVENTS) {
+                recording.enable(name).withStackTrace().withThreshold(Duration.ZERO);
+            }
+            recording.enable(MONITOR_ENTER).withStackTrace().withThreshold(Duration.ofMillis(thresholdMillis));
+            recording.start();
+            log.info("stall recording start, seconds={}, threshold={}ms", seconds, thresholdMillis);
+            TimeUnit.SECONDS.sleep(seconds);
+            recording.stop();
+            return file;
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new UncheckedIOException("stall recording error", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            deleteQuietly(file);
+            throw new IllegalStateException("stall recording interrupted", e);
+        } finally {
+            recording.close();
+            running.set(false);
+        }
+    }
+
+    /**
+     * 记录一段时间并按停顿原因汇总，按总停顿时长倒序
+     * @param seconds 记录时长，单位s
+     * @param thresholdMillis 停顿阈值，单位ms，低于阈值的停顿不计入
+     * @param top 返回条数
+     * @return
+     */
+    public List<StallSummary> summarize(long seconds, long thresholdMillis, int top) {
+
+        Path file = record(seconds, thresholdMillis);
+        try {
+            return summarize(RecordingFile.readAllEvents(file), thresholdMillis, top);
+        } catch (IOException e) {
+            throw new UncheckedIOException("read stall recording error", e);
+        } finally {
+            deleteQuietly(file);
+        }
+    }
+
+    static List<StallSummary> summarize(List<RecordedEvent> events, long thresholdMillis, int top) {
+
+        long thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        Map<String, StallSummary> summaries = new HashMap<>();
+        for (RecordedEvent event : events) {
+            String cause = event.getEventType().getName();
+            String key;
+            long nanos;
+            if (MONITOR_ENTER.equals(cause)) {
+                RecordedClass monitorClass = event.getClass("monitorClass");
+                if (monitorClass == null || !monitorClass.getName().startsWith(PACKAGE)) {
+                    continue;
+                }
+                key = monitorClass.getName();
+                nanos = event.getDuration().toNanos();
+            } else {
+                key = event.getString("appKey");
+                nanos = event.getLong("stallTime");
+            }
+            if (nanos < thresholdNanos) {
+                continue;
+            }
+            summaries.computeIfAbsent(cause + '\n' + key, k -> new StallSummary(cause, key)).add(nanos);
+        }
+        List<StallSummary> result = new ArrayList<>(summaries.values());
+        result.sort((a, b) -> Long.compare(b.getTotalNanos(), a.getTotalNanos()));
+        return result.size() > top ? new ArrayList<>(result.subList(0, Math.max(top, 0))) : result;
+    }
+
+    private static void deleteQuietly(Path file) {
+
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("delete stall recording error, file={}", file, e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.adong.fingermark.jfr;
+
+/**
+ * @author ADong
+ * @Description 一段记录内按停顿原因和 appKey（锁竞争为锁对象类名）汇总的停顿统计
+ * @Date 2026-10-18 11:00 AM
+ */
+public class StallSummary {
+
+    /** 停顿原因，即事件名 **/
+    private final String cause;
+
+    /** appKey，锁竞争为锁对象类名 **/
+    private final String key;
+
+    private long count;
+
+    private long totalNanos;
+
+    private long maxNanos;
+
+    StallSummary(String cause, String key) {
+        this.cause = cause;
+        this.key = key;
+    }
+
+    void add(long nanos) {
+        count++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    public String getCause() {
+        return cause;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getTotalMillis() {
+        return totalNanos / 1e6;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos / 1e6;
+    }
+
+    public double getAvgMillis() {
+        return count == 0 ? 0 : totalNanos / 1e6 / count;
+    }
+
+    long getTotalNanos() {
+        return totalNanos;
+    }
+
+    @Override
+    public String toString() {
+        return cause + "[" + key + "] count=" + count + ", total=" + getTotalMillis() + "ms, max=" + getMaxMillis() + "ms";
+    }
+}
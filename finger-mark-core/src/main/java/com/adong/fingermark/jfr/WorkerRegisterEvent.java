@@ -0,0 +1,25 @@
+package com.adong.fingermark.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * @author ADong
+ * @Description 到注册中心注册机器号
+ * @Date 2026-10-18 10:00 AM
+ */
+@Name(WorkerRegisterEvent.NAME)
+@Label("Worker Register")
+@Description("Worker id registration against the worker id registry")
+class WorkerRegisterEvent extends StallEvent {
+
+    static final String NAME = "com.adong.fingermark.WorkerRegister";
+
+    @Label("Worker Id")
+    @Description("-1 if no worker id was available")
+    long workerId;
+
+    @Label("Registry")
+    String registry;
+}
@@ -0,0 +1,27 @@
+package com.adong.fingermark.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * @author ADong
+ * @Description 续期调度器一次批量续期，appKey 为参与续期的 appKey，逗号分隔
+ * @Date 2026-10-18 10:00 AM
+ */
+@Name(WorkerRenewEvent.NAME)
+@Label("Worker Renew")
+@Description("One batched lease renewal against the worker id registry")
+class WorkerRenewEvent extends StallEvent {
+
+    static final String NAME = "com.adong.fingermark.WorkerRenew";
+
+    @Label("Registry")
+    String registry;
+
+    @Label("Leases")
+    int leases;
+
+    @Label("Success")
+    boolean success;
+}
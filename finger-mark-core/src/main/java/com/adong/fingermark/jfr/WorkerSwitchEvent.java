@@ -0,0 +1,28 @@
+package com.adong.fingermark.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * @author ADong
+ * @Description 时间回拨后切换机器号，同步切换时生成器在注册中心返回前一直持有锁
+ * @Date 2026-10-18 10:00 AM
+ */
+@Name(WorkerSwitchEvent.NAME)
+@Label("Worker Switch")
+@Description("Worker id switch after a clock rollback, including the registry round trips")
+class WorkerSwitchEvent extends StallEvent {
+
+    static final String NAME = "com.adong.fingermark.WorkerSwitch";
+
+    @Label("Old Worker Id")
+    long oldWorkerId;
+
+    @Label("New Worker Id")
+    @Description("-1 if the switch failed")
+    long newWorkerId;
+
+    @Label("Async")
+    boolean async;
+}
@@ -0,0 +1,105 @@
+package com.adong.fingermark.manager;
+
+import com.adong.fingermark.core.IdGen;
+
+/**
+ * @author ADong
+ * @Description 预先解析好 appKey 的生成器句柄，由 {@link IdGenManager#handle(String)} 获取
+ * 直接持有生成器和配额，热路径只有一次 volatile 读，不再查 ConcurrentHashMap；
+ * 配额在获取句柄时确定，appKey 被移除后句柄失效，继续调用抛出 IllegalStateException
+ * @Date 2026-10-18 10:20 AM
+ */
+public final class IdGenHandle implements IdGen {
+
+    /** appKey 移除后的占位生成器 **/
+    private static final IdGen REMOVED = new IdGen() {
+
+        @Override
+        public long nextId() {
+            throw new IllegalStateException("appKey removed, get a new handle from IdGenManager");
+        }
+
+        @Override
+        public long[] nextIds(int size) {
+            return new long[]{nextId()};
+        }
+
+        @Override
+        public void destory() {
+        }
+    };
+
+    private final String appKey;
+
+    /** 批量获取单次最大数量 **/
+    private final int batchMaxSize;
+
+    /** 未开启准入控制为 null **/
+    private final TenantLimiter.Quota quota;
+
+    private volatile IdGen idGen;
+
+    IdGenHandle(String appKey, IdGen idGen, int batchMaxSize, TenantLimiter.Quota quota) {
+        this.appKey = appKey;
+        this.idGen = idGen;
+        this.batchMaxSize = batchMaxSize;
+        this.quota = quota;
+    }
+
+    /**
+     * 生成 id
+     * @return
+     * @throws RateLimitedException 开启准入控制且超出配额
+     */
+    @Override
+    public long nextId() {
+
+        if (quota == null) {
+            return idGen.nextId();
+        }
+        quota.acquire(1);
+        try {
+            return idGen.nextId();
+        } finally {
+            quota.release();
+        }
+    }
+
+    /**
+     * 批量生成 id
+     * @param size 数量，范围 [1, batchMaxSize]
+     * @return
+     * @throws RateLimitedException 开启准入控制且超出配额
+     */
+    @Override
+    public long[] nextIds(int size) {
+
+        if (size <= 0 || size > batchMaxSize) {
+            throw new IllegalArgumentException("size must be in [1, " + batchMaxSize + "]");
+        }
+        if (quota == null) {
+            return idGen.nextIds(size);
+        }
+        quota.acquire(size);
+        try {
+            return idGen.nextIds(size);
+        } finally {
+            quota.release();
+        }
+    }
+
+    /**
+     * 生成器由 {@link IdGenManager} 管理，句柄不销毁生成器
+     */
+    @Override
+    public void destory() {
+    }
+
+    void invalidate() {
+        idGen = REMOVED;
+    }
+
+    public String getAppKey() {
+        return appKey;
+    }
+}
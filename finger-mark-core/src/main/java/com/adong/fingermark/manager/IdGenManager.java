@@ -0,0 +1,622 @@
+package com.adong.fingermark.manager;
+
+import com.adong.fingermark.config.PropertyFactory;
+import com.adong.fingermark.constant.ConfigConstant;
+import com.adong.fingermark.constant.IdGenType;
+import com.adong.fingermark.constant.TimeSourceType;
+import com.adong.fingermark.constant.WorkerIdRegistryType;
+import com.adong.fingermark.core.AtomicSnowFlakeId;
+import com.adong.fingermark.core.CachedSnowFlakeId;
+import com.adong.fingermark.core.IdGen;
+import com.adong.fingermark.core.IdGenMetrics;
+import com.adong.fingermark.core.IdLayout;
+import com.adong.fingermark.core.LocalWorkerIdRegistry;
+import com.adong.fingermark.core.MonotonicTimeSource;
+import com.adong.fingermark.core.RecentIdGuard;
+import com.adong.fingermark.core.RedisWorkerIdRegistry;
+import com.adong.fingermark.core.SegmentIdGen;
+import com.adong.fingermark.core.SnowFlakeId;
+import com.adong.fingermark.core.TickerTimeSource;
+import com.adong.fingermark.core.TimeSource;
+import com.adong.fingermark.core.TimestampCheckpoint;
+import com.adong.fingermark.core.WorkerIdManager;
+import com.adong.fingermark.core.WorkerIdRegistry;
+import com.adong.fingermark.core.WorkerIdRenewer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author ADong
+ * @Description IdGenManager
+ * @Date 2022-08-15 5:36 PM
+ */
+@Component
+public class IdGenManager implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(IdGenManager.class);
+
+    /** 默认生成器的 appKey **/
+    public static final String DEFAULT_APP_KEY = "default";
+
+    /** 共用机器号租约在注册中心的 appKey **/
+    private static final String SHARED_LEASE_APP_KEY = "shared";
+
+    private final RedisTemplate redisTemplate;
+
+    /** 指标注册中心，没有引入 actuator 时为空，只计数不暴露 **/
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, IdGen> registers = new ConcurrentHashMap<>();
+
+    /** 已经发出的句柄，appKey 移除时失效 **/
+    private final ConcurrentHashMap<String, IdGenHandle> handles = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, IdGenMetrics> metrics = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, IdLayout> layouts = new ConcurrentHashMap<>();
+
+    private IdGen DEFAULT_IDGEN;
+
+    /** 批量获取 id 单次最大数量 **/
+    private int batchMaxSize;
+
+    /** 机器号位 **/
+    private long workerIdShift;
+
+    /** 数据中心号位数，0 不划分数据中心 **/
+    private int datacenterBits;
+
+    /** 本节点数据中心号 **/
+    private long datacenterId;
+
+    /** 机器号注册是否开启顺序策略 **/
+    private boolean openSequenceSetWorkerId;
+
+    /** 机器号有效期，单位s **/
+    private long renewalTime;
+
+    /** 机器号续期间隔，单位s **/
+    private long renewalIntervalTime;
+
+    /** 本地时间戳检查点目录，为空不开启 **/
+    private String checkpointDir;
+
+    /** 检查点每次预留时间，单位ms **/
+    private long checkpointInterval;
+
+    /** 重启沿用检查点机器号时最长等待时间，单位ms **/
+    private long checkpointMaxWait;
+
+    /** 是否使用 Lua 脚本注册机器号 **/
+    private boolean scriptRegister;
+
+    /** 机器号注册中心 **/
+    private WorkerIdRegistry workerIdRegistry;
+
+    /** 所有 appKey 共用的续期调度器 **/
+    private WorkerIdRenewer workerIdRenewer;
+
+    /** 共用租约模式下所有 appKey 共用的机器号，未开启为 null **/
+    private WorkerIdManager sharedWorkerIdManager;
+
+    /** 时间源，同一类型所有 appKey 共用一个实例 **/
+    private final Map<TimeSourceType, TimeSource> timeSources = new EnumMap<>(TimeSourceType.class);
+
+    /** appKey 维度准入控制，未开启为 null **/
+    private TenantLimiter tenantLimiter;
+
+    /**
+     * 没有 Redis，用于基准测试和 workerId.registry=local 的场景，Redis 注册中心下机器号注册全部走降级方案
+     */
+    public IdGenManager() {
+        this(null, null);
+    }
+
+    /**
+     * @param redisTemplate key 需要使用字符串序列化，与其他节点保持一致 {@link com.adong.fingermark.config.RedisTemplateFactory}
+     * @param meterRegistry
+     */
+    @Autowired
+    public IdGenManager(@Qualifier("redisTemplate") RedisTemplate redisTemplate, @Nullable MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 生成id默认方法
+     * @return
+     */
+    public long getId() {
+
+        if (tenantLimiter == null) {
+            return DEFAULT_IDGEN.nextId();
+        }
+        TenantLimiter.Quota quota = tenantLimiter.acquire(DEFAULT_APP_KEY, 1, false);
+        try {
+            return DEFAULT_IDGEN.nextId();
+        } finally {
+            quota.release();
+        }
+    }
+
+    /**
+     * 根据 appKey 生成 id
+     * @param appKey
+     * @return
+     * @throws RateLimitedException 开启准入控制且超出配额
+     */
+    public long getId(String appKey) {
+
+        IdGen idGen = registers.get(appKey);
+        if (tenantLimiter == null) {
+            return (idGen != null ? idGen : DEFAULT_IDGEN).nextId();
+        }
+        TenantLimiter.Quota quota = tenantLimiter.acquire(appKey, 1, idGen == null);
+        try {
+            return (idGen != null ? idGen : DEFAULT_IDGEN).nextId();
+        } finally {
+            quota.release();
+        }
+    }
+
+    /**
+     * 根据 appKey 批量生成 id
+     * @param appKey
+     * @param size 数量，范围 [1, batchMaxSize]，开启准入控制时按数量消耗令牌
+     * @return
+     * @throws RateLimitedException 开启准入控制且超出配额
+     */
+    public long[] getIds(String appKey, int size) {
+
+        if (size <= 0 || size > batchMaxSize) {
+            throw new IllegalArgumentException("size must be in [1, " + batchMaxSize + "]");
+        }
+        IdGen idGen = registers.get(appKey);
+        if (tenantLimiter == null) {
+            return (idGen != null ? idGen : DEFAULT_IDGEN).nextIds(size);
+        }
+        TenantLimiter.Quota quota = tenantLimiter.acquire(appKey, size, idGen == null);
+        try {
+            return (idGen != null ? idGen : DEFAULT_IDGEN).nextIds(size);
+        } finally {
+            quota.release();
+        }
+    }
+
+    public int getBatchMaxSize() {
+        return batchMaxSize;
+    }
+
+    /**
+     * 各 appKey 的配额和准入统计
+     * @return 未开启准入控制返回空列表
+     */
+    public List<TenantLimiter.Quota> getQuotas() {
+        return tenantLimiter == null ? Collections.emptyList() : tenantLimiter.getQuotas();
+    }
+
+    /**
+     * 缓存生成器的缓冲区填充率，非缓存生成器返回 -1
+     * @param appKey
+     * @return
+     */
+    public double getCacheFillRate(String appKey) {
+
+        IdGen idGen = registers.getOrDefault(appKey, DEFAULT_IDGEN);
+        return idGen instanceof CachedSnowFlakeId ? ((CachedSnowFlakeId) idGen).getFillRate() : -1;
+    }
+
+    public void registerAppKey(String appKey) {
+
+        registers.computeIfAbsent(appKey, k -> register(k));
+    }
+
+    /**
+     * 获取 appKey 的生成器句柄，appKey 未注册时先注册
+     * 句柄直接持有生成器，调用方在启动时获取一次并保存，热路径不再按 appKey 查找
+     * 同一个 appKey 返回同一个句柄，appKey 移除后句柄失效
+     * @param appKey
+     * @return
+     */
+    public IdGenHandle handle(String appKey) {
+
+        return handles.computeIfAbsent(appKey, k -> {
+            IdGen idGen = DEFAULT_APP_KEY.equals(k) ? DEFAULT_IDGEN : registers.computeIfAbsent(k, this::register);
+            return new IdGenHandle(k, idGen, batchMaxSize, tenantLimiter == null ? null : tenantLimiter.quota(k));
+        });
+    }
+
+    public void removeAppKey(String appKey) {
+        IdGenHandle handle = handles.remove(appKey);
+        if (handle != null) {
+            handle.invalidate();
+        }
+        IdGen idGen = registers.get(appKey);
+        idGen.destory();
+        registers.remove(appKey);
+        IdGenMetrics idGenMetrics = metrics.remove(appKey);
+        if (idGenMetrics != null) {
+            idGenMetrics.close();
+        }
+        layouts.remove(appKey);
+    }
+
+    /**
+     * 获取 appKey 的位布局，未注册的 appKey 使用默认生成器的布局
+     * @param appKey
+     * @return 号段模式返回 null
+     */
+    public IdLayout getLayout(String appKey) {
+        return registers.containsKey(appKey) ? layouts.get(appKey) : layouts.get(DEFAULT_APP_KEY);
+    }
+
+    /**
+     * 获取 appKey 的发放指标
+     * @param appKey
+     * @return 未注册返回 null
+     */
+    public IdGenMetrics getMetrics(String appKey) {
+        return metrics.get(appKey);
+    }
+
+    /**
+     * 注册雪花算法 ID 生成器
+     * 根据 {@link ConfigConstant#IDGEN_TYPE} 选择实现，默认加锁版本
+     * @param appKey
+     * @return
+     */
+    private IdGen register(String appKey) {
+
+        IdGenType type = IdGenType.of(PropertyFactory.getProperty(
+                ConfigConstant.IDGEN_TYPE, appKey, IdGenType.SNOWFLAKE.name()));
+        log.info("appKey={} IdGen type={}", appKey, type);
+        IdGenMetrics idGenMetrics = new IdGenMetrics(appKey);
+        if (meterRegistry != null) {
+            idGenMetrics.bindTo(meterRegistry);
+        }
+        IdGenMetrics previous = metrics.put(appKey, idGenMetrics);
+        if (previous != null) {
+            previous.close();
+        }
+        // 号段模式不需要机器号
+        if (type == IdGenType.SEGMENT) {
+            SegmentIdGen segmentIdGen = registerSegment(appKey, idGenMetrics);
+            idGenMetrics.gauge("fingermark.segment.step", segmentIdGen, SegmentIdGen::getStep);
+            return segmentIdGen;
+        }
+        IdLayout layout = resolveLayout(appKey);
+        layouts.put(appKey, layout);
+        long maxWorkerId = 1L << layout.getWorkerBits();
+        TimestampCheckpoint checkpoint = checkpointDir.isEmpty()
+                ? null : TimestampCheckpoint.open(checkpointDir, appKey, checkpointInterval,
+                datacenterId, layout);
+        WorkerIdManager workerIdManager;
+        Long workerId;
+        if (sharedWorkerIdManager != null) {
+            // 共用机器号，序列状态仍按 appKey 独立
+            workerIdManager = sharedWorkerIdManager.retain();
+            workerId = workerIdManager.getWorkerId();
+        } else {
+            workerIdManager = new WorkerIdManager(workerIdRegistry, openSequenceSetWorkerId, appKey,
+                    leaseDatacenterId(), maxWorkerId, renewalTime, idGenMetrics, scriptRegister, workerIdRenewer);
+            workerIdManager.setCheckpoint(checkpoint);
+            // 上次运行的机器号最近一次续期成功后租约还在，直接沿用，启动不依赖 Redis
+            if (checkpoint != null && checkpoint.getSavedWorkerId() < maxWorkerId && checkpoint.isReusable(
+                    TimeUnit.SECONDS.toMillis(renewalTime - renewalIntervalTime), checkpointMaxWait)) {
+                workerId = checkpoint.getSavedWorkerId();
+                workerIdManager.adopt(workerId);
+            } else {
+                workerId = registerWorkerId(workerIdManager);
+            }
+        }
+        // 降级方案
+        if (workerId == null) {
+            workerId = ThreadLocalRandom.current().nextLong(0, maxWorkerId);
+            log.info("降级方案 WorkerId={}", workerId);
+        }
+        // 与上次运行的机器号相同时，等待时间越过上次预留的时间戳，不发放重复 id
+        if (checkpoint != null && workerId == checkpoint.getSavedWorkerId()) {
+            try {
+                checkpoint.awaitReservedTime();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("await checkpoint interrupted", e);
+            }
+        }
+        long maxBorrow = Long.parseLong(PropertyFactory.getProperty(
+                ConfigConstant.IDGEN_CLOCK_BORROW_MAX, appKey, "0"));
+        if (maxBorrow > 0 && type == IdGenType.ATOMIC) {
+            log.warn("appKey={} clock borrow is not supported by ATOMIC IdGen, ignored", appKey);
+        }
+        long sequenceBorrow = Long.parseLong(PropertyFactory.getProperty(
+                ConfigConstant.IDGEN_SEQUENCE_BORROW_MAX, appKey, "0"));
+        TimeSource timeSource = getTimeSource(TimeSourceType.of(PropertyFactory.getProperty(
+                ConfigConstant.IDGEN_TIME_SOURCE, appKey, TimeSourceType.SYSTEM.name())));
+        RecentIdGuard guard = createGuard(appKey, layout, idGenMetrics);
+        switch (type) {
+            case ATOMIC:
+                AtomicSnowFlakeId atomicSnowFlakeId = new AtomicSnowFlakeId(datacenterId, workerId, layout,
+                        workerIdManager, idGenMetrics, checkpoint, sequenceBorrow, timeSource, guard);
+                idGenMetrics.gauge("fingermark.clock.lead", atomicSnowFlakeId, AtomicSnowFlakeId::getLead);
+                return atomicSnowFlakeId;
+            case CACHED:
+                int bufferSize = Integer.parseInt(PropertyFactory.getProperty(
+                        ConfigConstant.IDGEN_CACHE_SIZE, appKey, "8192"));
+                int paddingFactor = Integer.parseInt(PropertyFactory.getProperty(
+                        ConfigConstant.IDGEN_CACHE_PADDING_FACTOR, appKey, "50"));
+                long maxAge = Long.parseLong(PropertyFactory.getProperty(
+                        ConfigConstant.IDGEN_CACHE_MAX_AGE, appKey, "60000"));
+                SnowFlakeId delegate = new SnowFlakeId(datacenterId, workerId, layout, workerIdManager,
+                        idGenMetrics.withoutIssued(), checkpoint, maxBorrow, sequenceBorrow, timeSource, guard);
+                idGenMetrics.gauge("fingermark.clock.lead", delegate, SnowFlakeId::getLead);
+                CachedSnowFlakeId cachedSnowFlakeId = new CachedSnowFlakeId(appKey, delegate,
+                        bufferSize, paddingFactor, maxAge, idGenMetrics);
+                idGenMetrics.gauge("fingermark.cache.fill.rate", cachedSnowFlakeId, CachedSnowFlakeId::getFillRate);
+                return cachedSnowFlakeId;
+            case SNOWFLAKE:
+            default:
+                SnowFlakeId snowFlakeId = new SnowFlakeId(datacenterId, workerId, layout, workerIdManager,
+                        idGenMetrics, checkpoint, maxBorrow, sequenceBorrow, timeSource, guard);
+                idGenMetrics.gauge("fingermark.clock.lead", snowFlakeId, SnowFlakeId::getLead);
+                return snowFlakeId;
+        }
+    }
+
+    /**
+     * 创建降级 id 防重窗口并注册内存占用、命中率指标
+     * @param appKey
+     * @param layout
+     * @param idGenMetrics
+     * @return 未开启返回 null
+     */
+    private RecentIdGuard createGuard(String appKey, IdLayout layout, IdGenMetrics idGenMetrics) {
+
+        int size = Integer.parseInt(PropertyFactory.getProperty(
+                ConfigConstant.IDGEN_DEGRADED_GUARD_SIZE, appKey, "0"));
+        if (size <= 0) {
+            return null;
+        }
+        long window = Long.parseLong(PropertyFactory.getProperty(
+                ConfigConstant.IDGEN_DEGRADED_GUARD_WINDOW, appKey, "1000"));
+        RecentIdGuard guard = new RecentIdGuard(layout, size, window);
+        idGenMetrics.gauge("fingermark.degraded.guard.bytes", guard, RecentIdGuard::getMemoryBytes);
+        idGenMetrics.gauge("fingermark.degraded.guard.hit.rate", guard, RecentIdGuard::getHitRate);
+        idGenMetrics.counter("fingermark.degraded.guard.checks", guard, RecentIdGuard::getChecks);
+        idGenMetrics.counter("fingermark.degraded.guard.hits", guard, RecentIdGuard::getHits);
+        idGenMetrics.counter("fingermark.degraded.guard.overflows", guard, RecentIdGuard::getOverflows);
+        log.info("appKey={} degraded guard size={}, window={}ms, memory={}KB",
+                appKey, guard.getSize(), window, guard.getMemoryBytes() >> 10);
+        return guard;
+    }
+
+    /**
+     * 确定 appKey 的位布局并发布到机器号注册中心
+     * 未配置起始时间、时间单位、序列位数且不自动选择时使用原有布局；
+     * 自动选择时以注册中心中已发布的布局为准，保证集群内所有节点、重启前后布局一致
+     * @param appKey
+     * @return
+     */
+    private IdLayout resolveLayout(String appKey) {
+
+        long epoch = Long.parseLong(PropertyFactory.getProperty(ConfigConstant.IDGEN_EPOCH, appKey, "0"));
+        long timeUnit = Long.parseLong(PropertyFactory.getProperty(ConfigConstant.IDGEN_TIME_UNIT, appKey, "1"));
+        String sequenceBits = PropertyFactory.getProperty(ConfigConstant.IDGEN_SEQUENCE_BITS, appKey, "").trim();
+        boolean auto = Boolean.parseBoolean(PropertyFactory.getProperty(
+                ConfigConstant.IDGEN_LAYOUT_AUTO, appKey, "false"));
+        if (auto && sharedWorkerIdManager != null) {
+            log.warn("appKey={} auto layout is not supported with shared worker lease, ignored", appKey);
+            auto = false;
+        }
+        int workerBits = (int) workerIdShift;
+        long liveWorkers = -1;
+        if (auto) {
+            int headroom = Integer.parseInt(PropertyFactory.getProperty(
+                    ConfigConstant.IDGEN_LAYOUT_AUTO_HEADROOM, appKey, "4"));
+            int minBits = Integer.parseInt(PropertyFactory.getProperty(
+                    ConfigConstant.IDGEN_LAYOUT_AUTO_MIN_BITS, appKey, String.valueOf(workerIdShift)));
+            try {
+                liveWorkers = workerIdRegistry.countLive(WorkerIdManager.leaseKey(appKey, leaseDatacenterId()));
+                workerBits = IdLayout.workerBitsFor(liveWorkers, headroom, minBits);
+                log.info("appKey={} liveWorkers={}, auto workerBits={}", appKey, liveWorkers, workerBits);
+            } catch (Exception e) {
+                log.error("appKey={} count live workers error, use workerId.shift", appKey, e);
+            }
+        }
+        IdLayout layout;
+        if (!sequenceBits.isEmpty()) {
+            layout = new IdLayout(epoch, timeUnit, datacenterBits, workerBits, Integer.parseInt(sequenceBits));
+        } else if (epoch == 0 && timeUnit == 1 && !auto) {
+            layout = IdLayout.legacy(datacenterBits, workerBits);
+        } else {
+            // 年数从 epoch 起算，各节点推导出的布局与启动时间无关
+            int years = Integer.parseInt(PropertyFactory.getProperty(ConfigConstant.IDGEN_LAYOUT_YEARS, appKey, "100"));
+            layout = IdLayout.fit(epoch, timeUnit, datacenterBits, workerBits, years, epoch);
+        }
+        layout = publishLayout(appKey, layout, auto, liveWorkers);
+        layout.checkCapacity(System.currentTimeMillis());
+        layout.checkDatacenterId(datacenterId);
+        log.info("appKey={} layout={}, expireTime={}", appKey, layout, layout.getExpireTime());
+        return layout;
+    }
+
+    /**
+     * 通过机器号注册中心发布位布局，自动选择时只在没有布局时写入，已有则沿用
+     * 注册中心不保存布局或不可用时使用本地布局
+     * @param appKey
+     * @param layout
+     * @param auto
+     * @return 最终使用的布局
+     */
+    private IdLayout publishLayout(String appKey, IdLayout layout, boolean auto, long liveWorkers) {
+
+        try {
+            if (auto) {
+                if (workerIdRegistry.putLayout(appKey, layout.format(), false)) {
+                    return layout;
+                }
+                String stored = workerIdRegistry.getLayout(appKey);
+                if (stored == null) {
+                    return layout;
+                }
+                IdLayout published = IdLayout.parse(stored);
+                // 已发布的布局容纳不下加上本节点后的存活节点数，沿用会降级为随机机器号，按当前节点数重新发布
+                if (liveWorkers >= 0 && !published.canHoldWorkers(liveWorkers + 1)
+                        && layout.canHoldWorkers(liveWorkers + 1)) {
+                    log.warn("appKey={} published layout={} cannot hold {} workers, republish layout={}",
+                            appKey, published, liveWorkers + 1, layout);
+                    workerIdRegistry.putLayout(appKey, layout.format(), true);
+                    // 其他节点可能同时重新发布，以最终写入的为准
+                    published = IdLayout.parse(workerIdRegistry.getLayout(appKey));
+                }
+                log.info("appKey={} use published layout={}", appKey, published);
+                return published;
+            }
+            String published = workerIdRegistry.getLayout(appKey);
+            if (published != null && !layout.format().equals(published)) {
+                log.warn("appKey={} layout changed, published={}, current={}", appKey, published, layout);
+            }
+            workerIdRegistry.putLayout(appKey, layout.format(), true);
+        } catch (Exception e) {
+            log.error("appKey={} publish layout error", appKey, e);
+        }
+        return layout;
+    }
+
+    /**
+     * 划分数据中心时机器号租约按数据中心隔离，否则与原有 key 保持一致
+     * @return 租约的数据中心号，-1 表示不划分
+     */
+    private long leaseDatacenterId() {
+        return datacenterBits > 0 ? datacenterId : -1;
+    }
+
+    /**
+     * 获取时间源，首次使用时创建
+     * @param type
+     * @return
+     */
+    private synchronized TimeSource getTimeSource(TimeSourceType type) {
+
+        TimeSource timeSource = timeSources.get(type);
+        if (timeSource != null) {
+            return timeSource;
+        }
+        Properties properties = PropertyFactory.getProperties();
+        switch (type) {
+            case MONOTONIC:
+                timeSource = new MonotonicTimeSource(
+                        Long.parseLong(properties.getProperty(ConfigConstant.IDGEN_TIME_RESYNC_INTERVAL, "1000")),
+                        Double.parseDouble(properties.getProperty(ConfigConstant.IDGEN_TIME_MAX_SLEW_RATE, "0.001")),
+                        Long.parseLong(properties.getProperty(ConfigConstant.IDGEN_TIME_STEP_THRESHOLD, "1000")));
+                break;
+            case TICKER:
+                timeSource = new TickerTimeSource(getTimeSource(TimeSourceType.MONOTONIC),
+                        Long.parseLong(properties.getProperty(ConfigConstant.IDGEN_TIME_TICK_INTERVAL, "200")));
+                break;
+            case SYSTEM:
+            default:
+                timeSource = TimeSource.SYSTEM;
+        }
+        timeSources.put(type, timeSource);
+        log.info("TimeSource={} init success", type);
+        return timeSource;
+    }
+
+    private Long registerWorkerId(WorkerIdManager workerIdManager) {
+
+        try {
+            return workerIdManager.registerAndGetWorkerId();
+        } catch (Exception e) {
+            log.error("workerIdManager getWorkerId error", e);
+            return null;
+        }
+    }
+
+    /**
+     * 注册号段模式 ID 生成器
+     * @param appKey
+     * @param idGenMetrics
+     * @return
+     */
+    private SegmentIdGen registerSegment(String appKey, IdGenMetrics idGenMetrics) {
+
+        long minStep = Long.parseLong(PropertyFactory.getProperty(
+                ConfigConstant.SEGMENT_STEP, appKey, "1000"));
+        long maxStep = Long.parseLong(PropertyFactory.getProperty(
+                ConfigConstant.SEGMENT_MAX_STEP, appKey, "1000000"));
+        long segmentDuration = Long.parseLong(PropertyFactory.getProperty(
+                ConfigConstant.SEGMENT_DURATION, appKey, "900"));
+        int prefetchFactor = Integer.parseInt(PropertyFactory.getProperty(
+                ConfigConstant.SEGMENT_PREFETCH_FACTOR, appKey, "10"));
+        return new SegmentIdGen(redisTemplate, appKey, minStep, maxStep,
+                TimeUnit.SECONDS.toMillis(segmentDuration), prefetchFactor, idGenMetrics);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        Properties properties = PropertyFactory.getProperties();
+        batchMaxSize = Integer.parseInt(properties
+                .getProperty(ConfigConstant.IDGEN_BATCH_MAX_SIZE, "10000"));
+        workerIdShift = Long.parseLong(properties
+                .getProperty(ConfigConstant.WORKERID_SHIFT, "10"));
+        datacenterBits = Integer.parseInt(properties
+                .getProperty(ConfigConstant.IDGEN_DATACENTER_BITS, "0"));
+        datacenterId = Long.parseLong(properties
+                .getProperty(ConfigConstant.IDGEN_DATACENTER_ID, "0"));
+        if (datacenterBits < 0 || datacenterId < 0 || datacenterId >= 1L << datacenterBits) {
+            throw new IllegalArgumentException("datacenter set error! bits=" + datacenterBits + ", id=" + datacenterId);
+        }
+        openSequenceSetWorkerId = Boolean.parseBoolean(properties
+                .getProperty(ConfigConstant.OPEN_SEQUENCE_SET_WORKERID, "false"));
+        renewalTime = Long.parseLong(properties
+                .getProperty(ConfigConstant.WORKERID_RENEWAL_TIME, "180"));
+        renewalIntervalTime = Long.parseLong(properties
+                .getProperty(ConfigConstant.WORKERID_RENEWAL_INTERVAL_TIME, "60"));
+        checkpointDir = properties.getProperty(ConfigConstant.IDGEN_CHECKPOINT_DIR, "").trim();
+        checkpointInterval = Long.parseLong(properties
+                .getProperty(ConfigConstant.IDGEN_CHECKPOINT_INTERVAL, "1000"));
+        checkpointMaxWait = Long.parseLong(properties
+                .getProperty(ConfigConstant.IDGEN_CHECKPOINT_MAX_WAIT, "3000"));
+        scriptRegister = Boolean.parseBoolean(properties
+                .getProperty(ConfigConstant.WORKERID_REGISTER_SCRIPT_ENABLE, "true"));
+        WorkerIdRegistryType registryType = WorkerIdRegistryType.of(properties
+                .getProperty(ConfigConstant.WORKERID_REGISTRY, WorkerIdRegistryType.REDIS.name()));
+        workerIdRegistry = registryType == WorkerIdRegistryType.LOCAL
+                ? new LocalWorkerIdRegistry(properties.getProperty(ConfigConstant.WORKERID_REGISTRY_LOCAL_DIR,
+                        System.getProperty("java.io.tmpdir") + "/finger-mark/workers").trim())
+                : new RedisWorkerIdRegistry(redisTemplate);
+        log.info("WorkerIdRegistry={}, datacenterBits={}, datacenterId={}", registryType, datacenterBits, datacenterId);
+        workerIdRenewer = new WorkerIdRenewer(renewalTime, renewalIntervalTime);
+        if (Boolean.parseBoolean(properties.getProperty(ConfigConstant.WORKERID_LEASE_SHARED, "false"))) {
+            IdGenMetrics sharedMetrics = new IdGenMetrics(SHARED_LEASE_APP_KEY);
+            if (meterRegistry != null) {
+                sharedMetrics.bindTo(meterRegistry);
+            }
+            sharedWorkerIdManager = new WorkerIdManager(workerIdRegistry, openSequenceSetWorkerId,
+                    SHARED_LEASE_APP_KEY, leaseDatacenterId(), 1L << workerIdShift, renewalTime, sharedMetrics,
+                    scriptRegister, workerIdRenewer);
+            log.info("shared worker lease, WorkerId={}", registerWorkerId(sharedWorkerIdManager));
+        }
+        if (Boolean.parseBoolean(properties.getProperty(ConfigConstant.IDGEN_LIMIT_ENABLE, "false"))) {
+            tenantLimiter = new TenantLimiter(Integer.parseInt(properties
+                    .getProperty(ConfigConstant.IDGEN_LIMIT_MAX_TENANTS, "1024")), meterRegistry);
+        }
+        DEFAULT_IDGEN = register(DEFAULT_APP_KEY);
+    }
+}
@@ -0,0 +1,31 @@
+package com.adong.fingermark.manager;
+
+/**
+ * @author ADong
+ * @Description appKey 超出配额被拒绝，不重试，由调用方退避
+ * @Date 2026-10-18 2:00 PM
+ */
+public class RateLimitedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String appKey;
+
+    public RateLimitedException(String appKey, String reason) {
+        super("appKey=" + appKey + " " + reason);
+        this.appKey = appKey;
+    }
+
+    public String getAppKey() {
+        return appKey;
+    }
+
+    /**
+     * 拒绝是常态流量控制，不需要栈
+     * @return
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
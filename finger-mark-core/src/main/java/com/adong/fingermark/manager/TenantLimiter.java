@@ -0,0 +1,288 @@
+package com.adong.fingermark.manager;
+
+import com.adong.fingermark.config.PropertyFactory;
+import com.adong.fingermark.constant.ConfigConstant;
+import com.adong.fingermark.core.TokenBucket;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author ADong
+ * @Description appKey 维度的准入控制：令牌桶限制速率，在途请求数限制并发，超出配额立即拒绝，不排队
+ * 配额按 idGen.limit.*.{appKey} 配置，未单独配置的 appKey 使用全局配置，各自独立计数
+ * 未注册的 appKey 使用默认生成器，除自身配额外还要通过默认生成器的配额（{@link #DEFAULT_APP_KEY}），
+ * 单个 appKey 打满自身配额不影响其他 appKey，所有未注册 appKey 合计也不会耗尽默认生成器
+ * 配额数量上限为 maxTenants，超过后新出现的 appKey 共用 {@link #OVERFLOW_APP_KEY} 的配额，防止随机 appKey 撑爆内存
+ * @Date 2026-10-18 2:00 PM
+ */
+public class TenantLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantLimiter.class);
+
+    /** 默认生成器的配额 **/
+    public static final String DEFAULT_APP_KEY = "default";
+
+    /** 超过配额数量上限后共用的配额 **/
+    public static final String OVERFLOW_APP_KEY = "overflow";
+
+    private static final String TAG_APP_KEY = "appKey";
+
+    private static final String TAG_REASON = "reason";
+
+    private final ConcurrentHashMap<String, Quota> quotas = new ConcurrentHashMap<>();
+
+    /** 配额数量上限 **/
+    private final int maxTenants;
+
+    /** 没有引入 actuator 时为空 **/
+    private final MeterRegistry registry;
+
+    public TenantLimiter(int maxTenants, MeterRegistry registry) {
+        if (maxTenants <= 0) {
+            throw new IllegalArgumentException("limit maxTenants set error!");
+        }
+        this.maxTenants = maxTenants;
+        this.registry = registry;
+        quotas.put(DEFAULT_APP_KEY, newQuota(DEFAULT_APP_KEY));
+        quotas.put(OVERFLOW_APP_KEY, newQuota(OVERFLOW_APP_KEY));
+    }
+
+    /**
+     * 获取 permits 个令牌并占用一个在途名额，成功后必须调用 {@link Quota#release()}
+     * @param appKey
+     * @param permits 令牌数，批量获取为数量
+     * @param fallback 是否使用默认生成器
+     * @return 占用名额的配额
+     * @throws RateLimitedException 超出配额
+     */
+    public Quota acquire(String appKey, int permits, boolean fallback) {
+
+        Quota quota = quota(appKey);
+        quota.acquire(permits);
+        if (fallback && !DEFAULT_APP_KEY.equals(quota.appKey)) {
+            // 默认生成器只限速率，在途请求数由各 appKey 自身配额限制
+            if (!quotas.get(DEFAULT_APP_KEY).tryAcquireRate(permits)) {
+                quota.release();
+                throw new RateLimitedException(appKey, "default IdGen rate limited");
+            }
+        }
+        return quota;
+    }
+
+    /**
+     * 获取 appKey 的配额，首次使用时按配置创建
+     * @param appKey
+     * @return
+     */
+    public Quota quota(String appKey) {
+
+        Quota quota = quotas.get(appKey);
+        if (quota != null) {
+            return quota;
+        }
+        if (quotas.size() >= maxTenants) {
+            return quotas.get(OVERFLOW_APP_KEY);
+        }
+        return quotas.computeIfAbsent(appKey, this::newQuota);
+    }
+
+    /**
+     * 替换 appKey 的配额，已有的计数清零
+     * @param appKey
+     * @param rate 每秒令牌数，0 不限制
+     * @param burst 突发令牌数，0 等于 rate
+     * @param maxConcurrency 最大在途请求数，0 不限制
+     * @return
+     */
+    public Quota configure(String appKey, long rate, long burst, int maxConcurrency) {
+
+        Quota quota = new Quota(appKey, rate, burst, maxConcurrency);
+        Quota previous = quotas.put(appKey, quota);
+        if (previous != null) {
+            previous.close();
+        }
+        quota.bindTo(registry);
+        return quota;
+    }
+
+    public List<Quota> getQuotas() {
+        return new ArrayList<>(quotas.values());
+    }
+
+    private Quota newQuota(String appKey) {
+
+        long rate = Long.parseLong(PropertyFactory.getProperty(ConfigConstant.IDGEN_LIMIT_RATE, appKey, "0"));
+        long burst = Long.parseLong(PropertyFactory.getProperty(ConfigConstant.IDGEN_LIMIT_BURST, appKey, "0"));
+        int maxConcurrency = Integer.parseInt(PropertyFactory.getProperty(
+                ConfigConstant.IDGEN_LIMIT_CONCURRENCY, appKey, "0"));
+        Quota quota = new Quota(appKey, rate, burst, maxConcurrency);
+        quota.bindTo(registry);
+        log.info("appKey={} quota rate={}, burst={}, maxConcurrency={}", appKey, rate, quota.burst, maxConcurrency);
+        return quota;
+    }
+
+    /**
+     * 单个 appKey 的配额和准入统计
+     */
+    public static class Quota {
+
+        private final String appKey;
+
+        /** 每秒令牌数，0 不限制 **/
+        private final long rate;
+
+        /** 突发令牌数 **/
+        private final long burst;
+
+        /** 最大在途请求数，0 不限制 **/
+        private final int maxConcurrency;
+
+        private final TokenBucket bucket;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        /** 准入的请求数 **/
+        private final LongAdder admitted = new LongAdder();
+
+        /** 超出速率拒绝的请求数 **/
+        private final LongAdder rejectedRate = new LongAdder();
+
+        /** 超出并发拒绝的请求数 **/
+        private final LongAdder rejectedConcurrency = new LongAdder();
+
+        private final List<Meter> meters = new ArrayList<>();
+
+        private MeterRegistry registry;
+
+        private Quota(String appKey, long rate, long burst, int maxConcurrency) {
+            if (rate < 0 || burst < 0 || maxConcurrency < 0) {
+                throw new IllegalArgumentException("appKey=" + appKey + " limit set error!");
+            }
+            this.appKey = appKey;
+            this.rate = rate;
+            this.burst = burst > 0 ? burst : rate;
+            this.maxConcurrency = maxConcurrency;
+            this.bucket = rate > 0 ? new TokenBucket(rate, this.burst) : null;
+        }
+
+        /**
+         * 获取令牌并占用一个在途名额，成功后必须调用 {@link #release()}
+         * @param permits
+         * @throws RateLimitedException 超出配额
+         */
+        void acquire(int permits) {
+
+            if (inFlight.incrementAndGet() > maxConcurrency && maxConcurrency > 0) {
+                inFlight.decrementAndGet();
+                rejectedConcurrency.increment();
+                throw new RateLimitedException(appKey, "too many concurrent requests");
+            }
+            if (!tryAcquireRate(permits)) {
+                release();
+                throw new RateLimitedException(appKey, "rate limited");
+            }
+            admitted.increment();
+        }
+
+        /**
+         * 只检查速率
+         * @param permits
+         * @return
+         */
+        private boolean tryAcquireRate(int permits) {
+
+            if (bucket == null || bucket.tryAcquire(permits)) {
+                return true;
+            }
+            rejectedRate.increment();
+            return false;
+        }
+
+        /**
+         * 释放在途名额
+         */
+        public void release() {
+            inFlight.decrementAndGet();
+        }
+
+        private synchronized void bindTo(MeterRegistry registry) {
+
+            if (registry == null) {
+                return;
+            }
+            this.registry = registry;
+            meters.add(FunctionCounter.builder("fingermark.admission.admitted", admitted, LongAdder::sum)
+                    .description("requests admitted by the tenant quota")
+                    .tag(TAG_APP_KEY, appKey)
+                    .register(registry));
+            meters.add(FunctionCounter.builder("fingermark.admission.rejected", rejectedRate, LongAdder::sum)
+                    .description("requests rejected by the tenant quota")
+                    .tag(TAG_APP_KEY, appKey)
+                    .tag(TAG_REASON, "rate")
+                    .register(registry));
+            meters.add(FunctionCounter.builder("fingermark.admission.rejected", rejectedConcurrency, LongAdder::sum)
+                    .description("requests rejected by the tenant quota")
+                    .tag(TAG_APP_KEY, appKey)
+                    .tag(TAG_REASON, "concurrency")
+                    .register(registry));
+        }
+
+        private synchronized void close() {
+
+            if (registry != null) {
+                meters.forEach(registry::remove);
+                meters.clear();
+                registry = null;
+            }
+        }
+
+        public String getAppKey() {
+            return appKey;
+        }
+
+        public long getRate() {
+            return rate;
+        }
+
+        public long getBurst() {
+            return burst;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public int getInFlight() {
+            return inFlight.get();
+        }
+
+        /**
+         * 当前可用令牌数，不限速率时返回 -1
+         * @return
+         */
+        public long getAvailable() {
+            return bucket == null ? -1 : bucket.available();
+        }
+
+        public long getAdmitted() {
+            return admitted.sum();
+        }
+
+        public long getRejectedRate() {
+            return rejectedRate.sum();
+        }
+
+        public long getRejectedConcurrency() {
+            return rejectedConcurrency.sum();
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.adong.fingermark;
+
+import com.adong.fingermark.core.AtomicSnowFlakeId;
+import com.adong.fingermark.core.IdGen;
+import com.adong.fingermark.core.IdGenMetrics;
+import com.adong.fingermark.core.IdLayout;
+import com.adong.fingermark.core.LocalWorkerIdRegistry;
+import com.adong.fingermark.core.SnowFlakeId;
+import com.adong.fingermark.core.WorkerIdManager;
+import com.adong.fingermark.core.WorkerIdRenewer;
+import com.google.common.base.Stopwatch;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author ADong
+ * @Description AtomicSnowFlakeIdTest
+ * @Date 2026-10-18 10:05 AM
+ */
+public class AtomicSnowFlakeIdTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AtomicSnowFlakeIdTest.class);
+
+    private static final int THREAD_SIZE = 8;
+
+    private static final int PER_THREAD = 200000;
+
+    @Test
+    public void testConcurrentUnique() throws Exception {
+
+        IdGen idGen = new AtomicSnowFlakeId(1, 10, null);
+        long[][] result = new long[THREAD_SIZE][PER_THREAD];
+        ExecutorService task = Executors.newFixedThreadPool(THREAD_SIZE);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch count = new CountDownLatch(THREAD_SIZE);
+        for (int m = 0; m < THREAD_SIZE; m++) {
+            long[] ids = result[m];
+            task.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < PER_THREAD; i++) {
+                        ids[i] = idGen.nextId();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    count.countDown();
+                }
+            });
+        }
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        start.countDown();
+        Assert.assertTrue(count.await(60, TimeUnit.SECONDS));
+        log.info("AtomicSnowFlakeId {} 线程共 {} 个 id, 耗时={}ms",
+                THREAD_SIZE, THREAD_SIZE * PER_THREAD, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+        task.shutdown();
+
+        // 单线程内严格递增
+        for (long[] ids : result) {
+            for (int i = 1; i < ids.length; i++) {
+                Assert.assertTrue(ids[i] > ids[i - 1]);
+            }
+        }
+        // 全局唯一，原始类型排序比较避免装箱
+        long[] all = new long[THREAD_SIZE * PER_THREAD];
+        for (int m = 0; m < THREAD_SIZE; m++) {
+            System.arraycopy(result[m], 0, all, m * PER_THREAD, PER_THREAD);
+        }
+        Arrays.sort(all);
+        for (int i = 1; i < all.length; i++) {
+            Assert.assertNotEquals(all[i - 1], all[i]);
+        }
+    }
+
+    @Test
+    public void testSameLayout() {
+
+        long workerIdShift = 8;
+        long randomShift = 22 - workerIdShift;
+        long id = new AtomicSnowFlakeId(37, workerIdShift, null).nextId();
+        long snowFlakeId = new SnowFlakeId(37, workerIdShift, null).nextId();
+
+        Assert.assertEquals(37, (id >>> randomShift) & ((1L << workerIdShift) - 1));
+        Assert.assertEquals(37, (snowFlakeId >>> randomShift) & ((1L << workerIdShift) - 1));
+        // 时间戳位一致
+        long time = id >>> 22;
+        Assert.assertTrue(Math.abs(time - System.currentTimeMillis()) < 1000);
+        Assert.assertTrue(Math.abs(time - (snowFlakeId >>> 22)) < 1000);
+    }
+
+    @Test
+    public void testNextIds() {
+
+        IdGen[] idGens = {new AtomicSnowFlakeId(3, 10, null), new SnowFlakeId(3, 10, null)};
+        for (IdGen idGen : idGens) {
+            // 跨越多个毫秒的批量预留
+            long[] ids = idGen.nextIds(10000);
+            Assert.assertEquals(10000, ids.length);
+            for (int i = 1; i < ids.length; i++) {
+                Assert.assertTrue(ids[i] > ids[i - 1]);
+            }
+            Assert.assertTrue(idGen.nextId() > ids[ids.length - 1]);
+        }
+    }
+
+    @Test
+    public void testSwitchWhileIssuing() throws Exception {
+
+        LocalWorkerIdRegistry registry = new LocalWorkerIdRegistry(Files.createTempDirectory("worker-registry").toString());
+        WorkerIdRenewer renewer = new WorkerIdRenewer(60, 30);
+        WorkerIdManager manager = new WorkerIdManager(registry, true, "switch", 256, 60,
+                new IdGenMetrics("switch"), true, renewer);
+        AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+        IdGenMetrics metrics = new IdGenMetrics("switch");
+        AtomicSnowFlakeId idGen = new AtomicSnowFlakeId(manager.registerAndGetWorkerId(), IdLayout.legacy(8),
+                manager, metrics, null, clock::get);
+        AtomicBoolean stop = new AtomicBoolean();
+        // 时间每 50μs 前进 1ms，回拨后新机器号很快追上回拨前的时间戳
+        Thread ticker = new Thread(() -> {
+            while (!stop.get()) {
+                clock.incrementAndGet();
+                LockSupport.parkNanos(50_000);
+            }
+        });
+        ticker.start();
+        int perThread = 100000;
+        long[][] result = new long[THREAD_SIZE][perThread];
+        ExecutorService task = Executors.newFixedThreadPool(THREAD_SIZE);
+        CountDownLatch count = new CountDownLatch(THREAD_SIZE);
+        for (int m = 0; m < THREAD_SIZE; m++) {
+            long[] ids = result[m];
+            boolean batch = m % 2 == 0;
+            task.execute(() -> {
+                int i = 0;
+                while (i < ids.length) {
+                    if (batch) {
+                        long[] chunk = idGen.nextIds(Math.min(100, ids.length - i));
+                        System.arraycopy(chunk, 0, ids, i, chunk.length);
+                        i += chunk.length;
+                    } else {
+                        ids[i++] = idGen.nextId();
+                    }
+                }
+                count.countDown();
+            });
+        }
+        // 发放过程中反复回拨，每次都切换机器号
+        int rollbacks = 0;
+        while (count.getCount() > 0 && rollbacks < 50) {
+            Thread.sleep(5);
+            clock.addAndGet(-20);
+            rollbacks++;
+        }
+        Assert.assertTrue(count.await(60, TimeUnit.SECONDS));
+        stop.set(true);
+        ticker.join();
+        task.shutdown();
+        log.info("rollbacks={}, workerSwitches={}", rollbacks, metrics.getWorkerSwitches());
+        Assert.assertTrue(metrics.getWorkerSwitches() > 0);
+        Assert.assertEquals(0, metrics.getDegraded());
+
+        long[] all = new long[THREAD_SIZE * perThread];
+        for (int m = 0; m < THREAD_SIZE; m++) {
+            System.arraycopy(result[m], 0, all, m * perThread, perThread);
+        }
+        Arrays.sort(all);
+        for (int i = 1; i < all.length; i++) {
+            Assert.assertNotEquals(all[i - 1], all[i]);
+        }
+        idGen.destory();
+        renewer.destroy();
+        registry.close();
+    }
+
+    @Test
+    public void testIssueDuringSwitch() throws Exception {
+
+        LocalWorkerIdRegistry registry = new LocalWorkerIdRegistry(Files.createTempDirectory("worker-registry").toString());
+        WorkerIdRenewer renewer = new WorkerIdRenewer(60, 30);
+        ThreadLocal<Boolean> switched = ThreadLocal.withInitial(() -> false);
+        WorkerIdManager manager = new WorkerIdManager(registry, true, "switch", 256, 60,
+                new IdGenMetrics("switch"), true, renewer) {
+            @Override
+            public synchronized Long switchWorkerId(long current) {
+                Long workerId = super.switchWorkerId(current);
+                switched.set(true);
+                return workerId;
+            }
+        };
+        long t0 = System.currentTimeMillis();
+        AtomicLong clock = new AtomicLong(t0);
+        CountDownLatch switching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // 切换线程拿到新机器号后，重置状态读取时间时停住
+        AtomicSnowFlakeId idGen = new AtomicSnowFlakeId(manager.registerAndGetWorkerId(), IdLayout.legacy(8),
+                manager, new IdGenMetrics("switch"), null, () -> {
+                    if (switched.get()) {
+                        switched.set(false);
+                        switching.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return clock.get();
+                });
+        long[] before = idGen.nextIds(10);
+
+        ExecutorService task = Executors.newFixedThreadPool(2);
+        clock.set(t0 - 100);
+        Future<Long> switcher = task.submit(idGen::nextId);
+        Assert.assertTrue(switching.await(5, TimeUnit.SECONDS));
+        // 切换尚未完成时其他线程按回拨前的时间发放，不能配上新机器号
+        clock.set(t0);
+        Future<Long> concurrent = task.submit(idGen::nextId);
+        try {
+            concurrent.get(200, TimeUnit.MILLISECONDS);
+            Assert.fail("id issued while switching worker");
+        } catch (TimeoutException e) {
+            // 等待切换完成
+        }
+        clock.set(t0 - 100);
+        release.countDown();
+        long[] all = new long[before.length + 300];
+        System.arraycopy(before, 0, all, 0, before.length);
+        all[before.length] = switcher.get(5, TimeUnit.SECONDS);
+        all[before.length + 1] = concurrent.get(5, TimeUnit.SECONDS);
+        // 新机器号追上回拨前的时间戳
+        clock.set(t0);
+        long[] after = idGen.nextIds(all.length - before.length - 2);
+        System.arraycopy(after, 0, all, before.length + 2, after.length);
+        task.shutdown();
+
+        Arrays.sort(all);
+        for (int i = 1; i < all.length; i++) {
+            Assert.assertNotEquals(all[i - 1], all[i]);
+        }
+        idGen.destory();
+        renewer.destroy();
+        registry.close();
+    }
+}
@@ -0,0 +1,108 @@
+package com.adong.fingermark;
+
+import com.adong.fingermark.core.CachedSnowFlakeId;
+import com.adong.fingermark.core.IdGenMetrics;
+import com.adong.fingermark.core.SnowFlakeId;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author ADong
+ * @Description CachedSnowFlakeIdTest
+ * @Date 2026-10-18 2:10 PM
+ */
+public class CachedSnowFlakeIdTest {
+
+    private static final int THREAD_SIZE = 4;
+
+    private static final int PER_THREAD = 100000;
+
+    @Test
+    public void testConcurrentUnique() throws Exception {
+
+        CachedSnowFlakeId idGen = new CachedSnowFlakeId("test", new SnowFlakeId(5, 10, null), 1024, 50);
+        long[][] result = new long[THREAD_SIZE][PER_THREAD];
+        ExecutorService task = Executors.newFixedThreadPool(THREAD_SIZE);
+        CountDownLatch count = new CountDownLatch(THREAD_SIZE);
+        for (int m = 0; m < THREAD_SIZE; m++) {
+            long[] ids = result[m];
+            task.execute(() -> {
+                for (int i = 0; i < PER_THREAD; i++) {
+                    ids[i] = idGen.nextId();
+                }
+                count.countDown();
+            });
+        }
+        Assert.assertTrue(count.await(60, TimeUnit.SECONDS));
+        task.shutdown();
+        idGen.destory();
+
+        long[] all = new long[THREAD_SIZE * PER_THREAD];
+        for (int m = 0; m < THREAD_SIZE; m++) {
+            System.arraycopy(result[m], 0, all, m * PER_THREAD, PER_THREAD);
+        }
+        Arrays.sort(all);
+        for (int i = 1; i < all.length; i++) {
+            Assert.assertNotEquals(all[i - 1], all[i]);
+        }
+    }
+
+    @Test
+    public void testFillRate() throws Exception {
+
+        CachedSnowFlakeId idGen = new CachedSnowFlakeId("test", new SnowFlakeId(6, 10, null), 1000, 50);
+        Assert.assertEquals(1024, idGen.getCapacity());
+        // 后台线程填满缓冲区
+        long deadline = System.currentTimeMillis() + 5000;
+        while (idGen.getRemaining() < idGen.getCapacity() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(1.0, idGen.getFillRate(), 0.0);
+        idGen.destory();
+    }
+
+    @Test
+    public void testRefillBelowThreshold() throws Exception {
+
+        CachedSnowFlakeId idGen = new CachedSnowFlakeId("test", new SnowFlakeId(7, 10, null), 1024, 50);
+        awaitFull(idGen);
+        for (int i = 0; i < 100; i++) {
+            idGen.nextId();
+        }
+        // 剩余数量高于阈值，定时检查不补满
+        Thread.sleep(300);
+        Assert.assertEquals(924, idGen.getRemaining());
+        for (int i = 0; i < 500; i++) {
+            idGen.nextId();
+        }
+        awaitFull(idGen);
+        Assert.assertEquals(1.0, idGen.getFillRate(), 0.0);
+        idGen.destory();
+    }
+
+    @Test
+    public void testMaxAge() throws Exception {
+
+        CachedSnowFlakeId idGen = new CachedSnowFlakeId("test", new SnowFlakeId(8, 10, null), 1024, 50, 200,
+                new IdGenMetrics("test"));
+        awaitFull(idGen);
+        long filled = idGen.nextId() >>> 22;
+        // 超过最长停留时间后丢弃旧 id 重新填充
+        Thread.sleep(500);
+        Assert.assertTrue(idGen.nextId() >>> 22 >= filled + 200);
+        idGen.destory();
+    }
+
+    private void awaitFull(CachedSnowFlakeId idGen) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (idGen.getRemaining() < idGen.getCapacity() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
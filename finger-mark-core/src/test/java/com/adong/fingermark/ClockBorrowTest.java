@@ -0,0 +1,69 @@
+package com.adong.fingermark;
+
+import com.adong.fingermark.core.IdGenMetrics;
+import com.adong.fingermark.core.SnowFlakeId;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author ADong
+ * @Description ClockBorrowTest
+ * @Date 2026-10-18 9:30 PM
+ */
+public class ClockBorrowTest {
+
+    @Test
+    public void testRollbackWithoutWait() {
+
+        ManualClockSnowFlakeId idGen = new ManualClockSnowFlakeId(10);
+        long last = idGen.nextId();
+        // 回拨 3s，逻辑时间不回退，序列耗尽借用下一毫秒，不等待
+        idGen.now -= 3000;
+        long start = System.nanoTime();
+        for (int i = 0; i < 20000; i++) {
+            long id = idGen.nextId();
+            Assert.assertTrue(id > last);
+            last = id;
+        }
+        Assert.assertTrue(System.nanoTime() - start < 1_000_000_000L);
+        Assert.assertTrue(idGen.metrics.getClockBorrows() > 0);
+        Assert.assertEquals(0, idGen.metrics.getDegraded());
+    }
+
+    @Test
+    public void testBatchExhaustionBorrow() {
+
+        ManualClockSnowFlakeId idGen = new ManualClockSnowFlakeId(10);
+        // 时钟不走，批量获取超过单毫秒序列上限，借用未来毫秒
+        long[] ids = idGen.nextIds(8000);
+        for (int i = 1; i < ids.length; i++) {
+            Assert.assertTrue(ids[i] > ids[i - 1]);
+        }
+        Assert.assertTrue((ids[ids.length - 1] >>> 22) - idGen.now <= 10);
+    }
+
+    /**
+     * 手动控制的时钟，构造期间 now 还未赋值时返回系统时间
+     */
+    private static class ManualClockSnowFlakeId extends SnowFlakeId {
+
+        private final IdGenMetrics metrics;
+
+        private long now;
+
+        private ManualClockSnowFlakeId(long maxBorrow) {
+            this(new IdGenMetrics("test"), maxBorrow);
+        }
+
+        private ManualClockSnowFlakeId(IdGenMetrics metrics, long maxBorrow) {
+            super(1, 10, null, metrics, null, maxBorrow);
+            this.metrics = metrics;
+            this.now = System.currentTimeMillis() + 1000;
+        }
+
+        @Override
+        protected long timeGen() {
+            return now == 0 ? System.currentTimeMillis() : now;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.adong.fingermark;
+
+import com.adong.fingermark.manager.IdGenHandle;
+import com.adong.fingermark.manager.IdGenManager;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author ADong
+ * @Description IdGenHandleTest，没有 Redis，机器号走降级方案
+ * @Date 2026-10-18 11:00 AM
+ */
+public class IdGenHandleTest {
+
+    @Test
+    public void testHandle() throws Exception {
+
+        IdGenManager idGenManager = new IdGenManager();
+        idGenManager.afterPropertiesSet();
+        IdGenHandle handle = idGenManager.handle("handle");
+        Assert.assertSame(handle, idGenManager.handle("handle"));
+
+        // 句柄与按 appKey 获取使用同一个生成器
+        long first = handle.nextId();
+        long second = idGenManager.getId("handle");
+        long[] ids = handle.nextIds(10);
+        Assert.assertTrue(first < second && second < ids[0]);
+        Assert.assertEquals(IdGenManager.DEFAULT_APP_KEY, idGenManager.handle(IdGenManager.DEFAULT_APP_KEY).getAppKey());
+
+        idGenManager.removeAppKey("handle");
+        try {
+            handle.nextId();
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertNotSame(handle, idGenManager.handle("handle"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalSize() throws Exception {
+
+        IdGenManager idGenManager = new IdGenManager();
+        idGenManager.afterPropertiesSet();
+        idGenManager.handle("handle").nextIds(0);
+    }
+}
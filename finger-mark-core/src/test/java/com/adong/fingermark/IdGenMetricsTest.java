@@ -0,0 +1,77 @@
+package com.adong.fingermark;
+
+import com.adong.fingermark.core.CachedSnowFlakeId;
+import com.adong.fingermark.core.IdGenMetrics;
+import com.adong.fingermark.core.SnowFlakeId;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author ADong
+ * @Description IdGenMetricsTest
+ * @Date 2026-10-18 2:00 PM
+ */
+public class IdGenMetricsTest {
+
+    @Test
+    public void testIssuedCounter() {
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        IdGenMetrics metrics = new IdGenMetrics("test");
+        metrics.bindTo(registry);
+        SnowFlakeId idGen = new SnowFlakeId(1, 10, null, metrics);
+        idGen.nextId();
+        idGen.nextIds(9);
+        Assert.assertEquals(10, issued(registry), 0.0);
+
+        // 解绑后不再暴露
+        metrics.close();
+        Assert.assertNull(registry.find("fingermark.id.issued").functionCounter());
+    }
+
+    @Test
+    public void testCachedIssuedCounter() throws Exception {
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        IdGenMetrics metrics = new IdGenMetrics("test");
+        metrics.bindTo(registry);
+        CachedSnowFlakeId idGen = new CachedSnowFlakeId("test",
+                new SnowFlakeId(2, 10, null, metrics.withoutIssued()), 1024, 50, metrics);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (idGen.getRemaining() < idGen.getCapacity() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // 预填充不计入发放数
+        Assert.assertEquals(1024, idGen.getRemaining());
+        Assert.assertEquals(0, issued(registry), 0.0);
+
+        for (int i = 0; i < 10; i++) {
+            idGen.nextId();
+        }
+        idGen.nextIds(5);
+        Assert.assertEquals(15, issued(registry), 0.0);
+        Assert.assertEquals(15, metrics.getIssued());
+        idGen.destory();
+    }
+
+    @Test
+    public void testViewSharesCounters() {
+
+        IdGenMetrics metrics = new IdGenMetrics("test");
+        IdGenMetrics view = metrics.withoutIssued();
+        view.issued(3);
+        view.sequenceExhausted();
+        view.degraded();
+        Assert.assertEquals(0, metrics.getIssued());
+        Assert.assertEquals(1, metrics.getSequenceExhausted());
+        Assert.assertEquals(1, metrics.getDegraded());
+    }
+
+    private static double issued(SimpleMeterRegistry registry) {
+
+        FunctionCounter counter = registry.get("fingermark.id.issued").tag("appKey", "test").functionCounter();
+        return counter.count();
+    }
+}
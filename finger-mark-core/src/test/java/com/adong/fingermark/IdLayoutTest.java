@@ -0,0 +1,143 @@
+package com.adong.fingermark;
+
+import com.adong.fingermark.core.AtomicSnowFlakeId;
+import com.adong.fingermark.core.IdGenMetrics;
+import com.adong.fingermark.core.IdLayout;
+import com.adong.fingermark.core.SnowFlakeId;
+import com.adong.fingermark.core.TimeSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author ADong
+ * @Description IdLayoutTest
+ * @Date 2026-10-18 4:10 PM
+ */
+public class IdLayoutTest {
+
+    private static final long EPOCH = 1767225600000L;
+
+    @Test
+    public void testLegacy() {
+
+        IdLayout layout = IdLayout.legacy(10);
+        Assert.assertEquals(41, layout.getTimeBits());
+        Assert.assertEquals(12, layout.getSequenceBits());
+        long now = System.currentTimeMillis();
+        Assert.assertEquals(now, layout.tick(now));
+        long id = new SnowFlakeId(3, 10, null, new IdGenMetrics("test"), null, 0, () -> now).nextId();
+        Assert.assertEquals(now, id >>> 22);
+        Assert.assertEquals(3, (id >>> 12) & 1023);
+    }
+
+    @Test
+    public void testDatacenter() {
+
+        IdLayout layout = IdLayout.legacy(3, 10);
+        Assert.assertEquals(41, layout.getTimeBits());
+        Assert.assertEquals(9, layout.getSequenceBits());
+        Assert.assertEquals(layout, IdLayout.parse(layout.format()));
+        Assert.assertFalse(IdLayout.legacy(10).format().contains("datacenterBits"));
+
+        AtomicLong offset = new AtomicLong();
+        long now = System.currentTimeMillis();
+        TimeSource clock = () -> now - offset.get();
+        SnowFlakeId first = new SnowFlakeId(1, 3, layout, null, new IdGenMetrics("test"), null, 0, 0, clock, null);
+        AtomicSnowFlakeId second = new AtomicSnowFlakeId(2, 3, layout, null, new IdGenMetrics("test"), null, 0,
+                clock, null);
+        long firstId = first.nextId();
+        long secondId = second.nextId();
+        Assert.assertEquals(1, layout.datacenterIdOf(firstId));
+        Assert.assertEquals(2, layout.datacenterIdOf(secondId));
+        Assert.assertEquals(3, layout.workerIdOf(firstId));
+        Assert.assertEquals(3, layout.workerIdOf(secondId));
+        Assert.assertEquals(firstId & ~(7L << 19), secondId & ~(7L << 19));
+        // 回拨降级时随机机器号和序列，数据中心号不变
+        offset.set(60000);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(1, layout.datacenterIdOf(first.nextId()));
+            Assert.assertEquals(2, layout.datacenterIdOf(second.nextId()));
+        }
+        try {
+            new SnowFlakeId(8, 3, layout, null, new IdGenMetrics("test"), null, 0, 0, clock, null);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // 超出数据中心号位数
+        }
+    }
+
+    @Test
+    public void testCustomLayout() {
+
+        long now = EPOCH + 123_456_789L;
+        IdLayout layout = IdLayout.fit(EPOCH, 10, 10, 50, EPOCH);
+        Assert.assertEquals(38, layout.getTimeBits());
+        // 年数从 epoch 起算，与推导时间无关
+        Assert.assertEquals(layout, IdLayout.fit(EPOCH, 10, 10, 50, EPOCH));
+        Assert.assertEquals(15, layout.getSequenceBits());
+        layout.checkCapacity(now);
+        Assert.assertTrue(layout.getExpireTime() > now);
+        Assert.assertEquals(layout, IdLayout.parse(layout.format()));
+
+        // 时钟不走，单个时间单位内可发放 2^15 个 id 不需要等待
+        SnowFlakeId snowFlakeId = new SnowFlakeId(5, layout, null, new IdGenMetrics("test"), null, 0, () -> now);
+        AtomicSnowFlakeId atomicSnowFlakeId = new AtomicSnowFlakeId(6, layout, null, new IdGenMetrics("test"), null,
+                () -> now);
+        long[] ids = snowFlakeId.nextIds(30000);
+        long atomicId = atomicSnowFlakeId.nextId();
+        for (int i = 1; i < ids.length; i++) {
+            Assert.assertTrue(ids[i] > ids[i - 1]);
+        }
+        for (long id : new long[]{ids[0], ids[ids.length - 1], atomicId}) {
+            Assert.assertEquals(layout.tick(now), id >>> layout.getTimeShift());
+            Assert.assertEquals(now - now % 10, layout.toMillis(id >>> layout.getTimeShift()));
+        }
+        Assert.assertEquals(5, (ids[0] >>> layout.getSequenceBits()) & ((1 << layout.getWorkerBits()) - 1));
+        Assert.assertEquals(6, (atomicId >>> layout.getSequenceBits()) & ((1 << layout.getWorkerBits()) - 1));
+    }
+
+    @Test
+    public void testDecodeAndRange() {
+
+        IdLayout layout = new IdLayout(EPOCH, 10, 8, 16);
+        long now = EPOCH + 987_654_321L;
+        long id = new SnowFlakeId(7, layout, null, new IdGenMetrics("test"), null, 0, () -> now).nextId();
+        Assert.assertEquals(now - now % 10, layout.timeOf(id));
+        Assert.assertEquals(7, layout.workerIdOf(id));
+        Assert.assertTrue(layout.sequenceOf(id) < 100);
+
+        // id 落在所在时间单位的区间内，不落在前后相邻的区间内
+        Assert.assertTrue(layout.minId(now) <= id && id <= layout.maxId(now));
+        Assert.assertTrue(layout.maxId(now - 10) < id);
+        Assert.assertTrue(layout.minId(now + 10) > id);
+        Assert.assertEquals(layout.maxId(now - 10) + 1, layout.minId(now));
+        Assert.assertEquals(0, layout.minId(EPOCH - 1));
+        Assert.assertEquals(-1, layout.maxId(EPOCH - 1));
+        Assert.assertEquals(Long.MAX_VALUE, layout.maxId(layout.getExpireTime()));
+    }
+
+    @Test
+    public void testAutoWorkerBits() {
+
+        // 首个节点按最小位数选择，后续节点沿用时仍有足够的机器号
+        Assert.assertEquals(10, IdLayout.workerBitsFor(0, 4, 10));
+        Assert.assertEquals(2, IdLayout.workerBitsFor(0, 4, 0));
+        Assert.assertEquals(6, IdLayout.workerBitsFor(10, 4, 3));
+        // 存活节点数超过最小位数时按存活节点数扩大
+        Assert.assertEquals(12, IdLayout.workerBitsFor(1500, 2, 10));
+        Assert.assertEquals(11, IdLayout.workerBitsFor(1500, 1, 10));
+        Assert.assertEquals(1, IdLayout.workerBitsFor(0, 1, 0));
+
+        IdLayout layout = new IdLayout(EPOCH, 1, 2, 12);
+        Assert.assertTrue(layout.canHoldWorkers(4));
+        Assert.assertFalse(layout.canHoldWorkers(5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOverflow() {
+
+        new IdLayout(0, 1, 10, 20).checkCapacity(System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,126 @@
+package com.adong.fingermark;
+
+import com.adong.fingermark.core.IdGenMetrics;
+import com.adong.fingermark.core.LocalWorkerIdRegistry;
+import com.adong.fingermark.core.WorkerIdManager;
+import com.adong.fingermark.core.WorkerIdRenewer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * @author ADong
+ * @Description LocalWorkerIdRegistryTest
+ * @Date 2026-10-18 2:00 PM
+ */
+public class LocalWorkerIdRegistryTest {
+
+    @Test
+    public void testAcquireAcrossInstances() throws Exception {
+
+        String dir = Files.createTempDirectory("worker-registry").toString();
+        // 两个实例打开同一个文件，模拟同一台主机上的两个 JVM
+        LocalWorkerIdRegistry first = new LocalWorkerIdRegistry(dir);
+        LocalWorkerIdRegistry second = new LocalWorkerIdRegistry(dir);
+        Set<Long> acquired = new HashSet<>();
+        for (int i = 0; i < 8; i++) {
+            LocalWorkerIdRegistry registry = i % 2 == 0 ? first : second;
+            long workerId = registry.acquire("test", 0, 8, 8, 60);
+            Assert.assertTrue(workerId >= 0);
+            Assert.assertTrue(acquired.add(workerId));
+        }
+        Assert.assertEquals(-1, first.acquire("test", 3, 8, 8, 60));
+        Assert.assertEquals(8, second.countLive("test"));
+        // 其他 appKey 不受影响
+        Assert.assertEquals(0, first.acquire("other", 0, 8, 8, 60));
+
+        second.release("test", 5);
+        Assert.assertEquals(5, first.acquire("test", 0, 8, 8, 60));
+
+        // 位布局扩大后槽位表随之扩大
+        Assert.assertEquals(8, second.acquire("test", 0, 16, 16, 60));
+        Assert.assertEquals(9, first.countLive("test"));
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void testLayout() throws Exception {
+
+        String dir = Files.createTempDirectory("worker-registry").toString();
+        LocalWorkerIdRegistry first = new LocalWorkerIdRegistry(dir);
+        LocalWorkerIdRegistry second = new LocalWorkerIdRegistry(dir);
+        Assert.assertNull(first.getLayout("test"));
+        Assert.assertTrue(first.putLayout("test", "0,1,0,10,12", false));
+        // 已发布时不覆盖，其他 JVM 读到同一个布局
+        Assert.assertFalse(second.putLayout("test", "0,1,0,12,10", false));
+        Assert.assertEquals("0,1,0,10,12", second.getLayout("test"));
+        Assert.assertTrue(second.putLayout("test", "0,1,0,8", true));
+        Assert.assertEquals("0,1,0,8", first.getLayout("test"));
+        Assert.assertNull(first.getLayout("other"));
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void testLeaseExpire() throws Exception {
+
+        LocalWorkerIdRegistry registry = new LocalWorkerIdRegistry(Files.createTempDirectory("worker-registry").toString());
+        Assert.assertEquals(0, registry.acquire("test", 0, 2, 2, 1));
+        Assert.assertEquals(1, registry.acquire("test", 0, 2, 2, 1));
+        registry.renew(Collections.singletonMap("test", Collections.singletonList(1L)), 60);
+        Thread.sleep(1100);
+        // 0 号租约过期可以重新抢占，1 号已续期
+        Assert.assertEquals(1, registry.countLive("test"));
+        Assert.assertEquals(0, registry.acquire("test", 1, 2, 2, 60));
+        registry.close();
+    }
+
+    @Test
+    public void testWorkerIdManager() throws Exception {
+
+        LocalWorkerIdRegistry registry = new LocalWorkerIdRegistry(Files.createTempDirectory("worker-registry").toString());
+        WorkerIdRenewer renewer = new WorkerIdRenewer(60, 30);
+        Set<Long> workerIds = new HashSet<>();
+        for (boolean script : new boolean[]{true, false}) {
+            for (int i = 0; i < 4; i++) {
+                WorkerIdManager manager = new WorkerIdManager(registry, true, "test", 8, 60,
+                        new IdGenMetrics("test"), script, renewer);
+                Long workerId = manager.registerAndGetWorkerId();
+                Assert.assertNotNull(workerId);
+                Assert.assertTrue(workerIds.add(workerId));
+            }
+        }
+        WorkerIdManager exhausted = new WorkerIdManager(registry, true, "test", 8, 60,
+                new IdGenMetrics("test"), true, renewer);
+        Assert.assertNull(exhausted.registerAndGetWorkerId());
+        renewer.destroy();
+        registry.close();
+    }
+
+    @Test
+    public void testDatacenterScope() throws Exception {
+
+        LocalWorkerIdRegistry registry = new LocalWorkerIdRegistry(Files.createTempDirectory("worker-registry").toString());
+        WorkerIdRenewer renewer = new WorkerIdRenewer(60, 30);
+        // 每个数据中心只有 1 个机器号，各自独立注册
+        for (long datacenterId = 0; datacenterId < 3; datacenterId++) {
+            WorkerIdManager manager = new WorkerIdManager(registry, true, "test", datacenterId, 1, 60,
+                    new IdGenMetrics("test"), true, renewer);
+            Assert.assertEquals(Long.valueOf(0), manager.registerAndGetWorkerId());
+            Assert.assertEquals("test@dc" + datacenterId, manager.getLeaseKey());
+            Assert.assertEquals(1, registry.countLive(manager.getLeaseKey()));
+        }
+        WorkerIdManager exhausted = new WorkerIdManager(registry, true, "test", 1, 1, 60,
+                new IdGenMetrics("test"), true, renewer);
+        Assert.assertNull(exhausted.registerAndGetWorkerId());
+        // 不划分数据中心时沿用原有 key
+        Assert.assertEquals(0, registry.countLive("test"));
+        renewer.destroy();
+        registry.close();
+    }
+}
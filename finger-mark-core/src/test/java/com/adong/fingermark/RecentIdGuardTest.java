@@ -0,0 +1,110 @@
+package com.adong.fingermark;
+
+import com.adong.fingermark.core.AtomicSnowFlakeId;
+import com.adong.fingermark.core.DegradedIdUnavailableException;
+import com.adong.fingermark.core.IdGen;
+import com.adong.fingermark.core.IdGenMetrics;
+import com.adong.fingermark.core.IdLayout;
+import com.adong.fingermark.core.RecentIdGuard;
+import com.adong.fingermark.core.SnowFlakeId;
+import com.adong.fingermark.core.TimeSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author ADong
+ * @Description RecentIdGuardTest
+ * @Date 2026-10-18 4:30 PM
+ */
+public class RecentIdGuardTest {
+
+    /** 4位机器号 + 8位序列，降级 id 只有 4096 种取值，很快出现重复 **/
+    private static final IdLayout LAYOUT = new IdLayout(0, 1, 4, 8);
+
+    @Test
+    public void testAddAndExpire() {
+
+        RecentIdGuard guard = new RecentIdGuard(LAYOUT, 32, 10);
+        Assert.assertEquals(256, guard.getMemoryBytes());
+        long tick = 1000;
+        for (int i = 1; i <= 32; i++) {
+            Assert.assertEquals(RecentIdGuard.Result.ADDED, guard.add(tick << 12 | i));
+        }
+        Assert.assertEquals(RecentIdGuard.Result.DUPLICATE, guard.add(tick << 12 | 5));
+        // 槽位全部在窗口内，无法判断
+        Assert.assertEquals(RecentIdGuard.Result.FULL, guard.add(tick << 12 | 100));
+        // 时间戳超过窗口后旧槽位可以覆盖
+        Assert.assertEquals(RecentIdGuard.Result.ADDED, guard.add((tick + 11) << 12 | 5));
+        Assert.assertEquals(RecentIdGuard.Result.DUPLICATE, guard.add((tick + 11) << 12 | 5));
+        Assert.assertEquals(2, guard.getHits());
+        Assert.assertEquals(1, guard.getOverflows());
+        Assert.assertEquals(36, guard.getChecks());
+    }
+
+    @Test
+    public void testDegradedUnique() {
+
+        AtomicLong offset = new AtomicLong();
+        TimeSource clock = () -> System.currentTimeMillis() - offset.get();
+        for (boolean atomic : new boolean[]{false, true}) {
+            offset.set(0);
+            IdGenMetrics metrics = new IdGenMetrics("test");
+            RecentIdGuard guard = new RecentIdGuard(LAYOUT, 8192, 1000);
+            IdGen idGen = atomic
+                    ? new AtomicSnowFlakeId(3, LAYOUT, null, metrics, null, 0, clock, guard)
+                    : new SnowFlakeId(3, LAYOUT, null, metrics, null, 0, 0, clock, guard);
+            idGen.nextId();
+            // 回拨 60s 且没有机器号管理，全部走降级
+            offset.set(60000);
+            Set<Long> ids = new HashSet<>();
+            // 3840 种可用取值中取 500 个，期望约 30 次重复
+            for (int i = 0; i < 500; i++) {
+                long id = idGen.nextId();
+                Assert.assertTrue(ids.add(id));
+                Assert.assertNotEquals(3, (id >>> 8) & 15);
+            }
+            Assert.assertEquals(500, metrics.getDegraded());
+            Assert.assertTrue(guard.getHits() > 0);
+        }
+    }
+
+    @Test
+    public void testFailWhenFull() {
+
+        AtomicLong offset = new AtomicLong();
+        TimeSource clock = () -> System.currentTimeMillis() - offset.get();
+        for (boolean atomic : new boolean[]{false, true}) {
+            offset.set(0);
+            IdGenMetrics metrics = new IdGenMetrics("test");
+            RecentIdGuard guard = new RecentIdGuard(LAYOUT, 64, 1000);
+            IdGen idGen = atomic
+                    ? new AtomicSnowFlakeId(3, LAYOUT, null, metrics, null, 0, clock, guard)
+                    : new SnowFlakeId(3, LAYOUT, null, metrics, null, 0, 0, clock, guard);
+            long last = idGen.nextId();
+            offset.set(60000);
+            long start = System.currentTimeMillis();
+            Set<Long> ids = new HashSet<>();
+            int failed = 0;
+            for (int i = 0; i < 200; i++) {
+                try {
+                    Assert.assertTrue(ids.add(idGen.nextId()));
+                } catch (DegradedIdUnavailableException e) {
+                    failed++;
+                }
+            }
+            // 窗口写满后直接失败，不等待 60s 的回拨
+            Assert.assertTrue(failed > 0);
+            Assert.assertEquals(200 - failed, metrics.getDegraded());
+            Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+            // 时间追上后用本机器号正常发放
+            offset.set(0);
+            long next = idGen.nextId();
+            Assert.assertTrue(next >>> 12 > last >>> 12);
+            Assert.assertEquals(3, (next >>> 8) & 15);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.adong.fingermark;
+
+import com.adong.fingermark.core.IdGenMetrics;
+import com.adong.fingermark.core.SegmentIdGen;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author ADong
+ * @Description SegmentIdGenTest
+ * @Date 2026-10-18 10:00 AM
+ */
+public class SegmentIdGenTest {
+
+    @Test
+    public void testPrefetch() throws Exception {
+
+        SegmentRedis redis = new SegmentRedis(0);
+        SegmentIdGen idGen = new SegmentIdGen(redis, "test", 10, 10, TimeUnit.HOURS.toMillis(1), 50,
+                new IdGenMetrics("test"));
+        for (long expect = 1; expect <= 6; expect++) {
+            Assert.assertEquals(expect, idGen.nextId());
+        }
+        // 使用超过一半后异步加载下一个号段
+        redis.awaitCalls(2);
+        Assert.assertEquals(2, redis.calls.get());
+        for (long expect = 7; expect <= 16; expect++) {
+            Assert.assertEquals(expect, idGen.nextId());
+        }
+        redis.awaitCalls(3);
+        // 切换号段时下一个号段已就绪，不再同步访问 Redis
+        Assert.assertArrayEquals(new long[]{17, 18, 19, 20, 21, 22, 23}, idGen.nextIds(7));
+        Assert.assertEquals(3, redis.calls.get());
+    }
+
+    @Test
+    public void testTimeoutFallback() throws Exception {
+
+        // 第二次加载（异步预加载）在 Redis 分配号段后迟迟不返回
+        SegmentRedis redis = new SegmentRedis(2);
+        SegmentIdGen idGen = new SegmentIdGen(redis, "test", 10, 10, TimeUnit.HOURS.toMillis(1), 50,
+                new IdGenMetrics("test"));
+        long last = 0;
+        for (int i = 0; i < 10; i++) {
+            last = idGen.nextId();
+        }
+        Assert.assertEquals(10, last);
+        // 等待超时后同步加载 [21, 30]
+        long start = System.nanoTime();
+        Assert.assertEquals(21, idGen.nextId());
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(400));
+        // 晚到的 [11, 20] 必须丢弃
+        redis.release.countDown();
+        redis.awaitCalls(3);
+        Thread.sleep(50);
+        last = 21;
+        for (int i = 0; i < 30; i++) {
+            long id = idGen.nextId();
+            Assert.assertTrue(id + " after " + last, id > last);
+            Assert.assertTrue(id > 20);
+            last = id;
+        }
+    }
+
+    @Test
+    public void testStepAdjustment() throws Exception {
+
+        SegmentRedis redis = new SegmentRedis(0);
+        SegmentIdGen idGen = new SegmentIdGen(redis, "test", 10, 40, 100, 10, new IdGenMetrics("test"));
+        Assert.assertEquals(10, idGen.getStep());
+        // 号段消耗过快，步长翻倍直到上限
+        consumeUntil(idGen, redis, 2);
+        Assert.assertEquals(20, idGen.getStep());
+        consumeUntil(idGen, redis, 3);
+        Assert.assertEquals(40, idGen.getStep());
+        consumeUntil(idGen, redis, 4);
+        Assert.assertEquals(40, idGen.getStep());
+        // 消耗时长超过期望的两倍，步长减半
+        Thread.sleep(250);
+        consumeUntil(idGen, redis, 5);
+        Assert.assertEquals(20, idGen.getStep());
+    }
+
+    private static void consumeUntil(SegmentIdGen idGen, SegmentRedis redis, int calls) throws InterruptedException {
+        while (redis.calls.get() < calls) {
+            idGen.nextId();
+        }
+        redis.awaitCalls(calls);
+    }
+
+    /**
+     * 只支持 INCRBY 的 RedisTemplate，第 blockCall 次调用分配号段后等待 release 才返回
+     */
+    private static class SegmentRedis extends RedisTemplate<String, Object> {
+
+        private final AtomicLong counter = new AtomicLong();
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private final ValueOperations<String, Object> valueOperations;
+
+        @SuppressWarnings("unchecked")
+        private SegmentRedis(int blockCall) {
+            this.valueOperations = (ValueOperations<String, Object>) Proxy.newProxyInstance(
+                    SegmentRedis.class.getClassLoader(),
+                    new Class[]{ValueOperations.class},
+                    (proxy, method, args) -> {
+                        if (!"increment".equals(method.getName()) || args == null || args.length != 2) {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        long end = counter.addAndGet(((Number) args[1]).longValue());
+                        int call = calls.incrementAndGet();
+                        if (call == blockCall) {
+                            release.await();
+                        }
+                        return end;
+                    });
+        }
+
+        @Override
+        public ValueOperations<String, Object> opsForValue() {
+            return valueOperations;
+        }
+
+        private void awaitCalls(int expect) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (calls.get() < expect && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+            Assert.assertTrue(calls.get() >= expect);
+            // 号段在调用返回后才安装
+            Thread.sleep(20);
+        }
+    }
+}
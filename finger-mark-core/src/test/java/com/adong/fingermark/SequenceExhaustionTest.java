@@ -0,0 +1,67 @@
+package com.adong.fingermark;
+
+import com.adong.fingermark.core.AtomicSnowFlakeId;
+import com.adong.fingermark.core.IdGenMetrics;
+import com.adong.fingermark.core.IdLayout;
+import com.adong.fingermark.core.SnowFlakeId;
+import com.adong.fingermark.core.TimeSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author ADong
+ * @Description SequenceExhaustionTest
+ * @Date 2026-10-18 10:30 AM
+ */
+public class SequenceExhaustionTest {
+
+    private static final IdLayout LAYOUT = IdLayout.legacy(10);
+
+    @Test
+    public void testFullSequenceRange() {
+
+        long now = System.currentTimeMillis();
+        SnowFlakeId idGen = new SnowFlakeId(1, LAYOUT, null, new IdGenMetrics("test"), null, 0, 0, () -> now);
+        long[] ids = idGen.nextIds(4096);
+        // 序列从 0 开始用满，不浪费起始区间
+        Assert.assertEquals(0, LAYOUT.sequenceOf(ids[0]));
+        Assert.assertEquals(4095, LAYOUT.sequenceOf(ids[4095]));
+        Assert.assertEquals(now, LAYOUT.tickOf(ids[4095]));
+    }
+
+    @Test
+    public void testBorrowNextTick() {
+
+        long now = System.currentTimeMillis();
+        IdGenMetrics metrics = new IdGenMetrics("test");
+        SnowFlakeId idGen = new SnowFlakeId(1, LAYOUT, null, metrics, null, 0, 2, () -> now);
+        // 时钟不走，借用后两个时间戳的序列，不等待
+        long[] ids = idGen.nextIds(4096 * 3);
+        for (int i = 1; i < ids.length; i++) {
+            Assert.assertTrue(ids[i] > ids[i - 1]);
+        }
+        Assert.assertEquals(now + 2, LAYOUT.tickOf(ids[ids.length - 1]));
+        Assert.assertEquals(2, idGen.getLead());
+        Assert.assertEquals(2, metrics.getClockBorrows());
+        // 系统时间落后于借用的时间戳，不当作回拨
+        Assert.assertEquals(0, metrics.getDegraded());
+        Assert.assertEquals(0, metrics.getRollbackWaits());
+    }
+
+    @Test
+    public void testParkUntilNextTick() {
+
+        // 发放速度远超每毫秒 4096 个，借用 1ms 后序列耗尽挂起等待而不是失败
+        IdGenMetrics metrics = new IdGenMetrics("test");
+        AtomicSnowFlakeId atomic = new AtomicSnowFlakeId(2, LAYOUT, null, metrics, null, 1, TimeSource.SYSTEM);
+        long last = 0;
+        for (int i = 0; i < 4096 * 8; i++) {
+            long id = atomic.nextId();
+            Assert.assertTrue(id > last);
+            last = id;
+        }
+        Assert.assertTrue(metrics.getSequenceExhausted() > 0);
+        Assert.assertTrue(atomic.getLead() <= 1);
+        Assert.assertEquals(0, metrics.getDegraded());
+    }
+}
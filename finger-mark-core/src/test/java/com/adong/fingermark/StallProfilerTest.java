@@ -0,0 +1,63 @@
+package com.adong.fingermark;
+
+import com.adong.fingermark.core.IdGenMetrics;
+import com.adong.fingermark.core.IdLayout;
+import com.adong.fingermark.core.SnowFlakeId;
+import com.adong.fingermark.core.TimeSource;
+import com.adong.fingermark.jfr.StallProfiler;
+import com.adong.fingermark.jfr.StallSummary;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author ADong
+ * @Description StallProfilerTest
+ * @Date 2026-10-18 2:00 PM
+ */
+public class StallProfilerTest {
+
+    @Test
+    public void testSequenceWaitSummary() throws Exception {
+
+        Assume.assumeTrue(StallProfiler.isAvailable());
+        // 8位序列，每毫秒 256 个 id，持续发放必然等待下一个时间戳
+        SnowFlakeId idGen = new SnowFlakeId(3, new IdLayout(0, 1, 4, 8), null, new IdGenMetrics("stall"),
+                null, 0, 0, TimeSource.SYSTEM, null);
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread issuer = new Thread(() -> {
+            while (!stop.get()) {
+                idGen.nextId();
+            }
+        });
+        issuer.start();
+        StallProfiler profiler = new StallProfiler();
+        try {
+            List<StallSummary> summaries = profiler.summarize(1, 0, 10);
+            StallSummary sequenceWait = summaries.stream()
+                    .filter(summary -> summary.getCause().endsWith("SequenceWait") && "stall".equals(summary.getKey()))
+                    .findFirst().orElse(null);
+            Assert.assertNotNull(summaries.toString(), sequenceWait);
+            Assert.assertTrue(sequenceWait.getCount() > 0);
+        } finally {
+            stop.set(true);
+            issuer.join();
+        }
+    }
+
+    @Test
+    public void testRejectInvalidArgs() {
+
+        Assume.assumeTrue(StallProfiler.isAvailable());
+        StallProfiler profiler = new StallProfiler();
+        try {
+            profiler.record(StallProfiler.MAX_SECONDS + 1, 0);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // 超过最长记录时间
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.adong.fingermark;
+
+import com.adong.fingermark.core.TokenBucket;
+import com.adong.fingermark.manager.RateLimitedException;
+import com.adong.fingermark.manager.TenantLimiter;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author ADong
+ * @Description TenantLimiterTest
+ * @Date 2026-10-18 3:10 PM
+ */
+public class TenantLimiterTest {
+
+    @Test
+    public void testTokenBucket() throws InterruptedException {
+
+        // 每秒 100 个，突发 10 个
+        TokenBucket bucket = new TokenBucket(100, 10);
+        int acquired = 0;
+        while (bucket.tryAcquire(1)) {
+            acquired++;
+        }
+        Assert.assertTrue(acquired >= 10 && acquired <= 11);
+        Assert.assertFalse(bucket.tryAcquire(11));
+        Thread.sleep(50);
+        Assert.assertTrue(bucket.tryAcquire(3));
+    }
+
+    @Test
+    public void testOversizedBatch() throws InterruptedException {
+
+        // 每秒 1000 个，突发 10 个，批量 50 个
+        TokenBucket bucket = new TokenBucket(1000, 10);
+        Assert.assertTrue(bucket.tryAcquire(50));
+        // 透支 40 个令牌，补回之前全部拒绝
+        Assert.assertFalse(bucket.tryAcquire(1));
+        Assert.assertEquals(0, bucket.available());
+        Thread.sleep(60);
+        Assert.assertTrue(bucket.tryAcquire(50));
+
+        TenantLimiter limiter = new TenantLimiter(16, null);
+        limiter.configure("batch", 1000, 10, 0);
+        limiter.acquire("batch", 50, false).release();
+        Assert.assertEquals(1, limiter.quota("batch").getAdmitted());
+    }
+
+    @Test
+    public void testIsolation() {
+
+        TenantLimiter limiter = new TenantLimiter(16, null);
+        limiter.configure("noisy", 1, 5, 0);
+        limiter.configure("quiet", 1, 5, 0);
+        int admitted = 0;
+        for (int i = 0; i < 100; i++) {
+            try {
+                limiter.acquire("noisy", 1, false).release();
+                admitted++;
+            } catch (RateLimitedException e) {
+                Assert.assertEquals("noisy", e.getAppKey());
+            }
+        }
+        Assert.assertTrue(admitted <= 6);
+        // 其他 appKey 不受影响
+        limiter.acquire("quiet", 5, false).release();
+        TenantLimiter.Quota noisy = limiter.quota("noisy");
+        Assert.assertEquals(admitted, noisy.getAdmitted());
+        Assert.assertEquals(100 - admitted, noisy.getRejectedRate());
+        Assert.assertEquals(0, noisy.getInFlight());
+    }
+
+    @Test
+    public void testFallbackAndConcurrency() {
+
+        TenantLimiter limiter = new TenantLimiter(4, null);
+        // 默认生成器合计突发 10 个
+        limiter.configure(TenantLimiter.DEFAULT_APP_KEY, 1, 10, 0);
+        limiter.acquire("a", 6, true).release();
+        try {
+            limiter.acquire("b", 6, true);
+            Assert.fail();
+        } catch (RateLimitedException e) {
+            Assert.assertEquals(0, limiter.quota("b").getInFlight());
+        }
+        // 已注册的 appKey 不消耗默认生成器的配额
+        limiter.acquire("b", 6, false).release();
+
+        limiter.configure("c", 0, 0, 1);
+        TenantLimiter.Quota quota = limiter.acquire("c", 1, false);
+        try {
+            limiter.acquire("c", 1, false);
+            Assert.fail();
+        } catch (RateLimitedException e) {
+            Assert.assertEquals(1, limiter.quota("c").getRejectedConcurrency());
+        }
+        quota.release();
+        limiter.acquire("c", 1, false).release();
+
+        // 超过配额数量上限后共用 overflow 配额
+        Assert.assertEquals(TenantLimiter.OVERFLOW_APP_KEY, limiter.quota("d").getAppKey());
+    }
+}
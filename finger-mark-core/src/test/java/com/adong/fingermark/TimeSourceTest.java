@@ -0,0 +1,59 @@
+package com.adong.fingermark;
+
+import com.adong.fingermark.core.MonotonicTimeSource;
+import com.adong.fingermark.core.TickerTimeSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author ADong
+ * @Description TimeSourceTest
+ * @Date 2026-10-18 11:20 AM
+ */
+public class TimeSourceTest {
+
+    @Test
+    public void testMonotonic() throws InterruptedException {
+
+        // 对齐间隔 1ms，读取期间频繁替换锚点
+        MonotonicTimeSource timeSource = new MonotonicTimeSource(1, 0.001, 1000);
+        AtomicBoolean failed = new AtomicBoolean();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                long last = 0;
+                long end = System.currentTimeMillis() + 300;
+                while (System.currentTimeMillis() < end) {
+                    long now = timeSource.currentTimeMillis();
+                    if (now < last) {
+                        failed.set(true);
+                    }
+                    last = now;
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertFalse(failed.get());
+        Assert.assertTrue(Math.abs(timeSource.getOffset()) < 50);
+        timeSource.close();
+    }
+
+    @Test
+    public void testTicker() throws InterruptedException {
+
+        MonotonicTimeSource monotonic = new MonotonicTimeSource(1000, 0.001, 1000);
+        TickerTimeSource ticker = new TickerTimeSource(monotonic, 200);
+        long start = ticker.currentTimeMillis();
+        Thread.sleep(50);
+        long now = ticker.currentTimeMillis();
+        Assert.assertTrue(now - start >= 40);
+        Assert.assertTrue(Math.abs(now - System.currentTimeMillis()) < 50);
+        ticker.close();
+        monotonic.close();
+    }
+}
@@ -0,0 +1,117 @@
+package com.adong.fingermark;
+
+import com.adong.fingermark.core.IdGenMetrics;
+import com.adong.fingermark.core.IdLayout;
+import com.adong.fingermark.core.SnowFlakeId;
+import com.adong.fingermark.core.TimestampCheckpoint;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+/**
+ * @author ADong
+ * @Description TimestampCheckpointTest
+ * @Date 2026-10-18 8:00 PM
+ */
+public class TimestampCheckpointTest {
+
+    private static final IdLayout LAYOUT = IdLayout.legacy(10);
+
+    @Test
+    public void testRestart() throws Exception {
+
+        String dir = Files.createTempDirectory("checkpoint").toString();
+        TimestampCheckpoint checkpoint = TimestampCheckpoint.open(dir, "test", 200, 0, LAYOUT);
+        Assert.assertNotNull(checkpoint);
+        Assert.assertEquals(-1, checkpoint.getSavedWorkerId());
+        // 同一个文件不能被打开两次
+        Assert.assertNull(TimestampCheckpoint.open(dir, "test", 200, 0, LAYOUT));
+
+        SnowFlakeId idGen = new SnowFlakeId(9, 10, null, new IdGenMetrics("test"), checkpoint);
+        long renewedTime = System.currentTimeMillis();
+        checkpoint.renewed(9, renewedTime);
+        long lastId = 0;
+        for (int i = 0; i < 10000; i++) {
+            lastId = idGen.nextId();
+        }
+        idGen.destory();
+
+        TimestampCheckpoint reopened = TimestampCheckpoint.open(dir, "test", 200, 0, LAYOUT);
+        Assert.assertNotNull(reopened);
+        Assert.assertEquals(9, reopened.getSavedWorkerId());
+        Assert.assertEquals(renewedTime, reopened.getSavedRenewedTime());
+        long lastTime = lastId >>> 22;
+        Assert.assertTrue(reopened.getSavedReservedTime() > lastTime);
+        Assert.assertTrue(reopened.isReusable(60000, 1000));
+        Assert.assertFalse(reopened.isReusable(1, 1000));
+
+        reopened.awaitReservedTime();
+        Assert.assertTrue(System.currentTimeMillis() > reopened.getSavedReservedTime());
+        SnowFlakeId restarted = new SnowFlakeId(9, 10, null, new IdGenMetrics("test"), reopened);
+        Assert.assertTrue(restarted.nextId() >>> 22 > reopened.getSavedReservedTime());
+        restarted.destory();
+        new File(dir, "test.ckpt").delete();
+    }
+
+    @Test
+    public void testReuseRequiresRenewal() throws Exception {
+
+        String dir = Files.createTempDirectory("checkpoint").toString();
+        TimestampCheckpoint checkpoint = TimestampCheckpoint.open(dir, "test", 200, 0, LAYOUT);
+        Assert.assertNotNull(checkpoint);
+        long now = System.currentTimeMillis();
+        checkpoint.mark(3, now);
+        // 其他机器号的续期记录不算
+        checkpoint.renewed(4, now);
+        checkpoint.close();
+        TimestampCheckpoint reopened = TimestampCheckpoint.open(dir, "test", 200, 0, LAYOUT);
+        Assert.assertEquals(3, reopened.getSavedWorkerId());
+        Assert.assertEquals(-1, reopened.getSavedRenewedTime());
+        // 一直在发放但没有续期成功的记录，不能沿用
+        Assert.assertFalse(reopened.isReusable(60000, 1000));
+
+        // 续期成功后立即写入，与发放无关
+        reopened.mark(3, now);
+        reopened.renewed(3, now - 50000);
+        reopened.close();
+        reopened = TimestampCheckpoint.open(dir, "test", 200, 0, LAYOUT);
+        Assert.assertEquals(now - 50000, reopened.getSavedRenewedTime());
+        Assert.assertTrue(reopened.isReusable(60000, 1000));
+        // 最近一次续期距今超过租约余量
+        Assert.assertFalse(reopened.isReusable(40000, 1000));
+        reopened.close();
+        new File(dir, "test.ckpt").delete();
+    }
+
+    @Test
+    public void testLayoutChanged() throws Exception {
+
+        String dir = Files.createTempDirectory("checkpoint").toString();
+        TimestampCheckpoint checkpoint = TimestampCheckpoint.open(dir, "test", 200, 1, LAYOUT);
+        long now = System.currentTimeMillis();
+        checkpoint.mark(3, now);
+        checkpoint.renewed(3, now);
+        checkpoint.close();
+
+        TimestampCheckpoint reopened = TimestampCheckpoint.open(dir, "test", 200, 1, IdLayout.legacy(10));
+        Assert.assertEquals(1, reopened.getSavedDatacenterId());
+        Assert.assertTrue(reopened.isReusable(60000, 1000));
+        reopened.close();
+        // 数据中心号变化
+        reopened = TimestampCheckpoint.open(dir, "test", 200, 2, LAYOUT);
+        Assert.assertEquals(3, reopened.getSavedWorkerId());
+        Assert.assertFalse(reopened.isReusable(60000, 1000));
+        reopened.close();
+        // 机器号位数变化
+        reopened = TimestampCheckpoint.open(dir, "test", 200, 1, IdLayout.legacy(12));
+        Assert.assertFalse(reopened.isReusable(60000, 1000));
+        reopened.close();
+        // 起始时间变化
+        reopened = TimestampCheckpoint.open(dir, "test", 200, 1, IdLayout.fit(1000, 1, 10, 50, 1000));
+        Assert.assertFalse(reopened.isReusable(60000, 1000));
+        reopened.close();
+        new File(dir, "test.ckpt").delete();
+    }
+}
@@ -0,0 +1,123 @@
+package com.adong.fingermark;
+
+import com.adong.fingermark.core.IdGenMetrics;
+import com.adong.fingermark.core.IdLayout;
+import com.adong.fingermark.core.LocalWorkerIdRegistry;
+import com.adong.fingermark.core.TimestampCheckpoint;
+import com.adong.fingermark.core.WorkerIdManager;
+import com.adong.fingermark.core.WorkerIdRenewer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * @author ADong
+ * @Description WorkerIdManagerTest
+ * @Date 2026-10-18 4:00 PM
+ */
+public class WorkerIdManagerTest {
+
+    @Test
+    public void testSharedLease() throws Exception {
+
+        LocalWorkerIdRegistry registry = new LocalWorkerIdRegistry(Files.createTempDirectory("worker-registry").toString());
+        WorkerIdRenewer renewer = new WorkerIdRenewer(60, 30);
+        WorkerIdManager manager = new WorkerIdManager(registry, true, "shared", 8, 60,
+                new IdGenMetrics("shared"), true, renewer);
+        long first = manager.registerAndGetWorkerId();
+        // 两个生成器共用 first
+        manager.retain();
+        manager.retain();
+
+        // 第一个生成器切走，first 上还有第二个生成器，继续续期
+        long second = manager.switchWorkerId(first);
+        Assert.assertNotEquals(first, second);
+        Assert.assertEquals(Arrays.asList(second, first), manager.getLeaseWorkerIds());
+
+        // 第二个生成器跟随切换，first 不再续期
+        Assert.assertEquals(Long.valueOf(second), manager.switchWorkerId(first));
+        Assert.assertEquals(Collections.singletonList(second), manager.getLeaseWorkerIds());
+
+        // 第一个生成器再次切走，second 上的第二个生成器销毁后 second 不再续期
+        long third = manager.switchWorkerId(second);
+        Assert.assertEquals(Arrays.asList(third, second), manager.getLeaseWorkerIds());
+        manager.destroy(second);
+        Assert.assertEquals(Collections.singletonList(third), manager.getLeaseWorkerIds());
+        renewer.destroy();
+        registry.close();
+    }
+
+    @Test
+    public void testSwitchFailKeepsWorkerId() throws Exception {
+
+        LocalWorkerIdRegistry registry = new LocalWorkerIdRegistry(Files.createTempDirectory("worker-registry").toString());
+        WorkerIdRenewer renewer = new WorkerIdRenewer(60, 30);
+        WorkerIdManager manager = new WorkerIdManager(registry, true, "shared", 1, 60,
+                new IdGenMetrics("shared"), true, renewer);
+        long workerId = manager.registerAndGetWorkerId();
+        manager.retain();
+        manager.retain();
+        // 只有 1 个机器号，切换失败后仍使用原机器号
+        Assert.assertNull(manager.switchWorkerId(workerId));
+        Assert.assertEquals(Long.valueOf(workerId), manager.getWorkerId());
+        Assert.assertEquals(Collections.singletonList(workerId), manager.getLeaseWorkerIds());
+        renewer.destroy();
+        registry.close();
+    }
+
+    @Test
+    public void testRenewer() throws Exception {
+
+        LocalWorkerIdRegistry registry = new LocalWorkerIdRegistry(Files.createTempDirectory("worker-registry").toString());
+        // 租约 4s，首次续期在 3s 后
+        WorkerIdRenewer renewer = new WorkerIdRenewer(4, 1);
+        WorkerIdManager manager = new WorkerIdManager(registry, true, "renew", 8, 4,
+                new IdGenMetrics("renew"), true, renewer);
+        long first = manager.registerAndGetWorkerId();
+        manager.retain();
+        manager.retain();
+        long second = manager.switchWorkerId(first);
+        manager.switchWorkerId(first);
+        Assert.assertEquals(1, renewer.getManagerCount());
+        Thread.sleep(5000);
+        // 只有 second 被续期，first 已经没有生成器使用，租约到期
+        Assert.assertEquals(1, registry.countLive("renew"));
+        Assert.assertEquals(first, registry.acquire("renew", first, 8, 1, 60));
+        Assert.assertEquals(-1, registry.acquire("renew", second, 8, 1, 60));
+
+        manager.destroy(second);
+        manager.destroy(second);
+        manager.destroy();
+        Assert.assertEquals(0, renewer.getManagerCount());
+        renewer.destroy();
+        registry.close();
+    }
+
+    @Test
+    public void testCheckpointRenewal() throws Exception {
+
+        LocalWorkerIdRegistry registry = new LocalWorkerIdRegistry(Files.createTempDirectory("worker-registry").toString());
+        String dir = Files.createTempDirectory("checkpoint").toString();
+        TimestampCheckpoint checkpoint = TimestampCheckpoint.open(dir, "lease", 200, 0, IdLayout.legacy(8));
+        WorkerIdRenewer renewer = new WorkerIdRenewer(60, 30);
+        WorkerIdManager manager = new WorkerIdManager(registry, true, "lease", 8, 60,
+                new IdGenMetrics("lease"), true, renewer);
+        manager.setCheckpoint(checkpoint);
+        long before = System.currentTimeMillis();
+        long workerId = manager.registerAndGetWorkerId();
+        checkpoint.mark(workerId, System.currentTimeMillis());
+        checkpoint.close();
+
+        // 注册成功的时间随检查点一起写入
+        TimestampCheckpoint reopened = TimestampCheckpoint.open(dir, "lease", 200, 0, IdLayout.legacy(8));
+        Assert.assertEquals(workerId, reopened.getSavedWorkerId());
+        Assert.assertTrue(reopened.getSavedRenewedTime() >= before);
+        Assert.assertTrue(reopened.isReusable(30000, 1000));
+        reopened.close();
+        renewer.destroy();
+        registry.close();
+    }
+}
@@ -0,0 +1,227 @@
+package com.adong.fingermark.advice;
+
+import com.adong.fingermark.config.PropertyFactory;
+import com.adong.fingermark.constant.ConfigConstant;
+import com.alibaba.fastjson.JSON;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author ADong
+ * @Description 访问日志缓冲区
+ * 请求线程只做采样判断并把引用写入预分配的环形槽位（多生产者 CAS 抢占写位置），
+ * 参数、返回值的序列化和日志输出都由后台线程完成；缓冲区满时直接丢弃并计数，不阻塞请求
+ * 不序列化返回值时输出 returnObj=-，保持日志字段和原格式一致，方便日志解析
+ * @Date 2026-10-18 2:20 PM
+ */
+@Component
+public class AccessLogBuffer implements InitializingBean, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(MethodLogger.class);
+
+    private static final Logger log = LoggerFactory.getLogger(AccessLogBuffer.class);
+
+    /** 不序列化返回值时的占位 **/
+    private static final String RESULT_OMITTED = "-";
+
+    /** 缓冲区为空时后台线程休眠时间，单位ms **/
+    private static final long IDLE_PARK_MILLIS = 1;
+
+    /** 1/N 采样，1 表示全部记录，0 表示只记录慢调用 **/
+    private int sampleRate;
+
+    /** 慢调用阈值，单位μs，超过阈值的调用总是记录，0 表示不启用 **/
+    private long slowThreshold;
+
+    /** 是否序列化返回值 **/
+    private boolean logResult;
+
+    private Entry[] entries;
+
+    private int mask;
+
+    /** 下一个可写位置 **/
+    private final AtomicLong writeCursor = new AtomicLong();
+
+    /** 下一个待消费位置，只有后台线程写 **/
+    private volatile long readCursor;
+
+    /** 缓冲区满丢弃的日志数 **/
+    private final LongAdder dropped = new LongAdder();
+
+    /** 已经告警过的丢弃数，只有后台线程读写 **/
+    private long reportedDropped;
+
+    private volatile boolean running = true;
+
+    private Thread writer;
+
+    @Override
+    public void afterPropertiesSet() {
+
+        Properties properties = PropertyFactory.getProperties();
+        sampleRate = Integer.parseInt(properties.getProperty(ConfigConstant.ACCESS_LOG_SAMPLE_RATE, "1"));
+        slowThreshold = Long.parseLong(properties.getProperty(ConfigConstant.ACCESS_LOG_SLOW_THRESHOLD, "0"));
+        logResult = Boolean.parseBoolean(properties.getProperty(ConfigConstant.ACCESS_LOG_RESULT_ENABLE, "false"));
+        int bufferSize = Integer.parseInt(properties.getProperty(ConfigConstant.ACCESS_LOG_BUFFER_SIZE, "4096"));
+        int capacity = Integer.highestOneBit(Math.max(bufferSize, 2) - 1) << 1;
+        entries = new Entry[capacity];
+        for (int i = 0; i < capacity; i++) {
+            entries[i] = new Entry();
+        }
+        mask = capacity - 1;
+        writer = new Thread(this::drainLoop, "access-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("AccessLogBuffer init success, sampleRate={}, slowThreshold={}μs, logResult={}, capacity={}",
+                sampleRate, slowThreshold, logResult, capacity);
+    }
+
+    /**
+     * 是否需要记录本次调用
+     * @param elapsedMicros 耗时，单位μs
+     * @return
+     */
+    public boolean shouldLog(long elapsedMicros) {
+
+        if (slowThreshold > 0 && elapsedMicros >= slowThreshold) {
+            return true;
+        }
+        return sampleRate == 1 || (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) == 0);
+    }
+
+    /**
+     * 写入一条访问日志，缓冲区满时丢弃
+     * @param staticPart 切点静态信息，每个切点只有一个实例
+     * @param args
+     * @param retval
+     * @param elapsedMicros
+     */
+    public void offer(JoinPoint.StaticPart staticPart, Object[] args, Object retval, long elapsedMicros) {
+
+        long sequence;
+        do {
+            sequence = writeCursor.get();
+            if (sequence - readCursor >= entries.length) {
+                dropped.increment();
+                return;
+            }
+        } while (!writeCursor.compareAndSet(sequence, sequence + 1));
+
+        Entry entry = entries[(int) (sequence & mask)];
+        entry.staticPart = staticPart;
+        entry.args = args;
+        entry.retval = logResult ? retval : null;
+        entry.elapsedMicros = elapsedMicros;
+        // volatile 写发布
+        entry.published = sequence;
+    }
+
+    private void drainLoop() {
+
+        while (running || readCursor < writeCursor.get()) {
+            reportDropped();
+            long sequence = readCursor;
+            Entry entry = entries[(int) (sequence & mask)];
+            if (entry.published != sequence) {
+                if (!running) {
+                    break;
+                }
+                // 没有新日志或生产者还未写完
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(IDLE_PARK_MILLIS));
+                continue;
+            }
+            try {
+                logger.info(format(entry));
+            } catch (Exception e) {
+                log.error("access log write error", e);
+            } finally {
+                entry.staticPart = null;
+                entry.args = null;
+                entry.retval = null;
+                readCursor = sequence + 1;
+            }
+        }
+    }
+
+    private String format(Entry entry) {
+
+        Signature signature = entry.staticPart.getSignature();
+        StringBuilder builder = new StringBuilder(128)
+                .append("[METHOD_LOGGER]method_name=")
+                .append(signature.getDeclaringTypeName()).append('.').append(signature.getName())
+                .append(";process_time=").append(entry.elapsedMicros).append("μs")
+                .append(";args=[");
+        Object[] args = entry.args;
+        if (args != null) {
+            for (int i = 0; i < args.length; i++) {
+                if (i > 0) {
+                    builder.append(", ");
+                }
+                builder.append(getData(args[i]));
+            }
+        }
+        builder.append("];returnObj=").append(logResult ? getData(entry.retval) : RESULT_OMITTED);
+        return builder.toString();
+    }
+
+    private void reportDropped() {
+
+        long total = dropped.sum();
+        if (total > reportedDropped) {
+            log.warn("access log buffer full, dropped={}", total - reportedDropped);
+            reportedDropped = total;
+        }
+    }
+
+    private String getData(Object obj) {
+
+        if (null == obj) {
+            return "null";
+        }
+        if (obj instanceof ServletResponse || obj instanceof ServletRequest) {
+            return "null";
+        }
+        return JSON.toJSONString(obj);
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(1));
+    }
+
+    /**
+     * 预分配的日志槽位
+     */
+    private static class Entry {
+
+        private volatile long published = -1;
+
+        private JoinPoint.StaticPart staticPart;
+
+        private Object[] args;
+
+        private Object retval;
+
+        private long elapsedMicros;
+    }
+}
@@ -0,0 +1,38 @@
+package com.adong.fingermark.advice;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * @author ADong
+ * @Description AOP 记录方法调用参数,耗时
+ * 请求线程只计时和采样，序列化与输出交给 {@link AccessLogBuffer} 后台线程
+ * @Date 2022-08-16 5:02 PM
+ */
+
+@Aspect
+@Component
+public class MethodLogger {
+
+    @Autowired
+    private AccessLogBuffer accessLogBuffer;
+
+    @Around("execution(* com.adong.fingermark.controller.*.*(..)))")
+    public Object methodLogger(ProceedingJoinPoint jp) throws Throwable {
+
+        long start = System.nanoTime();
+        Object retval = jp.proceed();
+
+        long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        if (accessLogBuffer.shouldLog(elapsedMicros)) {
+            accessLogBuffer.offer(jp.getStaticPart(), jp.getArgs(), retval, elapsedMicros);
+        }
+        return retval;
+    }
+}
@@ -0,0 +1,103 @@
+package com.adong.fingermark.client;
+
+import com.adong.fingermark.server.IdTcpProtocol;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author ADong
+ * @Description {@link com.adong.fingermark.server.IdTcpServer} 的阻塞客户端，非线程安全，每个线程使用独立连接
+ * @Date 2026-10-18 11:40 AM
+ */
+public class IdTcpClient implements Closeable {
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    private final Socket socket;
+
+    private final DataInputStream in;
+
+    private final DataOutputStream out;
+
+    public IdTcpClient(String host, int port, int timeoutMillis) throws IOException {
+        this.socket = new Socket();
+        this.socket.setTcpNoDelay(true);
+        this.socket.setSoTimeout(timeoutMillis);
+        this.socket.connect(new InetSocketAddress(host, port), timeoutMillis);
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), STREAM_BUFFER_SIZE));
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), STREAM_BUFFER_SIZE));
+    }
+
+    public long nextId(String appKey) throws IOException {
+        return nextIds(appKey, 1)[0];
+    }
+
+    public long[] nextIds(String appKey, int count) throws IOException {
+
+        writeRequest(appKey, count);
+        out.flush();
+        return readResponse();
+    }
+
+    /**
+     * 流水线批量请求：先连续发送 requests 个请求，再按顺序读取响应，只有一次往返等待
+     * @param appKey
+     * @param count 每个请求的数量
+     * @param requests 请求个数
+     * @return
+     * @throws IOException
+     */
+    public long[][] pipeline(String appKey, int count, int requests) throws IOException {
+
+        for (int i = 0; i < requests; i++) {
+            writeRequest(appKey, count);
+        }
+        out.flush();
+        long[][] responses = new long[requests][];
+        for (int i = 0; i < requests; i++) {
+            responses[i] = readResponse();
+        }
+        return responses;
+    }
+
+    private void writeRequest(String appKey, int count) throws IOException {
+
+        byte[] key = appKey.getBytes(StandardCharsets.UTF_8);
+        if (key.length > IdTcpProtocol.MAX_APP_KEY_LENGTH) {
+            throw new IllegalArgumentException("appKey too long");
+        }
+        out.writeInt(Short.BYTES + key.length + Integer.BYTES);
+        out.writeShort(key.length);
+        out.write(key);
+        out.writeInt(count);
+    }
+
+    private long[] readResponse() throws IOException {
+
+        int length = in.readInt();
+        byte status = in.readByte();
+        if (status != IdTcpProtocol.STATUS_OK) {
+            byte[] msg = new byte[length - 1];
+            in.readFully(msg);
+            throw new IOException("id server error: " + new String(msg, StandardCharsets.UTF_8));
+        }
+        long[] ids = new long[(length - 1) / Long.BYTES];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = in.readLong();
+        }
+        return ids;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
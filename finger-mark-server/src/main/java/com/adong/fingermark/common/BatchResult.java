@@ -0,0 +1,62 @@
+package com.adong.fingermark.common;
+
+import com.adong.fingermark.constant.Status;
+
+/**
+ * @author ADong
+ * @Description 批量获取 id 返回结果
+ * @Date 2026-10-18 11:20 AM
+ */
+public class BatchResult {
+
+    private static final long[] EMPTY_IDS = new long[0];
+
+    private long[] ids;
+    private Status status;
+    private String msg;
+
+    public BatchResult() {
+
+    }
+    public BatchResult(long[] ids, Status status, String msg) {
+        this.ids = ids;
+        this.status = status;
+        this.msg = msg;
+    }
+
+    public static BatchResult success(long[] ids) {
+        return new BatchResult(ids, Status.SUCCESS, null);
+    }
+
+    public static BatchResult error(String msg) {
+        return new BatchResult(EMPTY_IDS, Status.ERROR, msg);
+    }
+
+    public static BatchResult limited(String msg) {
+        return new BatchResult(EMPTY_IDS, Status.RATE_LIMITED, msg);
+    }
+
+    public long[] getIds() {
+        return ids;
+    }
+
+    public void setIds(long[] ids) {
+        this.ids = ids;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getMsg() {
+        return msg;
+    }
+
+    public void setMsg(String msg) {
+        this.msg = msg;
+    }
+}
@@ -0,0 +1,56 @@
+package com.adong.fingermark.common;
+
+import com.adong.fingermark.constant.Status;
+
+/**
+ * @author ADong
+ * @Description 查询类接口返回结果，data 为布局、解码结果或 id 区间
+ * @Date 2026-10-18 10:00 AM
+ */
+public class DataResult<T> {
+
+    private T data;
+    private Status status;
+    private String msg;
+
+    public DataResult() {
+
+    }
+    public DataResult(T data, Status status, String msg) {
+        this.data = data;
+        this.status = status;
+        this.msg = msg;
+    }
+
+    public static <T> DataResult<T> success(T data) {
+        return new DataResult<>(data, Status.SUCCESS, null);
+    }
+
+    public static <T> DataResult<T> error(String msg) {
+        return new DataResult<>(null, Status.ERROR, msg);
+    }
+
+    public T getData() {
+        return data;
+    }
+
+    public void setData(T data) {
+        this.data = data;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getMsg() {
+        return msg;
+    }
+
+    public void setMsg(String msg) {
+        this.msg = msg;
+    }
+}
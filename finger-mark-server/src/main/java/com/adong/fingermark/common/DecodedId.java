@@ -0,0 +1,88 @@
+package com.adong.fingermark.common;
+
+import com.adong.fingermark.core.IdLayout;
+
+/**
+ * @author ADong
+ * @Description id 解码结果
+ * @Date 2026-10-18 5:20 PM
+ */
+public class DecodedId {
+
+    private long id;
+
+    /** 时间单位的起始时间，单位ms **/
+    private long time;
+
+    /** 时间戳，单位为布局的时间单位 **/
+    private long tick;
+
+    private long datacenterId;
+
+    private long workerId;
+
+    private long sequence;
+
+    public DecodedId() {
+
+    }
+
+    public static DecodedId decode(IdLayout layout, long id) {
+        DecodedId decodedId = new DecodedId();
+        decodedId.id = id;
+        decodedId.tick = layout.tickOf(id);
+        decodedId.time = layout.toMillis(decodedId.tick);
+        decodedId.datacenterId = layout.datacenterIdOf(id);
+        decodedId.workerId = layout.workerIdOf(id);
+        decodedId.sequence = layout.sequenceOf(id);
+        return decodedId;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public void setTime(long time) {
+        this.time = time;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public void setTick(long tick) {
+        this.tick = tick;
+    }
+
+    public long getDatacenterId() {
+        return datacenterId;
+    }
+
+    public void setDatacenterId(long datacenterId) {
+        this.datacenterId = datacenterId;
+    }
+
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    public void setWorkerId(long workerId) {
+        this.workerId = workerId;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+}
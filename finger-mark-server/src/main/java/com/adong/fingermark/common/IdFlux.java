@@ -0,0 +1,42 @@
+package com.adong.fingermark.common;
+
+import com.adong.fingermark.server.IdSource;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * @author ADong
+ * @Description 按需拉取的 id 流，每个元素是一批 id
+ * 下游每请求一个元素才调用一次批量生成，生成与写出都在 boundedElastic 线程上执行，
+ * 生成器等待下一毫秒或时间回拨时不占用 Servlet 线程；客户端断开后取消订阅，停止生成
+ * @Date 2026-10-18 2:30 PM
+ */
+public final class IdFlux {
+
+    /** 不限数量，直到客户端断开 **/
+    public static final long UNBOUNDED = 0;
+
+    private IdFlux() {
+    }
+
+    /**
+     * @param idSource
+     * @param appKey
+     * @param count 总数量，{@link #UNBOUNDED} 表示不限
+     * @param chunk 每个元素包含的 id 数量
+     * @return
+     */
+    public static Flux<long[]> generate(IdSource idSource, String appKey, long count, int chunk) {
+
+        long total = count == UNBOUNDED ? Long.MAX_VALUE : count;
+        return Flux.<long[], Long>generate(() -> total, (remaining, sink) -> {
+            if (remaining <= 0) {
+                sink.complete();
+                return remaining;
+            }
+            long[] ids = idSource.nextIds(appKey, remaining < chunk ? remaining.intValue() : chunk);
+            sink.next(ids);
+            return count == UNBOUNDED ? remaining : remaining - ids.length;
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+}
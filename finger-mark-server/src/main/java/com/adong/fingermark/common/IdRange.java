@@ -0,0 +1,66 @@
+package com.adong.fingermark.common;
+
+import com.adong.fingermark.core.IdLayout;
+
+/**
+ * @author ADong
+ * @Description 时间区间 [start, end] 对应的 id 区间 [minId, maxId]，maxId 小于 minId 表示区间内没有 id
+ * @Date 2026-10-18 5:20 PM
+ */
+public class IdRange {
+
+    /** 起始时间，单位ms **/
+    private long start;
+
+    /** 结束时间，单位ms **/
+    private long end;
+
+    private long minId;
+
+    private long maxId;
+
+    public IdRange() {
+
+    }
+
+    public static IdRange of(IdLayout layout, long start, long end) {
+        IdRange range = new IdRange();
+        range.start = start;
+        range.end = end;
+        range.minId = layout.minId(start);
+        range.maxId = layout.maxId(end);
+        return range;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public void setStart(long start) {
+        this.start = start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public void setEnd(long end) {
+        this.end = end;
+    }
+
+    public long getMinId() {
+        return minId;
+    }
+
+    public void setMinId(long minId) {
+        this.minId = minId;
+    }
+
+    public long getMaxId() {
+        return maxId;
+    }
+
+    public void setMaxId(long maxId) {
+        this.maxId = maxId;
+    }
+}
@@ -0,0 +1,131 @@
+package com.adong.fingermark.common;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * @author ADong
+ * @Description 把 id 直接编码进线程复用的字节缓冲区再写出，不为单个 id 创建 String、Long 等对象
+ * 文本格式：十进制，多个 id 以 '\n' 分隔；二进制格式：每个 id 8 字节大端序
+ * @Date 2026-10-18 4:00 PM
+ */
+public final class IdWriter {
+
+    /** long 十进制最长 20 位，加符号位与分隔符 **/
+    private static final int MAX_TEXT_LENGTH = 21;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    private IdWriter() {
+    }
+
+    /**
+     * 写出十进制 id，以 '\n' 分隔
+     * @param out
+     * @param ids
+     * @param length 写出前 length 个
+     * @throws IOException
+     */
+    public static void writeText(OutputStream out, long[] ids, int length) throws IOException {
+
+        byte[] buffer = BUFFER.get();
+        int position = 0;
+        for (int i = 0; i < length; i++) {
+            if (position + MAX_TEXT_LENGTH > buffer.length) {
+                out.write(buffer, 0, position);
+                position = 0;
+            }
+            if (i > 0) {
+                buffer[position++] = '\n';
+            }
+            position = encodeDecimal(ids[i], buffer, position);
+        }
+        out.write(buffer, 0, position);
+    }
+
+    /**
+     * 写出单个十进制 id
+     * @param out
+     * @param id
+     * @throws IOException
+     */
+    public static void writeText(OutputStream out, long id) throws IOException {
+
+        byte[] buffer = BUFFER.get();
+        out.write(buffer, 0, encodeDecimal(id, buffer, 0));
+    }
+
+    /**
+     * 写出 8 字节大端序 id
+     * @param out
+     * @param ids
+     * @param length 写出前 length 个
+     * @throws IOException
+     */
+    public static void writeBinary(OutputStream out, long[] ids, int length) throws IOException {
+
+        byte[] buffer = BUFFER.get();
+        int position = 0;
+        for (int i = 0; i < length; i++) {
+            if (position + Long.BYTES > buffer.length) {
+                out.write(buffer, 0, position);
+                position = 0;
+            }
+            position = encodeBigEndian(ids[i], buffer, position);
+        }
+        out.write(buffer, 0, position);
+    }
+
+    /**
+     * 写出单个 8 字节大端序 id
+     * @param out
+     * @param id
+     * @throws IOException
+     */
+    public static void writeBinary(OutputStream out, long id) throws IOException {
+
+        byte[] buffer = BUFFER.get();
+        out.write(buffer, 0, encodeBigEndian(id, buffer, 0));
+    }
+
+    /**
+     * 十进制编码
+     * @return 写入后的位置
+     */
+    static int encodeDecimal(long id, byte[] buffer, int offset) {
+
+        if (id == Long.MIN_VALUE) {
+            byte[] min = Long.toString(id).getBytes();
+            System.arraycopy(min, 0, buffer, offset, min.length);
+            return offset + min.length;
+        }
+        if (id < 0) {
+            buffer[offset++] = '-';
+            id = -id;
+        }
+        int digits = 1;
+        for (long value = id; value >= 10; value /= 10) {
+            digits++;
+        }
+        int end = offset + digits;
+        for (int i = end - 1; i >= offset; i--) {
+            buffer[i] = (byte) ('0' + id % 10);
+            id /= 10;
+        }
+        return end;
+    }
+
+    /**
+     * 大端序编码
+     * @return 写入后的位置
+     */
+    static int encodeBigEndian(long id, byte[] buffer, int offset) {
+
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[offset++] = (byte) (id >>> shift);
+        }
+        return offset;
+    }
+}
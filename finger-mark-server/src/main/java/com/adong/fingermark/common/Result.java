@@ -29,6 +29,10 @@ public class Result {
         return new Result(ERROR_ID, Status.ERROR, ERROR_MSG);
     }
 
+    public static Result limited(String msg) {
+        return new Result(ERROR_ID, Status.RATE_LIMITED, msg);
+    }
+
     public long getId() {
         return id;
     }
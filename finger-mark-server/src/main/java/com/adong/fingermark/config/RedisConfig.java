@@ -0,0 +1,20 @@
+package com.adong.fingermark.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * @author ADong
+ * @Description RedisConfig
+ * @Date 2022-08-15 7:34 PM
+ */
+@Configuration
+public class RedisConfig {
+
+    @Bean
+    public RedisTemplate<String,Object> redisTemplate(RedisConnectionFactory factory){
+        return RedisTemplateFactory.create(factory);
+    }
+}
@@ -2,5 +2,6 @@ package com.adong.fingermark.constant;
 
 public enum Status {
     SUCCESS,
-    ERROR
+    ERROR,
+    RATE_LIMITED
 }
@@ -0,0 +1,443 @@
+package com.adong.fingermark.controller;
+
+import com.adong.fingermark.common.BatchResult;
+import com.adong.fingermark.common.DataResult;
+import com.adong.fingermark.common.DecodedId;
+import com.adong.fingermark.common.IdRange;
+import com.adong.fingermark.common.IdFlux;
+import com.adong.fingermark.common.IdWriter;
+import com.adong.fingermark.common.Result;
+import com.adong.fingermark.config.PropertyFactory;
+import com.adong.fingermark.constant.ConfigConstant;
+import com.adong.fingermark.core.IdLayout;
+import com.adong.fingermark.jfr.StallProfiler;
+import com.adong.fingermark.jfr.StallSummary;
+import com.adong.fingermark.manager.IdGenManager;
+import com.adong.fingermark.manager.RateLimitedException;
+import com.adong.fingermark.manager.TenantLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author ADong
+ * @Description IdGenController
+ * 默认返回 JSON，Accept 为 text/plain 或 application/octet-stream 时直接写出十进制或 8 字节大端序 id，
+ * /stream 的 Accept 为 text/event-stream 或 application/x-ndjson 时返回按需拉取的响应式 id 流
+ * @Date 2022-08-15 8:02 PM
+ */
+
+@RestController
+@RequestMapping("/idGen")
+public class IdGenController {
+
+    private static final Logger log = LoggerFactory.getLogger(IdGenController.class);
+
+    /** 流式获取单次请求最大数量 **/
+    private static final long STREAM_MAX_COUNT = Long.parseLong(PropertyFactory.getProperties()
+            .getProperty(ConfigConstant.IDGEN_STREAM_MAX_COUNT, "1000000"));
+
+    private static final String FORMAT_BINARY = "binary";
+
+    @Autowired
+    private IdGenManager idGenManager;
+
+    /** 是否开放诊断接口，关闭时返回 404 **/
+    private boolean diagnosticsEnable = Boolean.parseBoolean(PropertyFactory.getProperties()
+            .getProperty(ConfigConstant.IDGEN_DIAGNOSTICS_ENABLE, "false"));
+
+    /** JFR 停顿记录，同一时间只允许一个记录 **/
+    private final StallProfiler stallProfiler = new StallProfiler();
+
+    @GetMapping("/getIdByAppKey/{appKey}")
+    public Result getIdByAppKey(@PathVariable("appKey") String appKey) {
+        try {
+            return Result.success(idGenManager.getId(appKey));
+        } catch (RateLimitedException e) {
+            return Result.limited(e.getMessage());
+        } catch (Exception e) {
+            log.error("getIdByAppKey error", e);
+            return Result.error();
+        }
+    }
+
+    @GetMapping(value = "/getIdByAppKey/{appKey}", produces = MediaType.TEXT_PLAIN_VALUE)
+    public void getIdByAppKeyText(@PathVariable("appKey") String appKey, HttpServletResponse response) {
+        try {
+            long id = idGenManager.getId(appKey);
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            IdWriter.writeText(response.getOutputStream(), id);
+        } catch (Exception e) {
+            writeError(response, "getIdByAppKeyText", e);
+        }
+    }
+
+    @GetMapping(value = "/getIdByAppKey/{appKey}", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public void getIdByAppKeyBinary(@PathVariable("appKey") String appKey, HttpServletResponse response) {
+        try {
+            long id = idGenManager.getId(appKey);
+            response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            response.setContentLength(Long.BYTES);
+            IdWriter.writeBinary(response.getOutputStream(), id);
+        } catch (Exception e) {
+            writeError(response, "getIdByAppKeyBinary", e);
+        }
+    }
+
+    @GetMapping("/batch/{appKey}")
+    public BatchResult batch(@PathVariable("appKey") String appKey,
+                             @RequestParam(value = "size", defaultValue = "100") int size) {
+        try {
+            return BatchResult.success(idGenManager.getIds(appKey, size));
+        } catch (RateLimitedException e) {
+            return BatchResult.limited(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return BatchResult.error(e.getMessage());
+        } catch (Exception e) {
+            log.error("batch error", e);
+            return BatchResult.error("system error!");
+        }
+    }
+
+    @GetMapping(value = "/batch/{appKey}", produces = MediaType.TEXT_PLAIN_VALUE)
+    public void batchText(@PathVariable("appKey") String appKey,
+                          @RequestParam(value = "size", defaultValue = "100") int size,
+                          HttpServletResponse response) {
+        try {
+            long[] ids = idGenManager.getIds(appKey, size);
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            IdWriter.writeText(response.getOutputStream(), ids, ids.length);
+        } catch (Exception e) {
+            writeError(response, "batchText", e);
+        }
+    }
+
+    @GetMapping(value = "/batch/{appKey}", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public void batchBinary(@PathVariable("appKey") String appKey,
+                            @RequestParam(value = "size", defaultValue = "100") int size,
+                            HttpServletResponse response) {
+        try {
+            long[] ids = idGenManager.getIds(appKey, size);
+            response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            response.setContentLength(ids.length * Long.BYTES);
+            IdWriter.writeBinary(response.getOutputStream(), ids, ids.length);
+        } catch (Exception e) {
+            writeError(response, "batchBinary", e);
+        }
+    }
+
+    /**
+     * 分块流式写出大量 id，按批量上限分批生成，每批写完 flush 一次
+     * @param appKey
+     * @param count 总数量
+     * @param format text：十进制换行分隔；binary：8 字节大端序
+     * @param response
+     */
+    @GetMapping("/stream/{appKey}")
+    public void stream(@PathVariable("appKey") String appKey,
+                       @RequestParam("count") long count,
+                       @RequestParam(value = "format", defaultValue = "text") String format,
+                       HttpServletResponse response) {
+        try {
+            if (count <= 0 || count > STREAM_MAX_COUNT) {
+                throw new IllegalArgumentException("count must be in [1, " + STREAM_MAX_COUNT + "]");
+            }
+            boolean binary = FORMAT_BINARY.equals(format);
+            response.setContentType(binary ? MediaType.APPLICATION_OCTET_STREAM_VALUE : MediaType.TEXT_PLAIN_VALUE);
+            ServletOutputStream out = response.getOutputStream();
+            int chunkSize = idGenManager.getBatchMaxSize();
+            long remaining = count;
+            while (remaining > 0) {
+                long[] ids = idGenManager.getIds(appKey, (int) Math.min(remaining, chunkSize));
+                if (binary) {
+                    IdWriter.writeBinary(out, ids, ids.length);
+                } else {
+                    if (remaining != count) {
+                        out.write('\n');
+                    }
+                    IdWriter.writeText(out, ids, ids.length);
+                }
+                remaining -= ids.length;
+                out.flush();
+            }
+        } catch (Exception e) {
+            writeError(response, "stream", e);
+        }
+    }
+
+    /**
+     * 响应式 id 流，SSE 或 NDJSON，每个事件/行是一批 id 组成的 JSON 数组
+     * 按客户端消费速度逐批生成，不阻塞 Servlet 线程
+     * @param appKey
+     * @param count 总数量，0 表示持续推送直到客户端断开
+     * @param chunk 每批数量，不超过批量上限
+     * @return
+     */
+    @GetMapping(value = "/stream/{appKey}",
+            produces = {MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<long[]> reactiveStream(@PathVariable("appKey") String appKey,
+                                       @RequestParam(value = "count", defaultValue = "0") long count,
+                                       @RequestParam(value = "chunk", defaultValue = "100") int chunk) {
+        if (count < 0 || count > STREAM_MAX_COUNT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "count must be in [0, " + STREAM_MAX_COUNT + "]");
+        }
+        if (chunk <= 0 || chunk > idGenManager.getBatchMaxSize()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "chunk must be in [1, " + idGenManager.getBatchMaxSize() + "]");
+        }
+        return IdFlux.generate(idGenManager::getIds, appKey, count, chunk)
+                .doOnError(e -> {
+                    if (!(e instanceof RateLimitedException)) {
+                        log.error("reactiveStream error, appKey={}", appKey, e);
+                    }
+                });
+    }
+
+    /**
+     * appKey 的位布局，供解码方拆分时间戳、机器号和序列
+     * @param appKey
+     * @return
+     */
+    @GetMapping("/layout/{appKey}")
+    public DataResult<IdLayout> layout(@PathVariable("appKey") String appKey) {
+        try {
+            return DataResult.success(requireLayout(appKey));
+        } catch (IllegalArgumentException e) {
+            return DataResult.error(e.getMessage());
+        } catch (Exception e) {
+            log.error("layout error", e);
+            return DataResult.error("system error!");
+        }
+    }
+
+    /**
+     * 按 appKey 的位布局批量解码 id，ids 逗号分隔
+     * @param appKey
+     * @param ids
+     * @return
+     */
+    @GetMapping("/decode/{appKey}")
+    public DataResult<List<DecodedId>> decode(@PathVariable("appKey") String appKey,
+                                              @RequestParam("ids") long[] ids) {
+        try {
+            IdLayout layout = requireLayout(appKey);
+            checkBatchSize(ids.length);
+            List<DecodedId> result = new ArrayList<>(ids.length);
+            for (long id : ids) {
+                result.add(DecodedId.decode(layout, id));
+            }
+            return DataResult.success(result);
+        } catch (IllegalArgumentException e) {
+            return DataResult.error(e.getMessage());
+        } catch (Exception e) {
+            log.error("decode error", e);
+            return DataResult.error("system error!");
+        }
+    }
+
+    /**
+     * 批量解码，请求体为 id 数组
+     */
+    @PostMapping("/decode/{appKey}")
+    public DataResult<List<DecodedId>> decodeBody(@PathVariable("appKey") String appKey,
+                                                  @RequestBody long[] ids) {
+        return decode(appKey, ids);
+    }
+
+    /**
+     * 时间区间对应的 id 区间，start、end 为毫秒时间戳，逗号分隔可一次查询多个区间
+     * 下游按 id BETWEEN minId AND maxId 做主键范围查询
+     * @param appKey
+     * @param start
+     * @param end
+     * @return
+     */
+    @GetMapping("/range/{appKey}")
+    public DataResult<List<IdRange>> range(@PathVariable("appKey") String appKey,
+                                           @RequestParam("start") long[] start,
+                                           @RequestParam("end") long[] end) {
+        try {
+            IdLayout layout = requireLayout(appKey);
+            if (start.length != end.length) {
+                throw new IllegalArgumentException("start and end must have the same length");
+            }
+            checkBatchSize(start.length);
+            List<IdRange> result = new ArrayList<>(start.length);
+            for (int i = 0; i < start.length; i++) {
+                if (start[i] > end[i]) {
+                    throw new IllegalArgumentException("start must not be after end");
+                }
+                result.add(IdRange.of(layout, start[i], end[i]));
+            }
+            return DataResult.success(result);
+        } catch (IllegalArgumentException e) {
+            return DataResult.error(e.getMessage());
+        } catch (Exception e) {
+            log.error("range error", e);
+            return DataResult.error("system error!");
+        }
+    }
+
+    /**
+     * 各 appKey 的配额、在途请求数和准入统计，用于调整配额
+     * @return
+     */
+    @GetMapping("/admission")
+    public List<TenantLimiter.Quota> admission() {
+        return idGenManager.getQuotas();
+    }
+
+    /**
+     * 限时记录生成器停顿并按原因汇总，请求会阻塞 seconds 秒
+     * 原因包括序列等待、回拨等待、切换机器号、注册、续期和生成器锁竞争，按总停顿时长倒序
+     * 需开启 idGen.diagnostics.enable
+     * @param seconds 记录时长，单位s，最长 60s
+     * @param threshold 停顿阈值，单位ms
+     * @param top 返回条数
+     * @return
+     */
+    @GetMapping("/stalls")
+    public List<StallSummary> stalls(@RequestParam(value = "seconds", defaultValue = "10") long seconds,
+                                     @RequestParam(value = "threshold", defaultValue = "1") long threshold,
+                                     @RequestParam(value = "top", defaultValue = "10") int top) {
+        checkDiagnostics();
+        try {
+            return stallProfiler.summarize(seconds, threshold, top);
+        } catch (RuntimeException e) {
+            throw stallError(e);
+        }
+    }
+
+    /**
+     * 限时记录生成器停顿并下载原始 jfr 文件，用 JDK Mission Control 或 jfr print 查看栈信息
+     * 需开启 idGen.diagnostics.enable
+     * @param seconds 记录时长，单位s，最长 60s
+     * @param threshold 锁竞争阈值，单位ms
+     * @param response
+     */
+    @GetMapping(value = "/stalls/recording", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public void stallRecording(@RequestParam(value = "seconds", defaultValue = "10") long seconds,
+                               @RequestParam(value = "threshold", defaultValue = "1") long threshold,
+                               HttpServletResponse response) throws IOException {
+        checkDiagnostics();
+        Path file;
+        try {
+            file = stallProfiler.record(seconds, threshold);
+        } catch (RuntimeException e) {
+            throw stallError(e);
+        }
+        try {
+            response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            response.setHeader("Content-Disposition", "attachment; filename=\"" + file.getFileName() + "\"");
+            response.setContentLengthLong(Files.size(file));
+            Files.copy(file, response.getOutputStream());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * 诊断接口未开启时按不存在处理，不暴露接口
+     */
+    private void checkDiagnostics() {
+        if (!diagnosticsEnable) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * 参数错误 400，已有记录在进行 409，运行环境不支持 JFR 501
+     */
+    private ResponseStatusException stallError(RuntimeException e) {
+        if (e instanceof IllegalArgumentException) {
+            return new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        if (e instanceof UnsupportedOperationException) {
+            return new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, e.getMessage());
+        }
+        if (e instanceof IllegalStateException) {
+            return new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+        log.error("stall recording error", e);
+        return new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage(), e);
+    }
+
+    private IdLayout requireLayout(String appKey) {
+        IdLayout layout = idGenManager.getLayout(appKey);
+        if (layout == null) {
+            throw new IllegalArgumentException("appKey has no snowflake layout");
+        }
+        return layout;
+    }
+
+    private void checkBatchSize(int size) {
+        if (size <= 0 || size > idGenManager.getBatchMaxSize()) {
+            throw new IllegalArgumentException("size must be in [1, " + idGenManager.getBatchMaxSize() + "]");
+        }
+    }
+
+    @GetMapping("/getId")
+    public Result getId() {
+        try {
+            return Result.success(idGenManager.getId());
+        } catch (RateLimitedException e) {
+            return Result.limited(e.getMessage());
+        } catch (Exception e) {
+            log.error("getId error", e);
+            return Result.error();
+        }
+    }
+
+    @GetMapping(value = "/getId", produces = MediaType.TEXT_PLAIN_VALUE)
+    public void getIdText(HttpServletResponse response) {
+        try {
+            long id = idGenManager.getId();
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            IdWriter.writeText(response.getOutputStream(), id);
+        } catch (Exception e) {
+            writeError(response, "getIdText", e);
+        }
+    }
+
+    /**
+     * 直接写出的接口出错时返回状态码，参数错误 400，超出配额 429，其他 500
+     * 已经开始写出的流式响应无法再修改状态码，只能中断
+     */
+    private void writeError(HttpServletResponse response, String method, Exception e) {
+        boolean limited = e instanceof RateLimitedException;
+        if (!(e instanceof IllegalArgumentException) && !limited) {
+            log.error("{} error", method, e);
+        }
+        if (response.isCommitted()) {
+            return;
+        }
+        try {
+            response.sendError(limited ? HttpStatus.TOO_MANY_REQUESTS.value()
+                    : e instanceof IllegalArgumentException
+                    ? HttpServletResponse.SC_BAD_REQUEST
+                    : HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
+        } catch (IOException ioException) {
+            log.error("{} sendError error", method, ioException);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.adong.fingermark.server;
+
+/**
+ * @author ADong
+ * @Description TCP 服务的 id 来源，一般为 {@link com.adong.fingermark.manager.IdGenManager#getIds(String, int)}
+ * @Date 2026-10-18 10:30 AM
+ */
+@FunctionalInterface
+public interface IdSource {
+
+    long[] nextIds(String appKey, int count);
+}
@@ -0,0 +1,27 @@
+package com.adong.fingermark.server;
+
+/**
+ * @author ADong
+ * @Description TCP 二进制协议，所有整数大端序，支持同一连接上流水线发送多个请求，响应按请求顺序返回
+ * 请求：int 帧长度（不含自身）| short appKey 长度 | appKey UTF-8 | int 数量
+ * 响应：int 帧长度（不含自身）| byte 状态 | 成功时为 数量 * long id，失败时为 UTF-8 错误信息
+ * @Date 2026-10-18 10:30 AM
+ */
+public final class IdTcpProtocol {
+
+    public static final byte STATUS_OK = 0;
+
+    public static final byte STATUS_ERROR = 1;
+
+    /** appKey 最大字节数 **/
+    public static final int MAX_APP_KEY_LENGTH = 256;
+
+    /** 请求帧最大长度 **/
+    public static final int MAX_REQUEST_FRAME_LENGTH = Short.BYTES + MAX_APP_KEY_LENGTH + Integer.BYTES;
+
+    /** 响应头长度：帧长度 + 状态 **/
+    public static final int RESPONSE_HEADER_LENGTH = Integer.BYTES + 1;
+
+    private IdTcpProtocol() {
+    }
+}
@@ -0,0 +1,466 @@
+package com.adong.fingermark.server;
+
+import com.adong.fingermark.manager.RateLimitedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author ADong
+ * @Description 基于 NIO 事件循环的 id 分发 TCP 服务，协议见 {@link IdTcpProtocol}
+ * 事件循环线程只负责读写和拆帧，一次读事件拆出的所有完整请求帧打包交给工作线程池生成 id，
+ * 生成结果放回完成队列后唤醒事件循环，由事件循环追加到连接的写缓冲区写出，
+ * 序列耗尽等待、时间回拨等待、限流都不会阻塞其他连接
+ * 同一连接同一时间只有一批请求在处理，处理完再拆下一批，客户端可以在同一连接上流水线发送请求，响应保持请求顺序
+ * @Date 2026-10-18 10:30 AM
+ */
+public class IdTcpServer {
+
+    private static final Logger log = LoggerFactory.getLogger(IdTcpServer.class);
+
+    private static final int READ_BUFFER_SIZE = 4096;
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    /** 待写出数据超过该值时暂停处理请求，防止客户端只发不收撑爆内存 **/
+    private static final int MAX_PENDING_WRITE = 16 * 1024 * 1024;
+
+    private final String host;
+
+    private final int port;
+
+    /** 单个请求最大数量 **/
+    private final int maxCount;
+
+    /** 工作线程数 **/
+    private final int workerThreads;
+
+    private final IdSource idSource;
+
+    /** 工作线程处理完的批次，由事件循环线程写出 **/
+    private final Queue<Completion> completions = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean running;
+
+    private Selector selector;
+
+    private ServerSocketChannel serverChannel;
+
+    private Thread eventLoop;
+
+    private ExecutorService workers;
+
+    public IdTcpServer(String host, int port, int maxCount, IdSource idSource) {
+        this(host, port, maxCount, Runtime.getRuntime().availableProcessors(), idSource);
+    }
+
+    public IdTcpServer(String host, int port, int maxCount, int workerThreads, IdSource idSource) {
+        if (workerThreads <= 0) {
+            throw new IllegalArgumentException("workerThreads must be > 0");
+        }
+        this.host = host;
+        this.port = port;
+        this.maxCount = maxCount;
+        this.workerThreads = workerThreads;
+        this.idSource = idSource;
+    }
+
+    /**
+     * 绑定端口并启动事件循环
+     * @throws IOException
+     */
+    public synchronized void start() throws IOException {
+
+        if (running) {
+            return;
+        }
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.bind(new InetSocketAddress(host, port));
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        AtomicInteger index = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerThreads, r -> {
+            Thread thread = new Thread(r, "id-tcp-worker-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        eventLoop = new Thread(this::loop, "id-tcp-server");
+        eventLoop.setDaemon(true);
+        eventLoop.start();
+        log.info("IdTcpServer started, address={}, workerThreads={}", serverChannel.getLocalAddress(), workerThreads);
+    }
+
+    /**
+     * 实际监听端口，绑定 0 端口时用于获取系统分配的端口
+     * @return
+     */
+    public int getLocalPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    private void loop() {
+
+        while (running) {
+            try {
+                selector.select();
+                Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+                while (iterator.hasNext()) {
+                    SelectionKey key = iterator.next();
+                    iterator.remove();
+                    handle(key);
+                }
+                complete();
+            } catch (ClosedSelectorException e) {
+                return;
+            } catch (IOException e) {
+                log.error("IdTcpServer select error", e);
+            }
+        }
+    }
+
+    private void handle(SelectionKey key) {
+
+        try {
+            if (!key.isValid()) {
+                return;
+            }
+            if (key.isAcceptable()) {
+                accept();
+                return;
+            }
+            Connection connection = (Connection) key.attachment();
+            if (key.isReadable()) {
+                connection.read();
+            }
+            if (key.isValid() && key.isWritable()) {
+                connection.flush();
+                connection.dispatch();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("IdTcpServer connection closed, cause={}", e.toString());
+            close(key);
+        }
+    }
+
+    /**
+     * 写出工作线程处理完的批次，连接已关闭的直接丢弃
+     */
+    private void complete() {
+
+        Completion completion;
+        while ((completion = completions.poll()) != null) {
+            SelectionKey key = completion.connection.key;
+            if (!key.isValid()) {
+                continue;
+            }
+            try {
+                completion.connection.complete(completion.response);
+            } catch (IOException | RuntimeException e) {
+                log.warn("IdTcpServer connection closed, cause={}", e.toString());
+                close(key);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        key.attach(new Connection(channel, key));
+    }
+
+    private void close(SelectionKey key) {
+
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            log.warn("IdTcpServer close channel error", e);
+        }
+    }
+
+    /**
+     * 关闭服务
+     */
+    public synchronized void stop() {
+
+        if (!running) {
+            return;
+        }
+        running = false;
+        workers.shutdownNow();
+        try {
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+        } catch (IOException e) {
+            log.warn("IdTcpServer stop error", e);
+        }
+        log.info("IdTcpServer stopped");
+    }
+
+    /**
+     * 在工作线程中按顺序处理一批请求，编码为响应
+     * @param requests
+     * @return 读模式的响应
+     */
+    private ByteBuffer process(List<Request> requests) {
+
+        int capacity = 0;
+        for (Request request : requests) {
+            capacity += IdTcpProtocol.RESPONSE_HEADER_LENGTH + request.count * Long.BYTES;
+        }
+        ByteBuffer response = ByteBuffer.allocate(capacity);
+        for (Request request : requests) {
+            if (request.error != null) {
+                response = writeError(response, request.error);
+                continue;
+            }
+            long[] ids;
+            try {
+                ids = idSource.nextIds(request.appKey, request.count);
+            } catch (RateLimitedException e) {
+                response = writeError(response, e.getMessage());
+                continue;
+            } catch (Exception e) {
+                log.error("IdTcpServer nextIds error, appKey={}", request.appKey, e);
+                response = writeError(response, "system error!");
+                continue;
+            }
+            response = ensureWritable(response, IdTcpProtocol.RESPONSE_HEADER_LENGTH + ids.length * Long.BYTES);
+            response.putInt(1 + ids.length * Long.BYTES);
+            response.put(IdTcpProtocol.STATUS_OK);
+            for (long id : ids) {
+                response.putLong(id);
+            }
+        }
+        response.flip();
+        return response;
+    }
+
+    private static ByteBuffer writeError(ByteBuffer buffer, String msg) {
+
+        byte[] bytes = msg.getBytes(StandardCharsets.UTF_8);
+        buffer = ensureWritable(buffer, IdTcpProtocol.RESPONSE_HEADER_LENGTH + bytes.length);
+        buffer.putInt(1 + bytes.length);
+        buffer.put(IdTcpProtocol.STATUS_ERROR);
+        buffer.put(bytes);
+        return buffer;
+    }
+
+    /**
+     * 剩余空间不足时扩容
+     * @param buffer 写模式
+     * @param length
+     * @return 写模式，可能是新的缓冲区
+     */
+    private static ByteBuffer ensureWritable(ByteBuffer buffer, int length) {
+
+        if (buffer.remaining() >= length) {
+            return buffer;
+        }
+        int capacity = Math.max(buffer.capacity(), 1);
+        while (capacity - buffer.position() < length) {
+            capacity <<= 1;
+        }
+        ByteBuffer expanded = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        expanded.put(buffer);
+        return expanded;
+    }
+
+    /**
+     * 一个请求帧，帧格式错误时 error 不为空
+     */
+    private static class Request {
+
+        private final String appKey;
+
+        private final int count;
+
+        private final String error;
+
+        private Request(String appKey, int count, String error) {
+            this.appKey = appKey;
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    /**
+     * 工作线程处理完的一批响应
+     */
+    private static class Completion {
+
+        private final Connection connection;
+
+        private final ByteBuffer response;
+
+        private Completion(Connection connection, ByteBuffer response) {
+            this.connection = connection;
+            this.response = response;
+        }
+    }
+
+    /**
+     * 连接状态，只在事件循环线程中访问
+     */
+    private class Connection {
+
+        private final SocketChannel channel;
+
+        private final SelectionKey key;
+
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+        /** 待写出的响应，写模式 **/
+        private ByteBuffer writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+
+        /** 是否有一批请求在工作线程中处理 **/
+        private boolean processing;
+
+        private Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        private void read() throws IOException {
+
+            int read = channel.read(readBuffer);
+            if (read < 0) {
+                throw new IOException("connection closed by peer");
+            }
+            dispatch();
+        }
+
+        /**
+         * 拆出读缓冲区中所有完整的请求帧交给工作线程，上一批未处理完或待写出数据过多时暂停，
+         * 处理完成或写出后再次调用，读缓冲区中剩余的请求帧不会因为没有新的读事件而滞留
+         * @throws IOException
+         */
+        private void dispatch() throws IOException {
+
+            if (!processing && writeBuffer.position() < MAX_PENDING_WRITE) {
+                List<Request> requests = new ArrayList<>();
+                long pending = writeBuffer.position();
+                readBuffer.flip();
+                while (readBuffer.remaining() >= Integer.BYTES && pending < MAX_PENDING_WRITE) {
+                    int frameLength = readBuffer.getInt(readBuffer.position());
+                    if (frameLength <= Short.BYTES || frameLength > IdTcpProtocol.MAX_REQUEST_FRAME_LENGTH) {
+                        throw new IOException("illegal frame length " + frameLength);
+                    }
+                    if (readBuffer.remaining() < Integer.BYTES + frameLength) {
+                        break;
+                    }
+                    readBuffer.getInt();
+                    Request request = parse(frameLength);
+                    requests.add(request);
+                    pending += IdTcpProtocol.RESPONSE_HEADER_LENGTH + (long) request.count * Long.BYTES;
+                }
+                readBuffer.compact();
+                if (!requests.isEmpty()) {
+                    processing = true;
+                    workers.execute(() -> {
+                        completions.add(new Completion(this, process(requests)));
+                        selector.wakeup();
+                    });
+                }
+            }
+            updateInterest();
+        }
+
+        /**
+         * 解析一个完整请求帧
+         * @param frameLength
+         * @return
+         */
+        private Request parse(int frameLength) {
+
+            int frameEnd = readBuffer.position() + frameLength;
+            int appKeyLength = readBuffer.getShort();
+            if (appKeyLength < 0 || Short.BYTES + appKeyLength + Integer.BYTES != frameLength) {
+                readBuffer.position(frameEnd);
+                return new Request(null, 0, "illegal appKey length " + appKeyLength);
+            }
+            String appKey = new String(readBuffer.array(), readBuffer.arrayOffset() + readBuffer.position(),
+                    appKeyLength, StandardCharsets.UTF_8);
+            readBuffer.position(readBuffer.position() + appKeyLength);
+            int count = readBuffer.getInt();
+            if (count <= 0 || count > maxCount) {
+                return new Request(appKey, 0, "count must be in [1, " + maxCount + "]");
+            }
+            return new Request(appKey, count, null);
+        }
+
+        /**
+         * 追加工作线程的响应并写出，然后继续处理读缓冲区中剩余的请求帧
+         * @param response 读模式
+         * @throws IOException
+         */
+        private void complete(ByteBuffer response) throws IOException {
+
+            processing = false;
+            writeBuffer = ensureWritable(writeBuffer, response.remaining());
+            writeBuffer.put(response);
+            flush();
+            dispatch();
+        }
+
+        /**
+         * 尽量写出，写不完保留写事件
+         * @throws IOException
+         */
+        private void flush() throws IOException {
+
+            writeBuffer.flip();
+            channel.write(writeBuffer);
+            writeBuffer.compact();
+            // 大批量请求后恢复默认大小
+            if (writeBuffer.position() == 0 && writeBuffer.capacity() > WRITE_BUFFER_SIZE) {
+                writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+            }
+            updateInterest();
+        }
+
+        /**
+         * 有待写出数据时关注写事件；没有在处理的请求且待写出数据未超限时关注读事件
+         */
+        private void updateInterest() {
+
+            int ops = 0;
+            if (writeBuffer.position() > 0) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            if (!processing && writeBuffer.position() < MAX_PENDING_WRITE) {
+                ops |= SelectionKey.OP_READ;
+            }
+            key.interestOps(ops);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.adong.fingermark.server;
+
+import com.adong.fingermark.config.PropertyFactory;
+import com.adong.fingermark.constant.ConfigConstant;
+import com.adong.fingermark.manager.IdGenManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Properties;
+
+/**
+ * @author ADong
+ * @Description 随应用启停 {@link IdTcpServer}，idGen.tcp.enable=true 时启用
+ * @Date 2026-10-18 11:20 AM
+ */
+@Component
+public class IdTcpServerLifecycle implements SmartLifecycle {
+
+    @Autowired
+    private IdGenManager idGenManager;
+
+    private IdTcpServer server;
+
+    @Override
+    public synchronized void start() {
+
+        Properties properties = PropertyFactory.getProperties();
+        if (!Boolean.parseBoolean(properties.getProperty(ConfigConstant.IDGEN_TCP_ENABLE, "false"))) {
+            return;
+        }
+        String host = properties.getProperty(ConfigConstant.IDGEN_TCP_HOST, "0.0.0.0");
+        int port = Integer.parseInt(properties.getProperty(ConfigConstant.IDGEN_TCP_PORT, "9090"));
+        int workerThreads = Integer.parseInt(properties.getProperty(ConfigConstant.IDGEN_TCP_WORKER_THREADS,
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        server = new IdTcpServer(host, port, idGenManager.getBatchMaxSize(), workerThreads, idGenManager::getIds);
+        try {
+            server.start();
+        } catch (IOException e) {
+            server = null;
+            throw new UncheckedIOException("IdTcpServer start error", e);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+
+        if (server != null) {
+            server.stop();
+            server = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return server != null;
+    }
+}
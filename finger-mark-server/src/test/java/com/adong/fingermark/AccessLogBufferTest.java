@@ -0,0 +1,198 @@
+package com.adong.fingermark;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.adong.fingermark.advice.AccessLogBuffer;
+import com.adong.fingermark.advice.MethodLogger;
+import com.adong.fingermark.config.PropertyFactory;
+import com.adong.fingermark.constant.ConfigConstant;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author ADong
+ * @Description AccessLogBufferTest
+ * @Date 2026-10-18 3:00 PM
+ */
+class AccessLogBufferTest {
+
+    private static final String[] KEYS = {
+            ConfigConstant.ACCESS_LOG_SAMPLE_RATE,
+            ConfigConstant.ACCESS_LOG_SLOW_THRESHOLD,
+            ConfigConstant.ACCESS_LOG_RESULT_ENABLE,
+            ConfigConstant.ACCESS_LOG_BUFFER_SIZE
+    };
+
+    private final Map<String, String> saved = new HashMap<>();
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(MethodLogger.class);
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private AccessLogBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+
+        Properties properties = PropertyFactory.getProperties();
+        for (String key : KEYS) {
+            saved.put(key, properties.getProperty(key));
+        }
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+
+        if (buffer != null) {
+            buffer.destroy();
+        }
+        logger.detachAppender(appender);
+        Properties properties = PropertyFactory.getProperties();
+        saved.forEach((key, value) -> {
+            if (value == null) {
+                properties.remove(key);
+            } else {
+                properties.setProperty(key, value);
+            }
+        });
+    }
+
+    @Test
+    void testSampling() throws Exception {
+
+        buffer = create("0", "100", "false", "16");
+        // 只记录慢调用
+        Assertions.assertFalse(buffer.shouldLog(99));
+        Assertions.assertTrue(buffer.shouldLog(100));
+        buffer.destroy();
+
+        buffer = create("1", "0", "false", "16");
+        Assertions.assertTrue(buffer.shouldLog(0));
+        buffer.destroy();
+
+        buffer = create("4", "0", "false", "16");
+        int logged = 0;
+        for (int i = 0; i < 40000; i++) {
+            if (buffer.shouldLog(0)) {
+                logged++;
+            }
+        }
+        // 期望 10000，远超误差范围才失败
+        Assertions.assertTrue(logged > 9000 && logged < 11000, "logged=" + logged);
+    }
+
+    @Test
+    void testDropWhenFull() throws Exception {
+
+        buffer = create("1", "0", "false", "2");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        // 后台线程序列化第一条日志时阻塞，读位置停在 0
+        buffer.offer(staticPart(), new Object[]{new BlockingArg(blocked, release)}, null, 1);
+        Assertions.assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        buffer.offer(staticPart(), new Object[]{"second"}, null, 1);
+        buffer.offer(staticPart(), new Object[]{"third"}, null, 1);
+        buffer.offer(staticPart(), new Object[]{"fourth"}, null, 1);
+        Assertions.assertEquals(2, buffer.getDropped());
+
+        release.countDown();
+        awaitLogged(2);
+        Assertions.assertEquals(2, appender.list.size());
+        Assertions.assertTrue(appender.list.get(1).getFormattedMessage().contains("args=[\"second\"]"));
+    }
+
+    @Test
+    void testResultOmitted() throws Exception {
+
+        buffer = create("1", "0", "false", "16");
+        buffer.offer(staticPart(), new Object[]{1}, "secret", 1);
+        awaitLogged(1);
+        String message = appender.list.get(0).getFormattedMessage();
+        Assertions.assertTrue(message.endsWith(";args=[1];returnObj=-"), message);
+        buffer.destroy();
+
+        buffer = create("1", "0", "true", "16");
+        buffer.offer(staticPart(), new Object[]{1}, "secret", 1);
+        awaitLogged(2);
+        message = appender.list.get(1).getFormattedMessage();
+        Assertions.assertTrue(message.endsWith(";args=[1];returnObj=\"secret\""), message);
+    }
+
+    private AccessLogBuffer create(String sampleRate, String slowThreshold, String logResult, String bufferSize) {
+
+        PropertyFactory.setProperty(ConfigConstant.ACCESS_LOG_SAMPLE_RATE, sampleRate);
+        PropertyFactory.setProperty(ConfigConstant.ACCESS_LOG_SLOW_THRESHOLD, slowThreshold);
+        PropertyFactory.setProperty(ConfigConstant.ACCESS_LOG_RESULT_ENABLE, logResult);
+        PropertyFactory.setProperty(ConfigConstant.ACCESS_LOG_BUFFER_SIZE, bufferSize);
+        AccessLogBuffer accessLogBuffer = new AccessLogBuffer();
+        accessLogBuffer.afterPropertiesSet();
+        return accessLogBuffer;
+    }
+
+    private void awaitLogged(int expect) throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (appender.list.size() < expect && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        Assertions.assertEquals(expect, appender.list.size());
+    }
+
+    private static JoinPoint.StaticPart staticPart() {
+
+        Signature signature = (Signature) Proxy.newProxyInstance(AccessLogBufferTest.class.getClassLoader(),
+                new Class[]{Signature.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getDeclaringTypeName":
+                            return "com.adong.fingermark.controller.IdGenController";
+                        case "getName":
+                            return "nextId";
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        return (JoinPoint.StaticPart) Proxy.newProxyInstance(AccessLogBufferTest.class.getClassLoader(),
+                new Class[]{JoinPoint.StaticPart.class}, (proxy, method, args) -> {
+                    if ("getSignature".equals(method.getName())) {
+                        return signature;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * 序列化时阻塞的参数
+     */
+    public static class BlockingArg {
+
+        private final CountDownLatch blocked;
+
+        private final CountDownLatch release;
+
+        BlockingArg(CountDownLatch blocked, CountDownLatch release) {
+            this.blocked = blocked;
+            this.release = release;
+        }
+
+        public String getValue() throws InterruptedException {
+            blocked.countDown();
+            release.await();
+            return "blocking";
+        }
+    }
+}
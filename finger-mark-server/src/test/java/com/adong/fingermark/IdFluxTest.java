@@ -0,0 +1,53 @@
+package com.adong.fingermark;
+
+import com.adong.fingermark.common.IdFlux;
+import com.adong.fingermark.core.SnowFlakeId;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author ADong
+ * @Description IdFluxTest
+ * @Date 2026-10-18 2:30 PM
+ */
+public class IdFluxTest {
+
+    @Test
+    public void testCount() {
+
+        SnowFlakeId idGen = new SnowFlakeId(8, 10, null);
+        Thread caller = Thread.currentThread();
+        List<long[]> chunks = IdFlux.generate((appKey, count) -> {
+            Assertions.assertNotSame(caller, Thread.currentThread());
+            return idGen.nextIds(count);
+        }, "test", 2500, 1000).collectList().block();
+
+        Assertions.assertEquals(3, chunks.size());
+        Assertions.assertEquals(1000, chunks.get(0).length);
+        Assertions.assertEquals(1000, chunks.get(1).length);
+        Assertions.assertEquals(500, chunks.get(2).length);
+        Assertions.assertTrue(chunks.get(2)[0] > chunks.get(1)[999]);
+    }
+
+    @Test
+    public void testUnboundedDemand() {
+
+        AtomicInteger calls = new AtomicInteger();
+        Long total = IdFlux.generate((appKey, count) -> {
+            calls.incrementAndGet();
+            return new long[count];
+        }, "test", IdFlux.UNBOUNDED, 10)
+                .limitRate(1)
+                .take(5)
+                .map(ids -> (long) ids.length)
+                .reduce(0L, Long::sum)
+                .block();
+
+        Assertions.assertEquals(Long.valueOf(50), total);
+        // 只按需生成，取消后不再拉取
+        Assertions.assertEquals(5, calls.get());
+    }
+}
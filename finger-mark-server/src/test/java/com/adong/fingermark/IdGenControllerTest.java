@@ -0,0 +1,119 @@
+package com.adong.fingermark;
+
+import com.adong.fingermark.controller.IdGenController;
+import com.adong.fingermark.core.IdLayout;
+import com.adong.fingermark.manager.IdGenManager;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * @author ADong
+ * @Description IdGenControllerTest
+ * @Date 2026-10-18 10:30 AM
+ */
+class IdGenControllerTest {
+
+    private MockMvc mockMvc;
+
+    private IdGenController controller;
+
+    @BeforeEach
+    void setUp() {
+
+        IdGenManager idGenManager = Mockito.mock(IdGenManager.class);
+        Mockito.when(idGenManager.getLayout("test")).thenReturn(new IdLayout(0, 1, 5, 5, 12));
+        Mockito.when(idGenManager.getBatchMaxSize()).thenReturn(2);
+        controller = new IdGenController();
+        ReflectionTestUtils.setField(controller, "idGenManager", idGenManager);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void testLayout() throws Exception {
+
+        mockMvc.perform(get("/idGen/layout/test"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SUCCESS"))
+                .andExpect(jsonPath("$.data.sequenceBits").value(12));
+        // 没有雪花布局的 appKey 通过 status 返回错误
+        mockMvc.perform(get("/idGen/layout/missing"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("ERROR"))
+                .andExpect(jsonPath("$.msg").value("appKey has no snowflake layout"))
+                .andExpect(jsonPath("$.data").doesNotExist());
+    }
+
+    @Test
+    void testDecode() throws Exception {
+
+        long id = (3L << 22) | (1L << 17) | (2L << 12) | 5;
+        mockMvc.perform(get("/idGen/decode/test").param("ids", String.valueOf(id)))
+                .andExpect(jsonPath("$.status").value("SUCCESS"))
+                .andExpect(jsonPath("$.data[0].tick").value(3))
+                .andExpect(jsonPath("$.data[0].datacenterId").value(1))
+                .andExpect(jsonPath("$.data[0].workerId").value(2))
+                .andExpect(jsonPath("$.data[0].sequence").value(5));
+        mockMvc.perform(post("/idGen/decode/test").contentType(MediaType.APPLICATION_JSON).content("[" + id + "]"))
+                .andExpect(jsonPath("$.status").value("SUCCESS"))
+                .andExpect(jsonPath("$.data[0].sequence").value(5));
+    }
+
+    @Test
+    void testDecodeInvalid() throws Exception {
+
+        mockMvc.perform(get("/idGen/decode/missing").param("ids", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("ERROR"))
+                .andExpect(jsonPath("$.msg").value("appKey has no snowflake layout"));
+        // 超过批量上限
+        mockMvc.perform(get("/idGen/decode/test").param("ids", "1,2,3"))
+                .andExpect(jsonPath("$.status").value("ERROR"))
+                .andExpect(jsonPath("$.msg").value("size must be in [1, 2]"));
+        mockMvc.perform(post("/idGen/decode/test").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(jsonPath("$.status").value("ERROR"))
+                .andExpect(jsonPath("$.msg").value("size must be in [1, 2]"));
+    }
+
+    @Test
+    void testRangeInvalid() throws Exception {
+
+        mockMvc.perform(get("/idGen/range/test").param("start", "1000").param("end", "2000"))
+                .andExpect(jsonPath("$.status").value("SUCCESS"))
+                .andExpect(jsonPath("$.data.length()").value(1));
+        mockMvc.perform(get("/idGen/range/test").param("start", "1000,2000").param("end", "3000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("ERROR"))
+                .andExpect(jsonPath("$.msg").value("start and end must have the same length"));
+        mockMvc.perform(get("/idGen/range/test").param("start", "2000").param("end", "1000"))
+                .andExpect(jsonPath("$.status").value("ERROR"))
+                .andExpect(jsonPath("$.msg").value("start must not be after end"));
+        mockMvc.perform(get("/idGen/range/missing").param("start", "1000").param("end", "2000"))
+                .andExpect(jsonPath("$.status").value("ERROR"))
+                .andExpect(jsonPath("$.msg").value("appKey has no snowflake layout"));
+    }
+
+    @Test
+    void testDiagnosticsDisabled() throws Exception {
+
+        // 默认关闭，按不存在处理
+        mockMvc.perform(get("/idGen/stalls").param("seconds", "1"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/idGen/stalls/recording").param("seconds", "1"))
+                .andExpect(status().isNotFound());
+        // 开启后进入参数校验，不支持 JFR 的运行环境返回 501
+        ReflectionTestUtils.setField(controller, "diagnosticsEnable", true);
+        mockMvc.perform(get("/idGen/stalls").param("seconds", "0"))
+                .andExpect(result -> Assertions.assertNotEquals(404, result.getResponse().getStatus()));
+    }
+}
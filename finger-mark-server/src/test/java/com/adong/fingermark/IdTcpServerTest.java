@@ -0,0 +1,127 @@
+package com.adong.fingermark;
+
+import com.adong.fingermark.client.IdTcpClient;
+import com.adong.fingermark.core.SnowFlakeId;
+import com.adong.fingermark.server.IdTcpServer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author ADong
+ * @Description IdTcpServerTest
+ * @Date 2026-10-18 11:50 AM
+ */
+public class IdTcpServerTest {
+
+    private static final Logger log = LoggerFactory.getLogger(IdTcpServerTest.class);
+
+    private static final int BATCH = 1000;
+
+    private static final int PIPELINE = 100;
+
+    @Test
+    public void testPipelineUnique() throws Exception {
+
+        SnowFlakeId idGen = new SnowFlakeId(7, 10, null);
+        IdTcpServer server = new IdTcpServer("127.0.0.1", 0, BATCH, (appKey, count) -> idGen.nextIds(count));
+        server.start();
+        try (IdTcpClient client = new IdTcpClient("127.0.0.1", server.getLocalPort(), 5000)) {
+            long start = System.nanoTime();
+            long[][] responses = client.pipeline("test", BATCH, PIPELINE);
+            long cost = System.nanoTime() - start;
+            log.info("tcp pipeline {} ids cost {}μs", BATCH * PIPELINE, cost / 1000);
+
+            long[] all = new long[BATCH * PIPELINE];
+            for (int i = 0; i < PIPELINE; i++) {
+                Assertions.assertEquals(BATCH, responses[i].length);
+                System.arraycopy(responses[i], 0, all, i * BATCH, BATCH);
+            }
+            Arrays.sort(all);
+            for (int i = 1; i < all.length; i++) {
+                Assertions.assertNotEquals(all[i - 1], all[i]);
+            }
+            Assertions.assertTrue(client.nextId("test") > all[all.length - 1]);
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testIllegalCount() throws Exception {
+
+        IdTcpServer server = new IdTcpServer("127.0.0.1", 0, BATCH, (appKey, count) -> new long[count]);
+        server.start();
+        try (IdTcpClient client = new IdTcpClient("127.0.0.1", server.getLocalPort(), 5000)) {
+            try {
+                client.nextIds("test", BATCH + 1);
+                Assertions.fail();
+            } catch (IOException e) {
+                Assertions.assertTrue(e.getMessage().contains("count must be in"));
+            }
+            // 错误响应后连接仍可用
+            Assertions.assertEquals(10, client.nextIds("test", 10).length);
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testPipelineOverPendingLimit() throws Exception {
+
+        // 每个响应 800KB，100 个请求远超待写出上限，需要分多批处理，写出后继续处理剩余请求帧
+        int count = 100000;
+        SnowFlakeId idGen = new SnowFlakeId(8, 10, null);
+        IdTcpServer server = new IdTcpServer("127.0.0.1", 0, count, 2, (appKey, size) -> idGen.nextIds(size));
+        server.start();
+        try (IdTcpClient client = new IdTcpClient("127.0.0.1", server.getLocalPort(), 10000)) {
+            long[][] responses = client.pipeline("test", count, PIPELINE);
+            for (long[] response : responses) {
+                Assertions.assertEquals(count, response.length);
+            }
+            Assertions.assertTrue(responses[PIPELINE - 1][count - 1] > responses[0][0]);
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testSlowRequestNotBlockOthers() throws Exception {
+
+        CountDownLatch release = new CountDownLatch(1);
+        IdTcpServer server = new IdTcpServer("127.0.0.1", 0, BATCH, 2, (appKey, count) -> {
+            if ("slow".equals(appKey)) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return new long[count];
+        });
+        server.start();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (IdTcpClient slow = new IdTcpClient("127.0.0.1", server.getLocalPort(), 5000);
+             IdTcpClient fast = new IdTcpClient("127.0.0.1", server.getLocalPort(), 5000)) {
+            Future<long[]> slowResult = executor.submit(() -> slow.nextIds("slow", 10));
+            // 生成 id 不在事件循环线程，其他连接不受影响
+            Assertions.assertEquals(10, fast.nextIds("fast", 10).length);
+            Assertions.assertFalse(slowResult.isDone());
+            release.countDown();
+            Assertions.assertEquals(10, slowResult.get(5, TimeUnit.SECONDS).length);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.adong.fingermark;
+
+import com.adong.fingermark.common.IdWriter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author ADong
+ * @Description IdWriterTest
+ * @Date 2026-10-18 4:00 PM
+ */
+public class IdWriterTest {
+
+    @Test
+    public void testWriteText() throws Exception {
+
+        long[] ids = new long[3000];
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i % 3 == 0 ? Long.MAX_VALUE - i : 7519824918712387584L + i;
+            if (i > 0) {
+                expected.append('\n');
+            }
+            expected.append(ids[i]);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IdWriter.writeText(out, ids, ids.length);
+        Assertions.assertEquals(expected.toString(), new String(out.toByteArray(), StandardCharsets.US_ASCII));
+
+        out.reset();
+        IdWriter.writeText(out, 0);
+        Assertions.assertEquals("0", new String(out.toByteArray(), StandardCharsets.US_ASCII));
+        out.reset();
+        IdWriter.writeText(out, -1);
+        Assertions.assertEquals("-1", new String(out.toByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testWriteBinary() throws Exception {
+
+        long[] ids = new long[2000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 7519824918712387584L + i * 4097L;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IdWriter.writeBinary(out, ids, ids.length);
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+        Assertions.assertEquals(ids.length * Long.BYTES, buffer.remaining());
+        for (long id : ids) {
+            Assertions.assertEquals(id, buffer.getLong());
+        }
+    }
+}
@@ -2,13 +2,11 @@ package com.adong.fingermark;
 
 import com.adong.fingermark.manager.IdGenManager;
 import com.google.common.base.Stopwatch;
-import org.junit.Test;
-import org.junit.runner.RunWith;
+import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.test.context.junit4.SpringRunner;
 
 import java.util.*;
 import java.util.concurrent.*;
@@ -19,7 +17,6 @@ import java.util.concurrent.*;
  * @Date 2022-08-16 2:25 PM
  */
 @SpringBootTest
-@RunWith(SpringRunner.class)
 public class SnowFlakeIdTest {
 
     private static final Logger log = LoggerFactory.getLogger(SnowFlakeIdTest.class);
@@ -0,0 +1,99 @@
+package com.adong.fingermark.autoconfigure;
+
+import com.adong.fingermark.config.PropertyFactory;
+import com.adong.fingermark.config.RedisTemplateFactory;
+import com.adong.fingermark.constant.ConfigConstant;
+import com.adong.fingermark.core.IdGen;
+import com.adong.fingermark.manager.IdGenManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * @author ADong
+ * @Description 嵌入业务进程的自动配置，在进程内生成 id，不经过 HTTP
+ * 注册 {@link IdGenManager}（机器号租约、续期与独立服务共用同一个 Redis 和 key），
+ * 并把 idGen.embedded.appKey 对应的句柄注册为 {@link IdGen} bean；其他 appKey 通过 {@link IdGenManager#handle(String)} 获取
+ * 配置项与独立服务一致（idGen.*、workerId.*、segment.*），从 Spring Environment 读取，支持 yml 和 profile
+ * @Date 2026-10-18 10:20 AM
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(RedisTemplate.class)
+@ConditionalOnBean(RedisConnectionFactory.class)
+@AutoConfigureAfter(RedisAutoConfiguration.class)
+public class FingerMarkAutoConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(FingerMarkAutoConfiguration.class);
+
+    private static final String[] PROPERTY_PREFIXES = {"idGen.", "workerId.", "segment."};
+
+    /**
+     * 与独立服务相同的序列化方式，不复用业务的 redisTemplate（默认 JDK 序列化 key）
+     */
+    @Bean
+    @ConditionalOnMissingBean(name = "fingerMarkRedisTemplate")
+    public RedisTemplate<String, Object> fingerMarkRedisTemplate(RedisConnectionFactory factory) {
+        return RedisTemplateFactory.create(factory);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public IdGenManager idGenManager(@Qualifier("fingerMarkRedisTemplate") RedisTemplate<String, Object> redisTemplate,
+                                     ObjectProvider<MeterRegistry> meterRegistry,
+                                     ConfigurableEnvironment environment) {
+        copyProperties(environment);
+        return new IdGenManager(redisTemplate, meterRegistry.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(IdGen.class)
+    public IdGen idGen(IdGenManager idGenManager) {
+        String appKey = PropertyFactory.getProperties()
+                .getProperty(ConfigConstant.IDGEN_EMBEDDED_APP_KEY, IdGenManager.DEFAULT_APP_KEY);
+        log.info("embedded IdGen appKey={}", appKey);
+        return idGenManager.handle(appKey);
+    }
+
+    /**
+     * 把 Environment 中 finger-mark 的配置写入 {@link PropertyFactory}，取值按 Environment 的优先级解析
+     * @param environment
+     */
+    private static void copyProperties(ConfigurableEnvironment environment) {
+
+        for (PropertySource<?> source : environment.getPropertySources()) {
+            if (!(source instanceof EnumerablePropertySource)) {
+                continue;
+            }
+            for (String name : ((EnumerablePropertySource<?>) source).getPropertyNames()) {
+                String value = isFingerMarkProperty(name) ? environment.getProperty(name) : null;
+                if (value != null) {
+                    PropertyFactory.setProperty(name, value);
+                }
+            }
+        }
+    }
+
+    private static boolean isFingerMarkProperty(String name) {
+
+        for (String prefix : PROPERTY_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,13 +0,0 @@
-package com.adong.fingermark.core;
-
-/**
- * @author ADong
- * @Description IdGen
- * @Date 2022-08-15 4:51 PM
- */
-public interface IdGen {
-
-    long nextId();
-
-    void destory();
-}